@@ -2,6 +2,7 @@ package nokori.clear.vg;
 
 import nokori.clear.vg.widget.assembly.WidgetAssembly;
 import nokori.clear.vg.widget.text.TextAreaAutoFormatterWidget;
+import nokori.clear.vg.widget.text.TextAreaSyntaxHighlighterWidget;
 import nokori.clear.windows.Window;
 import nokori.clear.windows.WindowManager;
 
@@ -23,18 +24,18 @@ public class ClearTextAreaCodeEditorDemo extends ClearTextAreaDemo {
 		//Disable word wrapping for a more code-editor-ish look
 		textAreaWidget.setWordWrappingEnabled(false);
 		
-		//Create the auto-formatting widget and add it to the text area we want it to operate on.
-		TextAreaAutoFormatterWidget syntaxHighlighter = new TextAreaAutoFormatterWidget();
+		//Create the syntax highlighting widget and add it to the text area we want it to operate on.
+		TextAreaSyntaxHighlighterWidget syntaxHighlighter = new TextAreaSyntaxHighlighterWidget();
 		textAreaWidget.addChild(syntaxHighlighter);
 
-		//Create definitions for the highlighting. Keep in mind, the auto-formatter is a general use widget for TextAreaWidgets.
-		//In our case, we're building it to work as a syntax highlighter.
-		syntaxHighlighter.addSyntax("public void", ESCAPE_SEQUENCE_COLOR, "#950055");
-		syntaxHighlighter.addSyntax("BlueText", ESCAPE_SEQUENCE_COLOR, "#0026FF");
-		syntaxHighlighter.addSyntax("BoldText", ESCAPE_SEQUENCE_BOLD);
-		syntaxHighlighter.addSyntax("ItalicText", ESCAPE_SEQUENCE_ITALIC);
-		syntaxHighlighter.addSyntax("LightText", ESCAPE_SEQUENCE_LIGHT);
-		syntaxHighlighter.addSyntax("//", ESCAPE_SEQUENCE_COLOR, "#3F7F5F", TextAreaAutoFormatterWidget.SyntaxResetMode.RESET_AFTER_NEW_LINE);
+		//Create definitions for the highlighting. The highlighter only stores formatting alongside the text, so the text itself is never modified.
+		//(TextAreaAutoFormatterWidget can be used instead if the formatting should be inserted into the text as escape sequences.)
+		syntaxHighlighter.addRule("public void", ESCAPE_SEQUENCE_COLOR, "#950055");
+		syntaxHighlighter.addRule("BlueText", ESCAPE_SEQUENCE_COLOR, "#0026FF");
+		syntaxHighlighter.addRule("BoldText", ESCAPE_SEQUENCE_BOLD);
+		syntaxHighlighter.addRule("ItalicText", ESCAPE_SEQUENCE_ITALIC);
+		syntaxHighlighter.addRule("LightText", ESCAPE_SEQUENCE_LIGHT);
+		syntaxHighlighter.addRule("//", ESCAPE_SEQUENCE_COLOR, "#3F7F5F", TextAreaAutoFormatterWidget.SyntaxResetMode.RESET_AFTER_NEW_LINE);
 	}
 
 	@Override
@@ -12,6 +12,8 @@ import nokori.clear.windows.event.*;
 import nokori.clear.windows.util.WindowedApplication;
 import org.joml.Vector4f;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static org.lwjgl.nanovg.NanoVG.*;
 
 /**
@@ -21,6 +23,8 @@ import static org.lwjgl.nanovg.NanoVG.*;
  */
 public abstract class ClearApp extends WindowedApplication {
 
+	private static final ClearColor PAUSED_OVERLAY_FILL = ClearColor.LIGHT_GRAY.alpha(0.75f).immutable(true);
+
 	private Vector4f bgClearColor = new Vector4f(1f, 1f, 1f, 1f);
 	
 	private NanoVGContext context;
@@ -29,6 +33,17 @@ public abstract class ClearApp extends WindowedApplication {
 	
 	private boolean paused = false;
 	
+	//If true, frames are only rendered when the widgets have changed (see setRenderOnDemand())
+	private boolean renderOnDemand = false;
+	private boolean frameRendered = false;
+	
+	//See setMouseMotionCoalescingEnabled()
+	private boolean mouseMotionCoalescingEnabled = false;
+	private MouseMotionEvent pendingMouseMotionEvent = null;
+	
+	//The pool that thread-safe widgets are ticked on, or null if parallel ticking is disabled (see setParallelTickEnabled())
+	private ForkJoinPool parallelTickPool = null;
+	
 	private ClearApp queueLaunch = null;
 	private int queueLaunchFrameDelay = 0;
 	
@@ -79,16 +94,40 @@ public abstract class ClearApp extends WindowedApplication {
 		 * Ticking
 		 */
 		
+		//Checked before ticking, since the last frame of a Transition still has to be rendered after the TransitionManager removes it
+		boolean animating = TransitionManager.hasActiveTransitions();
+		
+		//requestUpdate() can be called from other threads, so the widgets are only invalidated here
+		if (consumeUpdateRequest()) {
+			rootWidgetAssembly.invalidate();
+		}
+		
+		dispatchQueuedEvents();
+		dispatchPendingMouseMotionEvent();
+		
 		if (!paused) {
 			TransitionManager.tick();
 			rootWidgetAssembly.tick(context, rootWidgetAssembly);
-			rootWidgetAssembly.tickChildren(context, rootWidgetAssembly);
+			rootWidgetAssembly.tickChildren(context, rootWidgetAssembly, parallelTickPool);
 		}
 		
 		/*
 		 * Rendering
 		 */
 		
+		frameRendered = (!renderOnDemand || animating || rootWidgetAssembly.isDirty());
+		
+		if (!frameRendered) {
+			launchQueuedApp();
+			return;
+		}
+		
+		//Cleared before rendering so that anything invalidated during rendering is drawn on the next frame
+		rootWidgetAssembly.clearDirty();
+		
+		//Off-screen caches have to be rendered before the frame starts
+		rootWidgetAssembly.renderCaches(context, rootWidgetAssembly);
+		
 		NanoVGContext.glClearFrame(window.getFramebufferWidth(), window.getFramebufferHeight(), bgClearColor.x(), bgClearColor.y(), bgClearColor.z(), bgClearColor.w());
         context.beginFrame(window.getWidth(), window.getHeight(), window.getFramebufferWidth(), window.getFramebufferHeight());
 		
@@ -98,25 +137,37 @@ public abstract class ClearApp extends WindowedApplication {
         if (paused) {
         	long vg = context.get();
         	
-			ClearColor.LIGHT_GRAY.alpha(0.75f).tallocNVG(fill -> {
-				nvgBeginPath(vg);
-				nvgRect(vg, 0, 0, window.getFramebufferWidth(), window.getFramebufferHeight());
-				nvgFillColor(vg, fill);
-				nvgFill(vg);
-				nvgClosePath(vg);
-			});
+			nvgBeginPath(vg);
+			nvgRect(vg, 0, 0, window.getFramebufferWidth(), window.getFramebufferHeight());
+			nvgFillColor(vg, PAUSED_OVERLAY_FILL.getNVG());
+			nvgFill(vg);
+			nvgClosePath(vg);
         }
 
         context.endFrame();
         
-        if (queueLaunch != null) {
-        	if (queueLaunchFrameDelay > 0) {
-        		queueLaunchFrameDelay--;
-        	} else {
-        		launch(queueLaunch, null, false);
-        		queueLaunch = null;
-        	}
-        }
+        launchQueuedApp();
+	}
+	
+	private void launchQueuedApp() {
+		if (queueLaunch != null) {
+			if (queueLaunchFrameDelay > 0) {
+				queueLaunchFrameDelay--;
+			} else {
+				launch(queueLaunch, null, false);
+				queueLaunch = null;
+			}
+		}
+	}
+	
+	@Override
+	protected boolean isFrameRendered() {
+		return frameRendered;
+	}
+	
+	@Override
+	protected boolean isAnimating() {
+		return TransitionManager.hasActiveTransitions();
 	}
 
 	@Override
@@ -140,16 +191,23 @@ public abstract class ClearApp extends WindowedApplication {
 	}
 	
 	private void addInputCallbacks(Window window, WidgetAssembly rootWidgetAssembly) {
+		//Resizing
+		window.addInputCallback(new WindowFramebufferSizeCallback() {
+			
+			@Override
+			public void windowSizeEvent(Window window, long timestamp, int width, int height) {
+				//Thread-safe, since this is called from the input thread if it's enabled
+				requestUpdate();
+			}
+			
+		});
+		
 		//Char events
 		window.addInputCallback(new CharCallback() {
 			
 			@Override
 			public void charEvent(Window window, long timestamp, int codepoint, String c, int mods) {
-				if (!paused) {
-					CharEvent event = CharEvent.fire(window, timestamp, codepoint, c, mods);
-					rootWidgetAssembly.charEvent(window, event);
-					rootWidgetAssembly.childrenCharEvent(window, event);
-				}
+				dispatchEvent(CharEvent.fire(window, timestamp, codepoint, c, mods));
 			}
 			
 		});
@@ -159,11 +217,7 @@ public abstract class ClearApp extends WindowedApplication {
 			
 			@Override
 			public void keyEvent(Window window, long timestamp, int key, int scanCode, boolean pressed, boolean repeat, int mods) {
-				if (!paused) {
-					KeyEvent event = KeyEvent.fire(window, timestamp, key, scanCode, pressed, repeat, mods);
-					rootWidgetAssembly.keyEvent(window, event);
-					rootWidgetAssembly.childrenKeyEvent(window, event);
-				}
+				dispatchEvent(KeyEvent.fire(window, timestamp, key, scanCode, pressed, repeat, mods));
 			}
 			
 		});
@@ -173,11 +227,7 @@ public abstract class ClearApp extends WindowedApplication {
 
 			@Override
 			public void mouseButtonEvent(Window window, long timestamp, double mouseX, double mouseY, int button, boolean pressed, int mods) {
-				if (!paused) {
-					MouseButtonEvent event = MouseButtonEvent.fire(window, timestamp, mouseX, mouseY, button, pressed, mods);
-					rootWidgetAssembly.mouseButtonEvent(window, event);
-					rootWidgetAssembly.childrenMouseButtonEvent(window, event);
-				}
+				dispatchEvent(MouseButtonEvent.fire(window, timestamp, mouseX, mouseY, button, pressed, mods));
 			}
 			
 		});
@@ -187,11 +237,7 @@ public abstract class ClearApp extends WindowedApplication {
 
 			@Override
 			public void mouseMotionEvent(Window window, long timestamp, double mouseX, double mouseY, double dx, double dy) {
-				if (!paused) {
-					MouseMotionEvent event = MouseMotionEvent.fire(window, timestamp, mouseX, mouseY, dx, dy);
-					rootWidgetAssembly.mouseMotionEvent(window, event);
-					rootWidgetAssembly.childrenMouseMotionEvent(window, event);
-				}
+				dispatchEvent(MouseMotionEvent.fire(window, timestamp, mouseX, mouseY, dx, dy));
 			}
 			
 		});
@@ -201,15 +247,103 @@ public abstract class ClearApp extends WindowedApplication {
 
 			@Override
 			public void scrollEvent(Window window, long timestamp, double mouseX, double mouseY, double xoffset, double yoffset) {
-				if (!paused) {
-					MouseScrollEvent event = MouseScrollEvent.fire(window, timestamp, mouseX, mouseY, xoffset, yoffset);
-					rootWidgetAssembly.mouseScrollEvent(window, event);
-					rootWidgetAssembly.childrenMouseScrollEvent(window, event);
-				}
+				dispatchEvent(MouseScrollEvent.fire(window, timestamp, mouseX, mouseY, xoffset, yoffset));
 			}
 			
 		});
 	}
+	
+	/**
+	 * Handles the input events queued by the input thread since the last frame (see <code>setInputThreadEnabled()</code>). Events added while this is running are 
+	 * left for the next frame.
+	 */
+	private void dispatchQueuedEvents() {
+		EventQueue eventQueue = window.getEventQueue();
+		
+		if (eventQueue == null) {
+			return;
+		}
+		
+		for (int i = eventQueue.size(); i > 0; i--) {
+			dispatchEvent(eventQueue.poll());
+		}
+	}
+	
+	/**
+	 * Sends an input event to the widgets. If mouse motion coalescing is enabled, mouse motion events are held back and merged until another kind of event arrives or 
+	 * the next frame starts.
+	 */
+	private void dispatchEvent(Event event) {
+		if (mouseMotionCoalescingEnabled && event instanceof MouseMotionEvent) {
+			MouseMotionEvent e = (MouseMotionEvent) event;
+			
+			if (pendingMouseMotionEvent != null && pendingMouseMotionEvent.getWindow() == e.getWindow()) {
+				pendingMouseMotionEvent.coalesce(e);
+				e.recycle();
+			} else {
+				dispatchPendingMouseMotionEvent();
+				pendingMouseMotionEvent = e;
+			}
+			
+			return;
+		}
+		
+		//Keeps the events in order
+		dispatchPendingMouseMotionEvent();
+		sendEvent(event);
+	}
+	
+	private void dispatchPendingMouseMotionEvent() {
+		if (pendingMouseMotionEvent != null) {
+			MouseMotionEvent e = pendingMouseMotionEvent;
+			pendingMouseMotionEvent = null;
+			sendEvent(e);
+		}
+	}
+	
+	/**
+	 * Sends an input event to the widgets (unless this ClearApp is paused), then recycles it.
+	 */
+	private void sendEvent(Event event) {
+		if (!paused) {
+			Window window = event.getWindow();
+			
+			//Input events can change widgets in ways that aren't tracked (e.g. moving the caret of a TextAreaWidget), so they always cause a new frame to be rendered
+			rootWidgetAssembly.invalidate();
+			
+			if (event instanceof CharEvent) {
+				//Sent to the focused widget and its parents if there is one, otherwise to every widget
+				rootWidgetAssembly.getFocusManager().charEvent(window, (CharEvent) event);
+			} else if (event instanceof KeyEvent) {
+				//Sent to the focused widget and its parents if there is one, otherwise to every widget
+				rootWidgetAssembly.getFocusManager().keyEvent(window, (KeyEvent) event);
+			} else if (event instanceof MouseButtonEvent) {
+				MouseButtonEvent e = (MouseButtonEvent) event;
+				rootWidgetAssembly.mouseButtonEvent(window, e);
+				
+				if (!e.isConsumed()) {
+					rootWidgetAssembly.childrenMouseButtonEvent(window, e);
+				}
+			} else if (event instanceof MouseMotionEvent) {
+				MouseMotionEvent e = (MouseMotionEvent) event;
+				rootWidgetAssembly.mouseMotionEvent(window, e);
+				
+				if (!e.isConsumed()) {
+					rootWidgetAssembly.childrenMouseMotionEvent(window, e);
+				}
+			} else if (event instanceof MouseScrollEvent) {
+				MouseScrollEvent e = (MouseScrollEvent) event;
+				rootWidgetAssembly.mouseScrollEvent(window, e);
+				
+				if (!e.isConsumed()) {
+					rootWidgetAssembly.childrenMouseScrollEvent(window, e);
+				}
+			}
+		}
+		
+		//Events are only valid while they're being dispatched, so they can be reused now
+		event.recycle();
+	}
 
 	public NanoVGContext getContext() {
 		return context;
@@ -231,6 +365,80 @@ public abstract class ClearApp extends WindowedApplication {
 	public void setPaused(boolean paused) {
 		this.paused = paused;
 		window.setClosingEnabled(!paused);
+		rootWidgetAssembly.invalidate();
+	}
+	
+	/**
+	 * @see <code>setMouseMotionCoalescingEnabled()</code>
+	 */
+	public boolean isMouseMotionCoalescingEnabled() {
+		return mouseMotionCoalescingEnabled;
+	}
+	
+	/**
+	 * If true, consecutive mouse motion events received within a frame are merged into one event (with the summed movement) before being sent to the widgets, so
+	 * that high polling rate mice don't cause several passes over the widget tree per frame. The raw samples are kept in the event's history (see 
+	 * <code>MouseMotionEvent.getHistorySize()</code>) for widgets that need every point, such as drawing or drag trails.
+	 * 
+	 * @param mouseMotionCoalescingEnabled
+	 */
+	public void setMouseMotionCoalescingEnabled(boolean mouseMotionCoalescingEnabled) {
+		this.mouseMotionCoalescingEnabled = mouseMotionCoalescingEnabled;
+	}
+	
+	/**
+	 * @see <code>setParallelTickEnabled()</code>
+	 */
+	public boolean isParallelTickEnabled() {
+		return (parallelTickPool != null);
+	}
+	
+	/**
+	 * If true, widgets marked thread-safe (see <code>Widget.setTickThreadSafe()</code>) are ticked at the same time as their thread-safe siblings on the common 
+	 * ForkJoinPool, which lets interfaces with a lot of expensive tick logic use multiple cores. Everything else is still ticked in order on the rendering 
+	 * thread, and rendering stays on the rendering thread.
+	 * 
+	 * @param parallelTickEnabled
+	 * @see <code>setParallelTickPool()</code>
+	 */
+	public void setParallelTickEnabled(boolean parallelTickEnabled) {
+		setParallelTickPool(parallelTickEnabled ? ForkJoinPool.commonPool() : null);
+	}
+	
+	public ForkJoinPool getParallelTickPool() {
+		return parallelTickPool;
+	}
+	
+	/**
+	 * Enables parallel ticking with the given pool instead of the common pool, or disables it if the pool is null.
+	 * 
+	 * @param parallelTickPool
+	 * @see <code>setParallelTickEnabled()</code>
+	 */
+	public void setParallelTickPool(ForkJoinPool parallelTickPool) {
+		this.parallelTickPool = parallelTickPool;
+	}
+	
+	/**
+	 * @see <code>setRenderOnDemand()</code>
+	 */
+	public boolean isRenderOnDemand() {
+		return renderOnDemand;
+	}
+	
+	/**
+	 * If true, this ClearApp only renders a frame when something has changed: a widget was invalidated (see <code>WidgetContainer.invalidate()</code>), 
+	 * a Transition is playing, or input was received. On frames where nothing has changed, rendering and buffer swapping are skipped entirely, and the program 
+	 * loop blocks until the next input event instead of running continuously. This greatly reduces CPU/GPU usage for idle windows.
+	 * <br><br>
+	 * Since the program loop sleeps until input arrives, widgets aren't ticked while the app is idle. Widgets that change on their own (outside of 
+	 * Transitions) should either call <code>requestUpdate()</code>, or the app should enable power saving (see <code>setPowerSavingEnabled()</code>) so that 
+	 * the loop wakes up regularly.
+	 * 
+	 * @param renderOnDemand
+	 */
+	public void setRenderOnDemand(boolean renderOnDemand) {
+		this.renderOnDemand = renderOnDemand;
 	}
 
 	/**
@@ -1,16 +1,34 @@
 package nokori.clear.vg;
 
 import nokori.clear.vg.widget.assembly.WidgetUtils;
-import org.joml.Vector4f;
 import org.lwjgl.nanovg.NVGColor;
 import org.lwjgl.system.MemoryStack;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * This class is a wrapper for NVGColor that allows for short-hand customization and allocation.
  */
 public class ClearColor {
 	public static final int HEX_COLOR_LENGTH = 7;
 	
+	//The maximum number of derived colors (see multiply(), divide(), and alpha()) kept in the shared pool. The least recently used one is removed when it's full.
+	public static final int DERIVED_COLOR_POOL_SIZE = 256;
+	
+	private static final int MULTIPLY = 0;
+	private static final int DIVIDE = 1;
+	private static final int ALPHA = 2;
+	
+	private static final LinkedHashMap<DerivedColorKey, ClearColor> derivedColorPool = new LinkedHashMap<DerivedColorKey, ClearColor>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<DerivedColorKey, ClearColor> eldest) {
+			return size() > DERIVED_COLOR_POOL_SIZE;
+		}
+	};
+	
 	public static final ClearColor WHITE = new ClearColor("#FFFFFF").immutable(true);
 	public static final ClearColor LIGHT_GRAY = new ClearColor("#D3D3D3").immutable(true);
 	public static final ClearColor SILVER = new ClearColor("#C0C0C0").immutable(true);
@@ -35,9 +53,23 @@ public class ClearColor {
 	public static final ClearColor AQUA = new ClearColor("#00FFFF").immutable(true);
 	public static final ClearColor CORAL = new ClearColor("#FF7F50").immutable(true);
 
-	private Vector4f color;
+	//The component values, clamped to (0.0 - 1.0) when they're set
+	private float r, g, b, a;
+	
+	//The component values packed into an int (0xRRGGBBAA)
+	private int rgba;
+	
 	private boolean immutable = false;
 	
+	//True for the colors in the shared pool of derived colors, which are shared by every caller and so can never be made mutable
+	private boolean pooled = false;
+	
+	//The last derived color returned by this color if it's immutable, so that repeated calls (e.g. every frame) don't have to look it up in the pool
+	private volatile DerivedColor lastDerivedColor = null;
+	
+	//The NanoVG version of this color, created the first time it's needed and kept in sync with this color from then on (see getNVG())
+	private NVGColor nvgColor = null;
+	
 	/**
 	 * Creates a Color from integers (0-255)
 	 * @param r
@@ -48,6 +80,15 @@ public class ClearColor {
 		this((float) r * (1f/255f), (float) g * (1f/255f), (float) b * (1f/255f), (float) a * (1f/255f));
 	}
 
+	/**
+	 * Creates a Color from RGBA values packed into an int (0xRRGGBBAA), such as the ones returned by <code>getRGBA()</code>.
+	 * 
+	 * @param rgba
+	 */
+	public ClearColor(int rgba) {
+		this(rgba >>> 24, (rgba >>> 16) & 0xFF, (rgba >>> 8) & 0xFF, rgba & 0xFF);
+	}
+
 	/**
 	 * Creates a Color from a given HEX value. 
 	 * 
@@ -78,12 +119,21 @@ public class ClearColor {
 	
 	/**
 	 * Sets whether or not this Color is immutable. Immutable Colors cannot be recycled, and any setters used will instead return a new Color object rather than internally modifying this color.
+	 * <br><br>
+	 * Colors returned by <code>multiply()</code>, <code>divide()</code>, or <code>alpha()</code> on an immutable color are shared, so they can't be made mutable.
+	 * Use <code>copy()</code> to get a mutable version of one of them.
 	 * 
 	 * @param immutable 
 	 * @return
+	 * @throws IllegalStateException if this is a shared derived color and immutable is false
 	 */
 	public ClearColor immutable(boolean immutable) {
+		if (pooled && !immutable) {
+			throw new IllegalStateException("Derived colors of immutable colors are shared and can't be made mutable. Use copy() instead.");
+		}
+		
 		this.immutable = immutable;
+		lastDerivedColor = null;
 		return this;
 	}
 	
@@ -111,7 +161,7 @@ public class ClearColor {
 	 * @return this Color object if the Color is not mutable, or a new Color object if this Color is set to be immutable.
 	 */
 	public ClearColor green(float g) {
-		return set(getRed(), g, getGreen(), getAlpha());
+		return set(getRed(), g, getBlue(), getAlpha());
 	}
 	
 	/**
@@ -125,10 +175,17 @@ public class ClearColor {
 
 	/**
 	 * Sets the alpha value in the range (0.0 - 1.0). Useful for when a Color object needs to be recycled.
+	 * <br><br>
+	 * If this Color is immutable, the result comes from a shared pool of derived colors, so every caller gets the same object. Previously this was a new, 
+	 * mutable copy; now it's permanently immutable, so use <code>copy()</code> on it if a mutable color is needed.
 	 * 
-	 * @return this Color object if the Color is not mutable, or a new Color object if this Color is set to be immutable.
+	 * @return this Color object if the Color is not mutable, or if this Color is set to be immutable, a shared immutable Color from the pool of derived colors.
 	 */
 	public ClearColor alpha(float a) {
+		if (immutable) {
+			return derive(ALPHA, a);
+		}
+		
 		return set(getRed(), getGreen(), getBlue(), a);
 	}
 	
@@ -140,7 +197,7 @@ public class ClearColor {
 	 * @return this Color object if the Color is not mutable, or a new Color object if this Color is set to be immutable.
 	 */
 	public ClearColor set(ClearColor color) {
-		return set(color.getRed(), color.getBlue(), color.getGreen(), color.getAlpha());
+		return set(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
 	}
 	
 	/**
@@ -155,15 +212,43 @@ public class ClearColor {
 	public ClearColor set(float r, float g, float b, float a) {
 		if (immutable) {
 			return new ClearColor(r, g, b, a);
-		} else if (color == null ) {
-			color = new Vector4f(r, g, b, a);
-		} else {
-			color.set(r, g, b, a);
+		}
+		
+		this.r = WidgetUtils.clamp(r, 0f, 1f);
+		this.g = WidgetUtils.clamp(g, 0f, 1f);
+		this.b = WidgetUtils.clamp(b, 0f, 1f);
+		this.a = WidgetUtils.clamp(a, 0f, 1f);
+		
+		rgba = (pack(this.r) << 24) | (pack(this.g) << 16) | (pack(this.b) << 8) | pack(this.a);
+		
+		if (nvgColor != null) {
+			sync(nvgColor);
 		}
 			
 		return this;
 	}
 	
+	/**
+	 * Returns a NanoVG color with the same component values, which is created the first time this is called and then updated whenever this color is changed. 
+	 * This is the fastest way to pass a color to NanoVG, since nothing is allocated after the first call. The returned color is managed by this object and 
+	 * must not be freed or modified.
+	 * <br><br>
+	 * Usage example:
+	 * <br>
+	 * <code>nvgFillColor(vg, clearColor.getNVG());</code>
+	 */
+	public NVGColor getNVG() {
+		NVGColor nvgColor = this.nvgColor;
+		
+		if (nvgColor == null) {
+			//Garbage collected along with this object
+			nvgColor = sync(NVGColor.create());
+			this.nvgColor = nvgColor;
+		}
+		
+		return nvgColor;
+	}
+	
 	/**
 	 * Allocates and returns a NanoVG color with the same component values. This version is not automatically freed, so you'll have to call free() on it once you're finished with it.
 	 * @return
@@ -189,7 +274,8 @@ public class ClearColor {
 	}
 	
 	/**
-	 * Uses a MemoryStack push to temporarily create a NVGColor, which is then passed into ColorAction. This allows for the use of lambda function-type color calls to shorthand code
+	 * Uses a MemoryStack push to temporarily create a NVGColor, which is then passed into ColorAction. For code that runs every frame, <code>getNVG()</code> 
+	 * is faster, since it avoids the stack push and the lambda allocation. This allows for the use of lambda function-type color calls to shorthand code
 	 * rendering behaviors. The resulting NVGColor is automatically freed after.
 	 * <br><br>
 	 * Usage example:
@@ -210,19 +296,30 @@ public class ClearColor {
 	}
 	
 	public float getRed() {
-		return WidgetUtils.clamp(color.x(), 0f, 1f);
+		return r;
 	}
 	
 	public float getGreen() {
-		return WidgetUtils.clamp(color.y(), 0f, 1f);
+		return g;
 	}
 	
 	public float getBlue() {
-		return WidgetUtils.clamp(color.z(), 0f, 1f);
+		return b;
 	}
 	
 	public float getAlpha() {
-		return WidgetUtils.clamp(color.w(), 0f, 1f);
+		return a;
+	}
+	
+	/**
+	 * @return the RGBA values of this color packed into an int (0xRRGGBBAA), with 8 bits per component
+	 */
+	public int getRGBA() {
+		return rgba;
+	}
+	
+	private static int pack(float component) {
+		return Math.round(component * 255f);
 	}
 
 	public String toHEX() {
@@ -232,25 +329,103 @@ public class ClearColor {
 	/**
 	 * Multiplies this color's RGB values (but not the alpha) by the factor and returns a new object containing the new colors.
 	 * <br><br>
-	 * The intended application for this function is to be able to brighten/darken colors as needed.
+	 * The intended application for this function is to be able to brighten/darken colors as needed. If this color is immutable, the result is an immutable
+	 * color from the shared pool of derived colors, so calling this every frame doesn't create a new object every time. Since every caller gets the same object,
+	 * it's permanently immutable (see <code>immutable()</code>); use <code>copy()</code> on it if a mutable color is needed.
 	 * 
 	 * @param factor
 	 * @return a new ClearColor object with the given settings
 	 */
 	public ClearColor multiply(float factor) {
+		if (immutable) {
+			return derive(MULTIPLY, factor);
+		}
+		
 		return new ClearColor(getRed() * factor, getGreen() * factor, getBlue() * factor, getAlpha());
 	}
 
 	/**
 	 * Divides this color's RGB values (but not the alpha) by the quotient and returns a new object containing the new colors.
 	 * <br><br>
-	 * The intended application for this function is to be able to brighten/darken colors as needed.
+	 * The intended application for this function is to be able to brighten/darken colors as needed. If this color is immutable, the result is an immutable
+	 * color from the shared pool of derived colors, so calling this every frame doesn't create a new object every time. Since every caller gets the same object,
+	 * it's permanently immutable (see <code>immutable()</code>); use <code>copy()</code> on it if a mutable color is needed.
 	 * 
 	 * @param quotient
 	 * @return a new ClearColor object with the given settings
 	 */
 	public ClearColor divide(float quotient) {
-		return new ClearColor(getRed() / quotient, getRed() / quotient, getRed() / quotient, getAlpha());
+		if (immutable) {
+			return derive(DIVIDE, quotient);
+		}
+		
+		return new ClearColor(getRed() / quotient, getGreen() / quotient, getBlue() / quotient, getAlpha());
+	}
+	
+	/**
+	 * Returns the immutable color that results from applying the operation to this (immutable) color. Derived colors are shared between all colors with the 
+	 * same RGBA values, and are only created if they aren't already in the pool.
+	 */
+	private ClearColor derive(int operation, float value) {
+		DerivedColor last = lastDerivedColor;
+		
+		if (last != null && last.operation == operation && Float.floatToIntBits(last.value) == Float.floatToIntBits(value)) {
+			return last.color;
+		}
+		
+		DerivedColorKey key = new DerivedColorKey(rgba, operation, value);
+		ClearColor color;
+		
+		synchronized (derivedColorPool) {
+			color = derivedColorPool.get(key);
+			
+			if (color == null) {
+				color = createDerivedColor(operation, value);
+				derivedColorPool.put(key, color);
+			}
+		}
+		
+		lastDerivedColor = new DerivedColor(operation, value, color);
+		return color;
+	}
+	
+	/**
+	 * Creates the derived color from the packed RGBA values, so that the result is the same for every color sharing the pool entry.
+	 */
+	private ClearColor createDerivedColor(int operation, float value) {
+		float r = (rgba >>> 24) / 255f;
+		float g = ((rgba >>> 16) & 0xFF) / 255f;
+		float b = ((rgba >>> 8) & 0xFF) / 255f;
+		float a = (rgba & 0xFF) / 255f;
+		
+		ClearColor color;
+		
+		switch (operation) {
+		case MULTIPLY:
+			color = new ClearColor(r * value, g * value, b * value, a);
+			break;
+		case DIVIDE:
+			color = new ClearColor(r / value, g / value, b / value, a);
+			break;
+		case ALPHA:
+		default:
+			color = new ClearColor(r, g, b, value);
+			break;
+		}
+		
+		color.immutable(true);
+		color.pooled = true;
+		return color;
+	}
+	
+	/**
+	 * Clears the shared pool of derived colors. Colors that were already returned by <code>multiply()</code>, <code>divide()</code>, or <code>alpha()</code> are 
+	 * unaffected.
+	 */
+	public static void clearDerivedColorPool() {
+		synchronized (derivedColorPool) {
+			derivedColorPool.clear();
+		}
 	}
 
 	/**
@@ -288,4 +463,43 @@ public class ClearColor {
 		
 		return store;
 	}
+	
+	private static class DerivedColor {
+		private final int operation;
+		private final float value;
+		private final ClearColor color;
+		
+		public DerivedColor(int operation, float value, ClearColor color) {
+			this.operation = operation;
+			this.value = value;
+			this.color = color;
+		}
+	}
+	
+	private static class DerivedColorKey {
+		private final int rgba;
+		private final int operation;
+		private final int valueBits;
+		
+		public DerivedColorKey(int rgba, int operation, float value) {
+			this.rgba = rgba;
+			this.operation = operation;
+			this.valueBits = Float.floatToIntBits(value);
+		}
+
+		@Override
+		public int hashCode() {
+			return (rgba * 31 + operation) * 31 + valueBits;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof DerivedColorKey)) {
+				return false;
+			}
+			
+			DerivedColorKey key = (DerivedColorKey) o;
+			return (rgba == key.rgba && operation == key.operation && valueBits == key.valueBits);
+		}
+	}
 }
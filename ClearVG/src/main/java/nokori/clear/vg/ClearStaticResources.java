@@ -1,5 +1,6 @@
 package nokori.clear.vg;
 
+import nokori.clear.vg.widget.assembly.FocusManager;
 import nokori.clear.vg.widget.assembly.Widget;
 import nokori.clear.windows.Cursor;
 import nokori.clear.windows.Cursor.Type;
@@ -12,39 +13,92 @@ import nokori.clear.windows.Cursor.Type;
  * what you end up loading if applicable!
  */
 public class ClearStaticResources {
-	private static Widget focusedWidget = null;
-
 	private static Cursor[] loadedCursors;
 	
+	/*
+	 * Focus
+	 * 
+	 * Each widget tree (one per window in a ClearApp) has its own focused widget, kept by its FocusManager. These functions find the FocusManager of the given widget.
+	 */
+	
+	/**
+	 * @return the focused widget in the same widget tree (and therefore window) as the given widget
+	 */
+	public static Widget getFocusedWidget(Widget widget) {
+		return widget.getFocusManager().getFocusedWidget();
+	}
+	
+	/**
+	 * @return the focused widget of the FocusManager that most recently had a widget focused, which may belong to any window in the JVM
+	 * @deprecated the result depends on whichever window last focused a widget. Use <code>getFocusedWidget(widget)</code> instead.
+	 */
+	@Deprecated
 	public static Widget getFocusedWidget() {
-		return focusedWidget;
+		FocusManager focusManager = FocusManager.getLastFocusManager();
+		return (focusManager != null ? focusManager.getFocusedWidget() : null);
 	}
 
+	/**
+	 * Focuses the given widget in its widget tree. Passing null is deprecated: it clears the focus of the FocusManager that most recently had a widget focused, 
+	 * which may belong to any window. Use <code>clearFocus(widget)</code> or <code>clearFocusIfApplicable(widget)</code> instead.
+	 */
 	public static void setFocusedWidget(Widget focusedWidget) {
-		ClearStaticResources.focusedWidget = focusedWidget;
+		if (focusedWidget != null) {
+			focusedWidget.getFocusManager().setFocusedWidget(focusedWidget);
+		} else {
+			clearLastFocus();
+		}
 		//System.err.println(focusedWidget);
 		//Thread.dumpStack();
 	}
+	
+	/**
+	 * The deprecated <code>setFocusedWidget(null)</code> behavior.
+	 * 
+	 * @deprecated see <code>setFocusedWidget()</code>
+	 */
+	@Deprecated
+	private static void clearLastFocus() {
+		FocusManager focusManager = FocusManager.getLastFocusManager();
+		
+		if (focusManager != null) {
+			focusManager.setFocusedWidget(null);
+		}
+	}
 
 	public static boolean isFocusedOrCanFocus(Widget widget) {
-		return (focusedWidget == null || focusedWidget == widget);
+		return widget.getFocusManager().isFocusedOrCanFocus(widget);
 	}
 	
 	public static boolean isFocused(Widget widget) {
-		return (focusedWidget == widget);
+		return widget.getFocusManager().isFocused(widget);
 	}
 	
+	/**
+	 * @return true if the FocusManager that most recently had a widget focused still has one
+	 * @deprecated the result depends on whichever window last focused a widget. Use <code>hasFocusedWidget(widget)</code> instead.
+	 */
+	@Deprecated
 	public static boolean isFocused() {
-		return (focusedWidget != null);
+		return (getFocusedWidget() != null);
+	}
+	
+	/**
+	 * @return true if any widget in the same widget tree (and therefore window) as the given widget is focused
+	 */
+	public static boolean hasFocusedWidget(Widget widget) {
+		return (getFocusedWidget(widget) != null);
+	}
+	
+	/**
+	 * Clears the focused widget of the widget tree (and therefore window) that the given widget is in, whichever widget it is.
+	 */
+	public static void clearFocus(Widget widget) {
+		widget.getFocusManager().setFocusedWidget(null);
 	}
 	
 	public static boolean clearFocusIfApplicable(Widget widget) {
-		if (isFocused(widget)) {
-			setFocusedWidget(null);
-			return true;
-		}
-		
-		return false;
+		return widget.getFocusManager().clearFocusIfApplicable(widget);
 	}
 
 	/**
@@ -1,12 +1,14 @@
 package nokori.clear.vg;
 
+import org.lwjgl.nanovg.NVGLUFramebuffer;
+import org.lwjgl.nanovg.NVGPaint;
 import org.lwjgl.nanovg.NanoVGGL2;
 import org.lwjgl.nanovg.NanoVGGL3;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryStack;
 
-import static org.lwjgl.nanovg.NanoVG.nvgBeginFrame;
-import static org.lwjgl.nanovg.NanoVG.nvgEndFrame;
+import static org.lwjgl.nanovg.NanoVG.*;
 import static org.lwjgl.opengl.GL11.*;
 
 public class NanoVGContext {
@@ -14,6 +16,7 @@ public class NanoVGContext {
 	private long nvgContext;
 	
 	private int framebufferWidth, framebufferHeight;
+	private float pixelRatio = 1f;
 	
 	/**
 	 * Initializes a NanoVG context and returns this object.
@@ -56,6 +59,10 @@ public class NanoVGContext {
 		this.framebufferWidth = framebufferWidth;
 		this.framebufferHeight = framebufferHeight;
 		
+		if (windowWidth > 0) {
+			pixelRatio = (float) framebufferWidth / (float) windowWidth;
+		}
+		
       	float pxRatio = (float) framebufferWidth / (float) windowHeight;
         nvgBeginFrame(nvgContext, windowWidth, windowHeight, pxRatio);
 	}
@@ -81,6 +88,110 @@ public class NanoVGContext {
 		return nvgContext;
 	}
 	
+	/*
+	 * 
+	 * Off-screen Rendering
+	 * 
+	 */
+	
+	/**
+	 * Creates an off-screen framebuffer that NanoVG can render into, along with a NanoVG image of its contents. The image is premultiplied and flipped, 
+	 * matching what NanoVG renders into it.
+	 * 
+	 * @param width - the width in pixels
+	 * @param height - the height in pixels
+	 * @return the framebuffer, or null if it couldn't be created
+	 */
+	public NanoVGFramebuffer createFramebuffer(int width, int height) {
+		int imageFlags = NVG_IMAGE_PREMULTIPLIED | NVG_IMAGE_FLIPY;
+		NVGLUFramebuffer framebuffer;
+		
+		if (modernOpenGL) {
+			framebuffer = NanoVGGL3.nvgluCreateFramebuffer(nvgContext, width, height, imageFlags);
+		} else {
+			framebuffer = NanoVGGL2.nvgluCreateFramebuffer(nvgContext, width, height, imageFlags);
+		}
+		
+		return (framebuffer != null ? new NanoVGFramebuffer(framebuffer, width, height) : null);
+	}
+	
+	/**
+	 * Deletes a framebuffer created with <code>createFramebuffer()</code>, along with its image.
+	 */
+	public void deleteFramebuffer(NanoVGFramebuffer framebuffer) {
+		if (modernOpenGL) {
+			NanoVGGL3.nvgluDeleteFramebuffer(nvgContext, framebuffer.get());
+		} else {
+			NanoVGGL2.nvgluDeleteFramebuffer(nvgContext, framebuffer.get());
+		}
+	}
+	
+	/**
+	 * Binds the framebuffer, clears it, and starts a NanoVG frame for rendering into it. This can't be called between <code>beginFrame()</code> and 
+	 * <code>endFrame()</code>. Call <code>endFramebufferFrame()</code> when finished.
+	 * 
+	 * @param framebuffer - a framebuffer created with <code>createFramebuffer()</code>
+	 * @param x - the x coordinate that the left edge of the framebuffer corresponds to
+	 * @param y - the y coordinate that the top edge of the framebuffer corresponds to
+	 * @param pixelRatio - the ratio of framebuffer pixels to NanoVG units (see <code>getPixelRatio()</code>)
+	 */
+	public void beginFramebufferFrame(NanoVGFramebuffer framebuffer, float x, float y, float pixelRatio) {
+		int width = framebuffer.getWidth();
+		int height = framebuffer.getHeight();
+		
+		bindFramebuffer(framebuffer.get());
+		
+		glViewport(0, 0, width, height);
+		glClearColor(0f, 0f, 0f, 0f);
+		glClear(GL_COLOR_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
+		
+		nvgBeginFrame(nvgContext, width / pixelRatio, height / pixelRatio, pixelRatio);
+		nvgTranslate(nvgContext, -x, -y);
+	}
+	
+	/**
+	 * Ends a frame started with <code>beginFramebufferFrame()</code> and binds the default framebuffer again.
+	 */
+	public void endFramebufferFrame() {
+		nvgEndFrame(nvgContext);
+		bindFramebuffer(null);
+	}
+	
+	private void bindFramebuffer(NVGLUFramebuffer framebuffer) {
+		if (modernOpenGL) {
+			NanoVGGL3.nvgluBindFramebuffer(nvgContext, framebuffer);
+		} else {
+			NanoVGGL2.nvgluBindFramebuffer(nvgContext, framebuffer);
+		}
+	}
+	
+	/**
+	 * Draws the contents of a framebuffer at the given coordinates.
+	 * 
+	 * @param framebuffer
+	 * @param x
+	 * @param y
+	 * @param pixelRatio - the pixel ratio the framebuffer was rendered with
+	 */
+	public void drawFramebuffer(NanoVGFramebuffer framebuffer, float x, float y, float pixelRatio) {
+		drawImage(framebuffer.getImage(), x, y, framebuffer.getWidth() / pixelRatio, framebuffer.getHeight() / pixelRatio);
+	}
+	
+	/**
+	 * Draws a NanoVG image stretched over the given rectangle.
+	 */
+	public void drawImage(int image, float x, float y, float width, float height) {
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			NVGPaint paint = nvgImagePattern(nvgContext, x, y, width, height, 0f, image, 1f, NVGPaint.mallocStack(stack));
+			
+			nvgBeginPath(nvgContext);
+			nvgRect(nvgContext, x, y, width, height);
+			nvgFillPaint(nvgContext, paint);
+			nvgFill(nvgContext);
+			nvgClosePath(nvgContext);
+		}
+	}
+	
 	/**
 	 * @return the framebuffer width of the window configured in <code>beginFrame()</code>
 	 */
@@ -95,6 +206,14 @@ public class NanoVGContext {
 		return framebufferHeight;
 	}
 
+	/**
+	 * @return the ratio of framebuffer pixels to window coordinates from the last call to <code>beginFrame()</code> (e.g. 2 on high DPI displays), or 1 if
+	 * it hasn't been called yet
+	 */
+	public float getPixelRatio() {
+		return pixelRatio;
+	}
+
 	/**
 	 * Disposes this NanoVG context.
 	 */
@@ -0,0 +1,45 @@
+package nokori.clear.vg;
+
+import org.lwjgl.nanovg.NVGLUFramebuffer;
+
+/**
+ * An off-screen framebuffer that NanoVG can render into, along with the NanoVG image of its contents. Created with <code>NanoVGContext.createFramebuffer()</code>.
+ */
+public class NanoVGFramebuffer {
+	private NVGLUFramebuffer framebuffer;
+	private int width, height;
+
+	public NanoVGFramebuffer(NVGLUFramebuffer framebuffer, int width, int height) {
+		this.framebuffer = framebuffer;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * @return the NanoVG framebuffer struct
+	 */
+	public NVGLUFramebuffer get() {
+		return framebuffer;
+	}
+
+	/**
+	 * @return the NanoVG image handle of the framebuffer's contents
+	 */
+	public int getImage() {
+		return framebuffer.image();
+	}
+
+	/**
+	 * @return the width in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
@@ -96,7 +96,7 @@ public abstract class ClearInputApp extends ClearApp {
 			
 			confirmButton.setOnMouseButtonEvent(e -> {
 				if (confirmButton.isMouseWithin() && !e.isPressed()) {
-					confirmButtonPressed(inputField.getTextBuilder().toString());
+					confirmButtonPressed(inputField.getTextBuffer().toString());
 					window.requestClose();
 				}
 			});
@@ -16,6 +16,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Locale;
 
 import static org.lwjgl.nanovg.NanoVG.*;
@@ -32,6 +33,9 @@ public class Font {
 	private FloatBuffer tempBuffer = BufferUtils.createFloatBuffer(1);
 	private FloatBuffer boundsTempBuffer = null;
 	
+	//Measured glyph advances, keyed by font style and font size. See getGlyphAdvanceCache().
+	private HashMap<Long, GlyphAdvanceCache> glyphAdvanceCaches = new HashMap<>();
+	
 	/**
 	 * Creates a font just using the font path. The files in the given folder are scanned and their type will be assumed.
 	 * <br><br>
@@ -271,6 +275,34 @@ public class Font {
 		return boundsResultVector;
 	}
 	
+	/**
+	 * Gets the glyph advance cache for the given font size and style, creating it if it doesn't exist yet. The cache is used by <code>split()</code> so that 
+	 * each glyph only has to be measured by NanoVG once.
+	 * 
+	 * @param fontSize
+	 * @param fontStyle
+	 * @return the GlyphAdvanceCache for the given settings
+	 */
+	public GlyphAdvanceCache getGlyphAdvanceCache(float fontSize, FontStyle fontStyle) {
+		long key = ((long) fontStyle.ordinal() << 32) | (Float.floatToIntBits(fontSize) & 0xFFFFFFFFL);
+		GlyphAdvanceCache cache = glyphAdvanceCaches.get(key);
+		
+		if (cache == null) {
+			cache = new GlyphAdvanceCache(this, fontSize, fontStyle);
+			glyphAdvanceCaches.put(key, cache);
+		}
+		
+		return cache;
+	}
+	
+	/**
+	 * Clears all of the cached glyph advances for this Font. This is done automatically when a fallback font is added, but should be called manually 
+	 * if the font data is changed in NanoVG by other means.
+	 */
+	public void clearGlyphAdvanceCaches() {
+		glyphAdvanceCaches.clear();
+	}
+	
 	public void split(NanoVGContext context, ArrayList<String> lines, String string, float maxLineWidth, float fontSize, int textAlignment, FontStyle fontStyle) {
 		if (lines == null) {
 			lines = new ArrayList<String>();
@@ -280,8 +312,11 @@ public class Font {
 		
 		//System.out.println("Split start");
 		
+		//The font only needs to be configured once, the glyph cache will measure any glyphs it hasn't seen before with these settings.
+		configureNVG(context, fontSize, textAlignment, fontStyle);
+		GlyphAdvanceCache glyphAdvanceCache = getGlyphAdvanceCache(fontSize, fontStyle);
+		
 		StringBuilder builder = new StringBuilder();
-		Vector2f boundsResultVector = new Vector2f(0f, 0f);
 		
 		int len = string.length();
 		float advanceX = 0;
@@ -301,7 +336,7 @@ public class Font {
 				continue;
 			}
 
-			float a = getTextBounds(context, boundsResultVector, Character.toString(c), fontSize, textAlignment, fontStyle).x;
+			float a = glyphAdvanceCache.getAdvance(context, c);
 
 			if (advanceX + a > maxLineWidth) {
 				//System.out.println("Add (2) - > " + builder.toString());
@@ -313,7 +348,7 @@ public class Font {
 			advanceX += a;
 
 			if (isBreakable(c)) {
-				float wordLength = getWordLength(context, boundsResultVector, string, len, i+1, fontSize, textAlignment, fontStyle);
+				float wordLength = getWordLength(context, glyphAdvanceCache, string, len, i+1);
 
 				if (advanceX + wordLength > maxLineWidth) {
 					//System.out.println("Add (3) - > " + builder.toString());
@@ -337,7 +372,7 @@ public class Font {
 		//System.out.println("Split end: " + lines.size());
 	}
 	
-	private float getWordLength(NanoVGContext context, Vector2f boundsVector, String string, int len, int i, float fontSize, int textAlignment, FontStyle fontStyle) {
+	private float getWordLength(NanoVGContext context, GlyphAdvanceCache glyphAdvanceCache, String string, int len, int i) {
 
 		boolean isCommand = false;
 		
@@ -358,7 +393,7 @@ public class Font {
 					}
 				}
 
-				advance += getTextBounds(context, boundsVector, Character.toString(c), fontSize, textAlignment, fontStyle).x;
+				advance += glyphAdvanceCache.getAdvance(context, c);
 					
 				if(isBreakable(c)){
 					return advance;
@@ -489,6 +524,9 @@ public class Font {
 			nvgAddFallbackFont(context.get(), fontNameLight, font.fontNameLight);
 		}
 		
+		//Glyphs that were missing before may now be measured from the fallback font
+		clearGlyphAdvanceCaches();
+		
 		return this;
 	}
 	
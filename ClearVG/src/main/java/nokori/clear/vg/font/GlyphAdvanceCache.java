@@ -0,0 +1,79 @@
+package nokori.clear.vg.font;
+
+import nokori.clear.vg.NanoVGContext;
+import org.joml.Vector2f;
+
+import java.util.Arrays;
+
+/**
+ * This class caches the measured advance of individual glyphs for one (font face, font size, font style) configuration of a <code>Font</code>.
+ * Glyphs are measured through NanoVG the first time they're requested and are simple table lookups from then on.
+ * <br><br>
+ * The table is stored in lazily allocated pages of primitive floats (keyed by codepoint), so only the ranges of characters actually used by the text take up memory.
+ *
+ * @see <code>Font.getGlyphAdvanceCache()</code>
+ */
+public class GlyphAdvanceCache {
+
+	private static final int PAGE_BITS = 8;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+	private static final int PAGE_COUNT = (Character.MAX_CODE_POINT >> PAGE_BITS) + 1;
+
+	private Font font;
+	private float fontSize;
+	private FontStyle fontStyle;
+
+	private float[][] pages = new float[PAGE_COUNT][];
+	private Vector2f tempVector = new Vector2f();
+
+	GlyphAdvanceCache(Font font, float fontSize, FontStyle fontStyle) {
+		this.font = font;
+		this.fontSize = fontSize;
+		this.fontStyle = fontStyle;
+	}
+
+	/**
+	 * Gets the advance of the given codepoint. If the glyph hasn't been measured before, it's measured with NanoVG and stored for later.
+	 * <br><br>
+	 * This function will assume the font has already been set up either by using <code>configureNVG</code> (with the size and style of this cache) or manually
+	 * through NanoVG directly, same as <code>Font.getTextBounds(context, boundsResultVector, string)</code>.
+	 *
+	 * @param context
+	 * @param codepoint
+	 * @return the advance of the glyph
+	 */
+	public float getAdvance(NanoVGContext context, int codepoint) {
+		float[] page = pages[codepoint >> PAGE_BITS];
+
+		if (page == null) {
+			page = new float[PAGE_SIZE];
+			Arrays.fill(page, Float.NaN);
+			pages[codepoint >> PAGE_BITS] = page;
+		}
+
+		float advance = page[codepoint & PAGE_MASK];
+
+		if (Float.isNaN(advance)) {
+			advance = font.getTextBounds(context, tempVector, new String(Character.toChars(codepoint))).x();
+			page[codepoint & PAGE_MASK] = advance;
+		}
+
+		return advance;
+	}
+
+	/**
+	 * Clears all of the measured glyphs, forcing them to be measured again the next time they're requested.
+	 */
+	public void clear() {
+		Arrays.fill(pages, null);
+	}
+
+	public float getFontSize() {
+		return fontSize;
+	}
+
+	public FontStyle getFontStyle() {
+		return fontStyle;
+	}
+}
@@ -0,0 +1,14 @@
+package nokori.clear.vg.transition;
+
+/**
+ * An easing curve, which changes how a Transition progresses over time (e.g. starting slowly and speeding up). Set one with
+ * <code>Transition.setEasing()</code>. Common curves and ways to create new ones can be found in Easings.
+ */
+public interface Easing {
+
+	/**
+	 * @param progress - the progress of the Transition over time (between 0-1)
+	 * @return the eased progress. This is 0 at 0 and 1 at 1, but some curves go past those values in between (e.g. Easings.BACK_OUT).
+	 */
+	public float ease(float progress);
+}
@@ -0,0 +1,59 @@
+package nokori.clear.vg.transition;
+
+/**
+ * An Easing that has been sampled into a table of values, which are linearly interpolated between. This makes curves that use expensive math (e.g.
+ * <code>Math.sin()</code> or <code>Math.pow()</code>) as cheap to evaluate as any other, which adds up when thousands of Transitions are playing at once.
+ * Created with <code>Easings.bake()</code>.
+ */
+public class EasingLookupTable implements Easing {
+
+	private float[] table;
+	private int intervals;
+
+	/**
+	 * @param easing - the curve to sample
+	 * @param intervals - the number of intervals to divide the curve into (the table has one more value than this)
+	 */
+	public EasingLookupTable(Easing easing, int intervals) {
+		if (intervals < 1) {
+			throw new IllegalArgumentException("An EasingLookupTable needs at least one interval.");
+		}
+
+		this.intervals = intervals;
+
+		table = new float[intervals + 1];
+
+		for (int i = 0; i <= intervals; i++) {
+			table[i] = easing.ease((float) i / intervals);
+		}
+	}
+
+	@Override
+	public float ease(float progress) {
+		if (progress <= 0f) {
+			return table[0];
+		}
+
+		if (progress >= 1f) {
+			return table[intervals];
+		}
+
+		float position = progress * intervals;
+		int i = (int) position;
+
+		//Rounding can put progress values just under 1 on the last value
+		if (i >= intervals) {
+			return table[intervals];
+		}
+
+		float start = table[i];
+		return start + (table[i + 1] - start) * (position - i);
+	}
+
+	/**
+	 * @return the number of intervals the curve was divided into
+	 */
+	public int getIntervals() {
+		return intervals;
+	}
+}
@@ -0,0 +1,330 @@
+package nokori.clear.vg.transition;
+
+/**
+ * The standard easing curves (see easings.net for what each of them looks like), along with functions for creating cubic bezier and spring curves.
+ * <br><br>
+ * Curves that only need a few multiplications are calculated directly. Curves that need trigonometry, exponents, or square roots are baked into an
+ * EasingLookupTable when this class is loaded, so every curve here is cheap enough to use on thousands of Transitions at once.
+ */
+public class Easings {
+
+	/**
+	 * The default number of intervals used by <code>bake()</code>.
+	 */
+	public static final int DEFAULT_LOOKUP_TABLE_INTERVALS = 256;
+
+	/*
+	 *
+	 * Polynomial curves
+	 *
+	 */
+
+	public static final Easing LINEAR = p -> p;
+
+	//The same curves as WidgetUtils.smoothmix() and smoothermix()
+	public static final Easing SMOOTH = p -> p * p * (3f - 2f * p);
+	public static final Easing SMOOTHER = p -> p * p * p * (p * (p * 6f - 15f) + 10f);
+
+	public static final Easing QUAD_IN = p -> p * p;
+	public static final Easing QUAD_OUT = p -> 1f - (1f - p) * (1f - p);
+	public static final Easing QUAD_IN_OUT = p -> {
+		if (p < 0.5f) {
+			return 2f * p * p;
+		}
+
+		float q = -2f * p + 2f;
+		return 1f - q * q / 2f;
+	};
+
+	public static final Easing CUBIC_IN = p -> p * p * p;
+	public static final Easing CUBIC_OUT = p -> {
+		float q = 1f - p;
+		return 1f - q * q * q;
+	};
+	public static final Easing CUBIC_IN_OUT = p -> {
+		if (p < 0.5f) {
+			return 4f * p * p * p;
+		}
+
+		float q = -2f * p + 2f;
+		return 1f - q * q * q / 2f;
+	};
+
+	public static final Easing QUART_IN = p -> p * p * p * p;
+	public static final Easing QUART_OUT = p -> {
+		float q = 1f - p;
+		return 1f - q * q * q * q;
+	};
+	public static final Easing QUART_IN_OUT = p -> {
+		if (p < 0.5f) {
+			return 8f * p * p * p * p;
+		}
+
+		float q = -2f * p + 2f;
+		return 1f - q * q * q * q / 2f;
+	};
+
+	public static final Easing QUINT_IN = p -> p * p * p * p * p;
+	public static final Easing QUINT_OUT = p -> {
+		float q = 1f - p;
+		return 1f - q * q * q * q * q;
+	};
+	public static final Easing QUINT_IN_OUT = p -> {
+		if (p < 0.5f) {
+			return 16f * p * p * p * p * p;
+		}
+
+		float q = -2f * p + 2f;
+		return 1f - q * q * q * q * q / 2f;
+	};
+
+	//Overshoots slightly before settling
+	private static final float BACK_C1 = 1.70158f;
+	private static final float BACK_C2 = BACK_C1 * 1.525f;
+	private static final float BACK_C3 = BACK_C1 + 1f;
+
+	public static final Easing BACK_IN = p -> BACK_C3 * p * p * p - BACK_C1 * p * p;
+	public static final Easing BACK_OUT = p -> {
+		float q = p - 1f;
+		return 1f + BACK_C3 * q * q * q + BACK_C1 * q * q;
+	};
+	public static final Easing BACK_IN_OUT = p -> {
+		if (p < 0.5f) {
+			float q = 2f * p;
+			return (q * q * ((BACK_C2 + 1f) * q - BACK_C2)) / 2f;
+		}
+
+		float q = 2f * p - 2f;
+		return (q * q * ((BACK_C2 + 1f) * q + BACK_C2) + 2f) / 2f;
+	};
+
+	public static final Easing BOUNCE_OUT = p -> {
+		float n1 = 7.5625f;
+		float d1 = 2.75f;
+
+		if (p < 1f / d1) {
+			return n1 * p * p;
+		} else if (p < 2f / d1) {
+			p -= 1.5f / d1;
+			return n1 * p * p + 0.75f;
+		} else if (p < 2.5f / d1) {
+			p -= 2.25f / d1;
+			return n1 * p * p + 0.9375f;
+		} else {
+			p -= 2.625f / d1;
+			return n1 * p * p + 0.984375f;
+		}
+	};
+	public static final Easing BOUNCE_IN = p -> 1f - BOUNCE_OUT.ease(1f - p);
+	public static final Easing BOUNCE_IN_OUT = p -> {
+		if (p < 0.5f) {
+			return (1f - BOUNCE_OUT.ease(1f - 2f * p)) / 2f;
+		}
+
+		return (1f + BOUNCE_OUT.ease(2f * p - 1f)) / 2f;
+	};
+
+	/*
+	 *
+	 * Baked curves
+	 *
+	 */
+
+	public static final Easing SINE_IN = bake(p -> 1f - (float) Math.cos(p * Math.PI / 2));
+	public static final Easing SINE_OUT = bake(p -> (float) Math.sin(p * Math.PI / 2));
+	public static final Easing SINE_IN_OUT = bake(p -> (float) -(Math.cos(Math.PI * p) - 1) / 2f);
+
+	public static final Easing EXPO_IN = bake(p -> p == 0f ? 0f : (float) Math.pow(2, 10 * p - 10));
+	public static final Easing EXPO_OUT = bake(p -> p == 1f ? 1f : 1f - (float) Math.pow(2, -10 * p));
+	public static final Easing EXPO_IN_OUT = bake(p -> {
+		if (p == 0f || p == 1f) {
+			return p;
+		}
+
+		return (p < 0.5f ? (float) Math.pow(2, 20 * p - 10) / 2f : (2f - (float) Math.pow(2, -20 * p + 10)) / 2f);
+	});
+
+	public static final Easing CIRC_IN = bake(p -> 1f - (float) Math.sqrt(1 - p * p));
+	public static final Easing CIRC_OUT = bake(p -> (float) Math.sqrt(1 - (p - 1) * (p - 1)));
+	public static final Easing CIRC_IN_OUT = bake(p -> {
+		if (p < 0.5f) {
+			return (1f - (float) Math.sqrt(1 - (2 * p) * (2 * p))) / 2f;
+		}
+
+		return ((float) Math.sqrt(1 - (-2 * p + 2) * (-2 * p + 2)) + 1f) / 2f;
+	});
+
+	//Wobbles like a rubber band. These are baked with more intervals, since they change direction often.
+	public static final Easing ELASTIC_IN = bake(p -> {
+		if (p == 0f || p == 1f) {
+			return p;
+		}
+
+		return (float) (-Math.pow(2, 10 * p - 10) * Math.sin((p * 10 - 10.75) * (2 * Math.PI / 3)));
+	}, DEFAULT_LOOKUP_TABLE_INTERVALS * 4);
+	public static final Easing ELASTIC_OUT = bake(p -> {
+		if (p == 0f || p == 1f) {
+			return p;
+		}
+
+		return (float) (Math.pow(2, -10 * p) * Math.sin((p * 10 - 0.75) * (2 * Math.PI / 3)) + 1);
+	}, DEFAULT_LOOKUP_TABLE_INTERVALS * 4);
+	public static final Easing ELASTIC_IN_OUT = bake(p -> {
+		if (p == 0f || p == 1f) {
+			return p;
+		}
+
+		double c5 = (2 * Math.PI) / 4.5;
+
+		if (p < 0.5f) {
+			return (float) (-(Math.pow(2, 20 * p - 10) * Math.sin((20 * p - 11.125) * c5)) / 2);
+		}
+
+		return (float) ((Math.pow(2, -20 * p + 10) * Math.sin((20 * p - 11.125) * c5)) / 2 + 1);
+	}, DEFAULT_LOOKUP_TABLE_INTERVALS * 4);
+
+	/**
+	 * The same curve as the CSS "ease" timing function.
+	 */
+	public static final Easing EASE = cubicBezier(0.25f, 0.1f, 0.25f, 1f);
+
+	/**
+	 * A spring that overshoots a little and settles quickly.
+	 */
+	public static final Easing SPRING = spring(0.5f, 20f);
+
+	/*
+	 *
+	 * Custom curves
+	 *
+	 */
+
+	/**
+	 * Samples the curve into an EasingLookupTable with the default number of intervals.
+	 *
+	 * @param easing
+	 * @return
+	 */
+	public static Easing bake(Easing easing) {
+		return bake(easing, DEFAULT_LOOKUP_TABLE_INTERVALS);
+	}
+
+	/**
+	 * Samples the curve into an EasingLookupTable.
+	 *
+	 * @param easing
+	 * @param intervals - the number of intervals to divide the curve into. More intervals are more accurate for curves that change direction often.
+	 * @return
+	 */
+	public static Easing bake(Easing easing, int intervals) {
+		return new EasingLookupTable(easing, intervals);
+	}
+
+	/**
+	 * Creates a cubic bezier curve from (0, 0) to (1, 1) with the given control points, the same way as the CSS <code>cubic-bezier()</code> timing function.
+	 * The curve is baked into an EasingLookupTable, since finding the point of the curve for a given progress has to be done numerically.
+	 *
+	 * @param x1 - the X of the first control point (0-1)
+	 * @param y1 - the Y of the first control point
+	 * @param x2 - the X of the second control point (0-1)
+	 * @param y2 - the Y of the second control point
+	 * @return
+	 */
+	public static Easing cubicBezier(float x1, float y1, float x2, float y2) {
+		if (x1 < 0f || x1 > 1f || x2 < 0f || x2 > 1f) {
+			throw new IllegalArgumentException("The X values of the control points have to be between 0 and 1.");
+		}
+
+		return bake(p -> {
+			double t = solveCubicBezier(p, x1, x2);
+			return (float) cubicBezier(t, y1, y2);
+		});
+	}
+
+	private static double cubicBezier(double t, double p1, double p2) {
+		double u = 1 - t;
+		return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+	}
+
+	/**
+	 * @return the bezier parameter at which the curve's X is the given value
+	 */
+	private static double solveCubicBezier(double x, double x1, double x2) {
+		//Newton's method usually gets there in a few steps
+		double t = x;
+
+		for (int i = 0; i < 8; i++) {
+			double error = cubicBezier(t, x1, x2) - x;
+
+			if (Math.abs(error) < 1e-7) {
+				return t;
+			}
+
+			double u = 1 - t;
+			double derivative = 3 * u * u * x1 + 6 * u * t * (x2 - x1) + 3 * t * t * (1 - x2);
+
+			if (Math.abs(derivative) < 1e-6) {
+				break;
+			}
+
+			t -= error / derivative;
+		}
+
+		//Otherwise (e.g. where the curve is flat), fall back to bisection
+		double low = 0;
+		double high = 1;
+		t = x;
+
+		for (int i = 0; i < 64; i++) {
+			double error = cubicBezier(t, x1, x2) - x;
+
+			if (Math.abs(error) < 1e-7) {
+				break;
+			}
+
+			if (error > 0) {
+				high = t;
+			} else {
+				low = t;
+			}
+
+			t = (low + high) / 2;
+		}
+
+		return t;
+	}
+
+	/**
+	 * Creates a curve that moves like a spring (a damped harmonic oscillator) released at 0 and pulled toward 1, over the duration of the Transition. The
+	 * curve is baked into an EasingLookupTable. Whatever motion the spring has left at the end of the Transition is faded out over its duration, so it always
+	 * ends exactly at 1.
+	 *
+	 * @param dampingRatio - how quickly the spring stops moving. Below 1, it overshoots and bounces before settling (lower values bounce more). At 1 or above, it
+	 * doesn't overshoot.
+	 * @param frequency - how stiff the spring is, in radians over the duration of the Transition. Higher values settle more quickly.
+	 * @return
+	 */
+	public static Easing spring(float dampingRatio, float frequency) {
+		if (dampingRatio <= 0f || frequency <= 0f) {
+			throw new IllegalArgumentException("The damping ratio and frequency have to be above 0.");
+		}
+
+		double end = springPosition(1, dampingRatio, frequency);
+
+		return bake(p -> (float) (springPosition(p, dampingRatio, frequency) + (1 - end) * p), DEFAULT_LOOKUP_TABLE_INTERVALS * 2);
+	}
+
+	private static double springPosition(double t, double zeta, double omega) {
+		if (zeta < 1) {
+			double dampedOmega = omega * Math.sqrt(1 - zeta * zeta);
+			return 1 - Math.exp(-zeta * omega * t) * (Math.cos(dampedOmega * t) + (zeta * omega / dampedOmega) * Math.sin(dampedOmega * t));
+		}
+
+		if (zeta == 1) {
+			return 1 - Math.exp(-omega * t) * (1 + omega * t);
+		}
+
+		double s = omega * Math.sqrt(zeta * zeta - 1);
+		return 1 - Math.exp(-zeta * omega * t) * (Math.cosh(s * t) + (zeta * omega / s) * Math.sinh(s * t));
+	}
+}
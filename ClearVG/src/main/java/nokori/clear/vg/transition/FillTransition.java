@@ -20,6 +20,19 @@ public class FillTransition extends Transition {
 		this(durationInMillis, fromAndStoreFill, toFill, fromAndStoreFill);
 	}
 	
+	/**
+	 * Transitions one color to another along the given easing curve. The color that the result is stored in is also the one that the transition starts at.
+	 * 
+	 * @param durationInMillis - time in milliseconds for the transition to occur
+	 * @param fromAndStoreFill - the starting fill and the fill to store the blend results in
+	 * @param toFill - the destination fill
+	 * @param easing - the easing curve (see Easings)
+	 */
+	public FillTransition(long durationInMillis, ClearColor fromAndStoreFill, ClearColor toFill, Easing easing) {
+		this(durationInMillis, fromAndStoreFill, toFill, fromAndStoreFill);
+		setEasing(easing);
+	}
+	
 	/**
 	 * Transitions one color to another and stores the result in a third color. If you set a Control's fill with the storeFill, it should be automatically updated
 	 * as this Transition progresses (if you're using an immutable color, use copy() when setting it on the Control to ensure that it's recycled).
@@ -4,7 +4,7 @@ package nokori.clear.vg.transition;
  * This transition is used to resize objects to various sizes.
  */
 public abstract class SizeTransition extends Transition {
-	private float targetWidth, targetHeight;
+	private float startWidth, startHeight, targetWidth, targetHeight;
 	
 	public SizeTransition(long durationInMillis, float targetWidth, float targetHeight) {
 		super(durationInMillis);
@@ -12,29 +12,29 @@ public abstract class SizeTransition extends Transition {
 		this.targetHeight = targetHeight;
 	}
 
+	/**
+	 * Starts resizing from the current size.
+	 */
 	@Override
-	public void tick(float progress) {
-		setWidth(changeSize(progress, getCurrentWidth(), targetWidth));
-		setHeight(changeSize(progress, getCurrentHeight(), targetHeight));
+	public Transition play() {
+		startWidth = getCurrentWidth();
+		startHeight = getCurrentHeight();
+		return super.play();
 	}
-	
-	private float changeSize(float progress, float current, float target) {
-		if (current > target) {
-			float d = (current- target);
-			return (target + (d * (1f - progress)));
-		} else {
-			float d = (target - current);
-			return (current + (d * progress));
-		}
+
+	@Override
+	public void tick(float progress) {
+		setWidth(startWidth + ((targetWidth - startWidth) * progress));
+		setHeight(startHeight + ((targetHeight - startHeight) * progress));
 	}
 	
 	/**
-	 * Override this to return the current width of whatever element is being affected by this transition so that the iteration works correctly.
+	 * Override this to return the current width of whatever element is being affected by this transition, which is where it starts resizing from.
 	 */
 	protected abstract float getCurrentWidth();
 	
 	/**
-	 * Override this to return the current height of whatever element is being affected by this transition so that the iteration works correctly.
+	 * Override this to return the current height of whatever element is being affected by this transition, which is where it starts resizing from.
 	 */
 	protected abstract float getCurrentHeight();
 	
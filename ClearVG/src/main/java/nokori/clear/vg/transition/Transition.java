@@ -1,6 +1,9 @@
 package nokori.clear.vg.transition;
 
-import nokori.clear.windows.util.Stopwatch;
+import nokori.clear.vg.widget.assembly.Widget;
+import nokori.clear.windows.util.Clock;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Transitions are objects that allow the smooth animation of Nodes via the use of timestamps.
@@ -13,12 +16,32 @@ public abstract class Transition {
 	private long durationInMillis;
 	
 	private boolean isPlaying = false;
-	private Stopwatch stopwatch = new Stopwatch();
+	private boolean started = false;
+	
+	//True once the completed callback has been called for the current play(), so that stop() doesn't call it again
+	private boolean completed = false;
+	private long startTimeInNanoseconds, endTimeInNanoseconds;
+	
+	private Easing easing = null;
 	
 	private Object linkedObject = null;
+	private Widget invalidatedWidget = null;
 	
 	TransitionCompletedCallback completedCallback = null;
 	
+	/*
+	 * TransitionManager bookkeeping
+	 */
+	
+	//The index of this Transition in the TransitionManager's playing Transitions, or -1 if it isn't playing
+	int activeIndex = -1;
+	
+	//The linked object this Transition was indexed under when it started playing
+	Object indexedLinkedObject = null;
+	
+	//The TransitionManager tick this Transition was last ticked on
+	long lastTick = 0;
+	
 	public Transition(long durationInMillis) {
 		this.durationInMillis = durationInMillis;
 	}
@@ -41,7 +64,10 @@ public abstract class Transition {
 		
 		TransitionManager.removeLinkedTransitions(this, linkedObject);
 		
-		stopwatch.timeInMilliseconds(durationInMillis);
+		started = true;
+		completed = false;
+		startTimeInNanoseconds = Clock.now();
+		endTimeInNanoseconds = startTimeInNanoseconds + TimeUnit.MILLISECONDS.toNanos(durationInMillis);
 		TransitionManager.add(this);
 		isPlaying = true;
 		
@@ -53,8 +79,8 @@ public abstract class Transition {
 	 * @return
 	 */
 	public Transition stop() {
-		if (isFinished() && completedCallback != null) {
-			completedCallback.callback(this);
+		if (isFinished() && !completed) {
+			complete();
 		}
 		
 		TransitionManager.remove(this);
@@ -62,6 +88,17 @@ public abstract class Transition {
 		return this;
 	}
 	
+	/**
+	 * Calls the completed callback. Called by the TransitionManager when this Transition finishes.
+	 */
+	void complete() {
+		completed = true;
+		
+		if (completedCallback != null) {
+			completedCallback.callback(this);
+		}
+	}
+	
 	/**
 	 * Called by the TransitionManager regularly.
 	 * 
@@ -81,11 +118,58 @@ public abstract class Transition {
 	 * @return a value from 0 to 1 based on the transition time.
 	 */
 	public float getProgress() {
-		return stopwatch.getNormalizedDistanceBetweenTime();
+		return getProgress(Clock.now());
+	}
+	
+	/**
+	 * @param currentTime - the current time in nanoseconds
+	 * @return a value from 0 to 1 based on the transition time.
+	 */
+	float getProgress(long currentTime) {
+		if (!started) {
+			return 0f;
+		}
+		
+		double maxDistance = endTimeInNanoseconds - startTimeInNanoseconds;
+		double distance = Math.max(endTimeInNanoseconds - currentTime, 0);
+		
+		return 1f - (float) (distance / maxDistance);
+	}
+
+	/**
+	 * @param currentTime - the current time in nanoseconds
+	 * @return the progress with the easing curve applied, which is what <code>tick()</code> is called with
+	 */
+	float getEasedProgress(long currentTime) {
+		float progress = getProgress(currentTime);
+		return (easing != null ? easing.ease(progress) : progress);
 	}
 
 	public boolean isFinished() {
-		return (isPlaying && stopwatch.isCurrentTimePassedEndTime());
+		return isFinished(Clock.now());
+	}
+	
+	boolean isFinished(long currentTime) {
+		return (isPlaying && currentTime > endTimeInNanoseconds);
+	}
+
+	/**
+	 * @return the easing curve, or null if this Transition progresses linearly
+	 * @see <code>setEasing(easing)</code>
+	 */
+	public Easing getEasing() {
+		return easing;
+	}
+
+	/**
+	 * Sets the easing curve applied to the progress passed to <code>tick()</code>, such as one of the curves in Easings. Curves with expensive math should be
+	 * baked into a lookup table first with <code>Easings.bake()</code> (the curves in Easings already are).
+	 * 
+	 * @param easing - the curve, or null to progress linearly
+	 */
+	public Transition setEasing(Easing easing) {
+		this.easing = easing;
+		return this;
 	}
 
 	/**
@@ -108,4 +192,24 @@ public abstract class Transition {
 	public void setLinkedObject(Object linkedObject) {
 		this.linkedObject = linkedObject;
 	}
+
+	/**
+	 * @return the widget invalidated every time this Transition ticks
+	 * @see <code>setInvalidatedWidget(widget)</code>
+	 */
+	public Widget getInvalidatedWidget() {
+		return invalidatedWidget;
+	}
+
+	/**
+	 * Sets a widget to invalidate every time this Transition ticks. This is needed for Transitions that change how a widget looks without going through its 
+	 * setters (e.g. a FillTransition blending a color the widget uses), since render caches (see <code>WidgetAssembly.setRenderCacheEnabled()</code>) 
+	 * wouldn't know that the widget changed otherwise.
+	 * 
+	 * @param invalidatedWidget
+	 */
+	public Transition setInvalidatedWidget(Widget invalidatedWidget) {
+		this.invalidatedWidget = invalidatedWidget;
+		return this;
+	}
 }
@@ -1,47 +1,157 @@
 package nokori.clear.vg.transition;
 
+import nokori.clear.windows.util.Clock;
+
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 
+/**
+ * Ticks the playing Transitions. The playing Transitions are kept in an array, where each Transition knows its own index, so that starting and stopping one
+ * doesn't depend on how many are playing. Transitions with a linked object are also indexed by that object, so that <code>play()</code> can find the ones
+ * it replaces without searching every playing Transition.
+ */
 public class TransitionManager {
-	private static ArrayList<Transition> activeTransitions = new ArrayList<>();
-	
+	private static Transition[] activeTransitions = new Transition[64];
+	private static int activeTransitionCount = 0;
+
+	//The playing Transitions that have a linked object, by linked object
+	private static IdentityHashMap<Object, ArrayList<Transition>> linkedTransitions = new IdentityHashMap<>();
+
+	//Counts tick() calls, so that a Transition moved around by a callback isn't ticked twice in the same frame
+	private static long tickCount = 0;
+
 	static void add(Transition transition) {
-		activeTransitions.add(transition);
+		if (transition.activeIndex != -1) {
+			return;
+		}
+
+		if (activeTransitionCount == activeTransitions.length) {
+			Transition[] newActiveTransitions = new Transition[activeTransitions.length * 2];
+			System.arraycopy(activeTransitions, 0, newActiveTransitions, 0, activeTransitionCount);
+			activeTransitions = newActiveTransitions;
+		}
+
+		transition.activeIndex = activeTransitionCount;
+		activeTransitions[activeTransitionCount++] = transition;
+
+		Object linkedObject = transition.getLinkedObject();
+
+		if (linkedObject != null) {
+			ArrayList<Transition> transitions = linkedTransitions.get(linkedObject);
+
+			if (transitions == null) {
+				transitions = new ArrayList<>(2);
+				linkedTransitions.put(linkedObject, transitions);
+			}
+
+			transitions.add(transition);
+			transition.indexedLinkedObject = linkedObject;
+		}
 	}
-	
+
 	static boolean remove(Transition transition) {
-		return activeTransitions.remove(transition);
+		int index = transition.activeIndex;
+
+		if (index == -1) {
+			return false;
+		}
+
+		//Move the last Transition into the empty slot
+		int lastIndex = --activeTransitionCount;
+		Transition last = activeTransitions[lastIndex];
+		activeTransitions[index] = last;
+		last.activeIndex = index;
+		activeTransitions[lastIndex] = null;
+
+		transition.activeIndex = -1;
+
+		//The linked object it was indexed with is used, in case setLinkedObject() was called while it was playing
+		Object linkedObject = transition.indexedLinkedObject;
+
+		if (linkedObject != null) {
+			ArrayList<Transition> transitions = linkedTransitions.get(linkedObject);
+			transitions.remove(transition);
+
+			if (transitions.isEmpty()) {
+				linkedTransitions.remove(linkedObject);
+			}
+
+			transition.indexedLinkedObject = null;
+		}
+
+		return true;
 	}
-	
+
 	static void removeLinkedTransitions(Transition transition, Object linkedObject) {
-		if (linkedObject == null || activeTransitions.isEmpty()) {
+		if (linkedObject == null) {
+			return;
+		}
+
+		ArrayList<Transition> transitions = linkedTransitions.get(linkedObject);
+
+		if (transitions == null) {
 			return;
 		}
-		
-		for (int i = 0; i < activeTransitions.size(); i++) {
-			Transition t = activeTransitions.get(i);
-			
-			if (transition.getClass() == t.getClass() && t.getLinkedObject() == linkedObject) {
+
+		//Backwards, since stopping a Transition removes it from the list
+		for (int i = transitions.size() - 1; i >= 0; i--) {
+			//Completion callbacks called by stop() can change the list
+			if (i >= transitions.size()) {
+				continue;
+			}
+
+			Transition t = transitions.get(i);
+
+			if (transition.getClass() == t.getClass()) {
 				t.stop();
-				activeTransitions.remove(t);
-				i--;
+				remove(t);
 			}
 		}
 	}
-	
+
+	/**
+	 * @return true if any Transitions are currently playing
+	 */
+	public static boolean hasActiveTransitions() {
+		return (activeTransitionCount > 0);
+	}
+
+	/**
+	 * @return the number of Transitions currently playing
+	 */
+	public static int getActiveTransitionCount() {
+		return activeTransitionCount;
+	}
+
+	/**
+	 * Ticks every playing Transition. The time is only read once (from <code>Clock.get()</code>), so every Transition is ticked with the same time in a frame.
+	 */
 	public static void tick() {
-		for (int i = 0; i < activeTransitions.size(); i++) {
-			Transition t = activeTransitions.get(i);
-			t.tick(t.getProgress());
-			
-			if (t.isFinished()) {
-				
-				if (t.completedCallback != null) {
-					t.completedCallback.callback(t);
+		long currentTime = Clock.now();
+		long tick = ++tickCount;
+
+		int i = 0;
+
+		while (i < activeTransitionCount) {
+			Transition t = activeTransitions[i];
+
+			if (t.lastTick != tick) {
+				t.lastTick = tick;
+				t.tick(t.getEasedProgress(currentTime));
+
+				if (t.getInvalidatedWidget() != null) {
+					t.getInvalidatedWidget().invalidate();
+				}
+
+				if (t.isFinished(currentTime)) {
+					remove(t);
+					t.complete();
 				}
-				
-				activeTransitions.remove(i);
-				i--;
+			}
+
+			//If the Transition was removed, the one that took its place still has to be ticked
+			if (i < activeTransitionCount && activeTransitions[i] == t) {
+				i++;
 			}
 		}
 	}
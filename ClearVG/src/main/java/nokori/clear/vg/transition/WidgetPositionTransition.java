@@ -14,6 +14,11 @@ public class WidgetPositionTransition extends Transition {
 		this(widget, durationInMillis, widget.getX(), widget.getY(), targetX, targetY);
 	}
 	
+	public WidgetPositionTransition(Widget widget, long durationInMillis, float targetX, float targetY, Easing easing) {
+		this(widget, durationInMillis, targetX, targetY);
+		setEasing(easing);
+	}
+	
 	public WidgetPositionTransition(Widget widget, long durationInMillis, float startX, float startY, float targetX, float targetY) {
 		super(durationInMillis);
 		this.widget = widget;
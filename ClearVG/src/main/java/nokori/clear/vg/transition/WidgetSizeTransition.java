@@ -13,6 +13,11 @@ public class WidgetSizeTransition extends SizeTransition {
 		super(durationInMillis, targetWidth, targetHeight);
 		this.widget = widget;
 	}
+	
+	public WidgetSizeTransition(Widget widget, long durationInMillis, float targetWidth, float targetHeight, Easing easing) {
+		this(widget, durationInMillis, targetWidth, targetHeight);
+		setEasing(easing);
+	}
 
 	protected float getCurrentWidth() {
 		return widget.getWidth();
@@ -30,11 +30,9 @@ public class BezierLineRenderer {
 			nvgMoveTo(vg, sx, sy);
 			nvgBezierTo(vg, c1x, c1y, c2x, c2y, ex, ey);
 
-			strokeFill.tallocNVG(strokeFill -> {
-				nvgStrokeColor(vg, strokeFill);
-				nvgStrokeWidth(vg, strokeThickness);
-				nvgStroke(vg);
-			});
+			nvgStrokeColor(vg, strokeFill.getNVG());
+			nvgStrokeWidth(vg, strokeThickness);
+			nvgStroke(vg);
 
 			nvgClosePath(vg);
 		}
@@ -45,6 +45,7 @@ public class ButtonAssembly extends WidgetAssembly {
 			ClearStaticResources.getCursor(Cursor.Type.HAND).apply(e.getWindow());
 			
 			FillTransition outlineFader = new FillTransition(200, background.getStrokeFill(), outlineFill);
+			outlineFader.setInvalidatedWidget(background);
 			outlineFader.play();
 		});
 		
@@ -52,6 +53,7 @@ public class ButtonAssembly extends WidgetAssembly {
 			ClearStaticResources.getCursor(Cursor.Type.ARROW).apply(e.getWindow());
 			
 			FillTransition outlineFader = new FillTransition(200, background.getStrokeFill(),  DEFAULT_OUTLINE_COLOR);
+			outlineFader.setInvalidatedWidget(background);
 			outlineFader.play();
 		});
 	}
@@ -34,17 +34,13 @@ public class CircleWidget extends Widget {
 		nvgCircle(vg, getClippedX() + getWidth()/2f, getClippedY() + getHeight()/2f, radius);
 		
 		if (fill != null) {
-			fill.tallocNVG(fill -> {
-				nvgFillColor(vg, fill);
-				nvgFill(vg);
-			});
+			nvgFillColor(vg, fill.getNVG());
+			nvgFill(vg);
 		}
 		
 		if (strokeFill != null) {
-			strokeFill.tallocNVG(strokeFill -> {
-				nvgStrokeColor(vg, strokeFill);
-				nvgStroke(vg);
-			});
+			nvgStrokeColor(vg, strokeFill.getNVG());
+			nvgStroke(vg);
 		}
 
 		nvgClosePath(vg);
@@ -56,6 +52,7 @@ public class CircleWidget extends Widget {
 
 	public void setRadius(float radius) {
 		this.radius = radius;
+		invalidate();
 	}
 
 	public ClearColor getFill() {
@@ -64,6 +61,7 @@ public class CircleWidget extends Widget {
 
 	public void setFill(ClearColor fill) {
 		this.fill = fill;
+		invalidate();
 	}
 
 	public ClearColor getStrokeFill() {
@@ -72,6 +70,7 @@ public class CircleWidget extends Widget {
 
 	public void setStrokeFill(ClearColor strokeFill) {
 		this.strokeFill = strokeFill;
+		invalidate();
 	}
 
 	@Override
@@ -61,10 +61,10 @@ public class DropShadowWidget extends RectangleWidget {
 		float h = getHeight();
 		
 		try (MemoryStack stack = MemoryStack.stackPush()){
-			NVGColor fill = this.fill.mallocNVG(stack);
-			NVGColor transparent = this.fill.copy().alpha(0f).mallocNVG(stack);
+			NVGColor fill = this.fill.getNVG();
+			NVGColor transparent = NVGColor.mallocStack(stack).set(fill).a(0f);
 
-			NVGPaint paint = NanoVG.nvgBoxGradient(vg, x + shadowRadius, y + shadowRadius, w - (shadowRadius * 2), h - (shadowRadius * 2), 4, 12, fill, transparent, NVGPaint.create());
+			NVGPaint paint = NanoVG.nvgBoxGradient(vg, x + shadowRadius, y + shadowRadius, w - (shadowRadius * 2), h - (shadowRadius * 2), 4, 12, fill, transparent, NVGPaint.mallocStack(stack));
 			NanoVG.nvgBeginPath(vg);
 			NanoVG.nvgRect(vg, x, y, w, h);
 			NanoVG.nvgFillPaint(vg, paint);
@@ -67,17 +67,13 @@ public class HalfCircleWidget extends CircleWidget {
 		nvgArc(vg, x, y, radius, startAngle, endAngle, NVG_CW);
 		
 		if (fill != null) {
-			fill.tallocNVG(fill -> {
-				nvgFillColor(vg, fill);
-				nvgFill(vg);
-			});
+			nvgFillColor(vg, fill.getNVG());
+			nvgFill(vg);
 		}
 
 		if (strokeFill != null) {
-			strokeFill.tallocNVG(strokeFill -> {
-				nvgStrokeColor(vg, strokeFill);
-				nvgStroke(vg);
-			});
+			nvgStrokeColor(vg, strokeFill.getNVG());
+			nvgStroke(vg);
 		}
 		
 		nvgClosePath(vg);
@@ -7,7 +7,6 @@ import nokori.clear.vg.font.FontStyle;
 import nokori.clear.vg.widget.assembly.Widget;
 import nokori.clear.vg.widget.assembly.WidgetAssembly;
 import org.joml.Vector2f;
-import org.lwjgl.nanovg.NVGColor;
 
 import java.util.ArrayList;
 
@@ -117,12 +116,10 @@ public class LabelWidget extends Widget {
 		
 		long vg = context.get();
 		
-		NVGColor fill = (this.fill != null ? this.fill.callocNVG() : null);
-
 		nvgBeginPath(vg);
 
 		if (fill != null) {
-			nvgFillColor(vg, fill);
+			nvgFillColor(vg, fill.getNVG());
 		}
 		
 		for (int i = 0; i < lines.size(); i++) {
@@ -150,6 +147,7 @@ public class LabelWidget extends Widget {
 		this.text = text;
 		
 		calculateBounds(context);
+		invalidate();
 	}
 
 	public Font getFont() {
@@ -158,6 +156,7 @@ public class LabelWidget extends Widget {
 
 	public void setFont(Font font) {
 		this.font = font;
+		invalidate();
 	}
 
 	public FontStyle getStyle() {
@@ -166,6 +165,7 @@ public class LabelWidget extends Widget {
 
 	public void setStyle(FontStyle style) {
 		this.style = style;
+		invalidate();
 	}
 
 	public float getFontSize() {
@@ -174,6 +174,7 @@ public class LabelWidget extends Widget {
 
 	public void setFontSize(float fontSize) {
 		this.fontSize = fontSize;
+		invalidate();
 	}
 
 	public int getTextAlignment() {
@@ -182,6 +183,7 @@ public class LabelWidget extends Widget {
 
 	public void setTextAlignment(int textAlignment) {
 		this.textAlignment = textAlignment;
+		invalidate();
 	}
 
 	public ClearColor getFill() {
@@ -190,5 +192,6 @@ public class LabelWidget extends Widget {
 
 	public void setFill(ClearColor fill) {
 		this.fill = fill;
+		invalidate();
 	}
 }
@@ -98,24 +98,20 @@ public class RectangleWidget extends Widget  {
 		float h = getHeight();
 		
 		if (fill != null) {
-			fill.tallocNVG(fill -> {
-				NanoVG.nvgBeginPath(vg);
-				NanoVG.nvgRoundedRect(vg, x, y, w, h, cornerRadius);
-				NanoVG.nvgFillColor(vg, fill);
-				NanoVG.nvgFill(vg);
-				NanoVG.nvgClosePath(vg);
-			});
+			NanoVG.nvgBeginPath(vg);
+			NanoVG.nvgRoundedRect(vg, x, y, w, h, cornerRadius);
+			NanoVG.nvgFillColor(vg, fill.getNVG());
+			NanoVG.nvgFill(vg);
+			NanoVG.nvgClosePath(vg);
 		}
 		
 		if (strokeFill != null) {
-			strokeFill.tallocNVG(strokeFill -> {
-				NanoVG.nvgBeginPath(vg);
-				NanoVG.nvgRoundedRect(vg, x, y, w, h, cornerRadius);
-				NanoVG.nvgStrokeWidth(vg, strokeWidth);
-				NanoVG.nvgStrokeColor(vg, strokeFill);
-				NanoVG.nvgStroke(vg);
-				NanoVG.nvgClosePath(vg);
-			});
+			NanoVG.nvgBeginPath(vg);
+			NanoVG.nvgRoundedRect(vg, x, y, w, h, cornerRadius);
+			NanoVG.nvgStrokeWidth(vg, strokeWidth);
+			NanoVG.nvgStrokeColor(vg, strokeFill.getNVG());
+			NanoVG.nvgStroke(vg);
+			NanoVG.nvgClosePath(vg);
 		}
 		
 	}
@@ -126,6 +122,7 @@ public class RectangleWidget extends Widget  {
 
 	public void setStrokeWidth(float strokeWidth) {
 		this.strokeWidth = strokeWidth;
+		invalidate();
 	}
 
 	@Override
@@ -143,9 +140,11 @@ public class RectangleWidget extends Widget  {
 
 	public void setFill(ClearColor fill) {
 		this.fill = fill;
+		invalidate();
 	}
 
 	public void setStrokeFill(ClearColor strokeFill) {
 		this.strokeFill = strokeFill;
+		invalidate();
 	}
 }
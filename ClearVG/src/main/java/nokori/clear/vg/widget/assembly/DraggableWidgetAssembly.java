@@ -23,6 +23,7 @@ public class DraggableWidgetAssembly extends WidgetAssembly {
 
 	private boolean requiresMouseToBeWithinWidgetToDrag = true;
 	private boolean ignoreChildrenWidgets = false;
+	private boolean consumeDragEvents = false;
 	
 	public DraggableWidgetAssembly() {
 		this(0f, 0f, 0f, 0f);
@@ -47,6 +48,10 @@ public class DraggableWidgetAssembly extends WidgetAssembly {
 				//(Preventing the widget from snapping to the mouse coordinates from the upper-left)
 				draggingAnchorCallback(e);
 				setFocusedWidget(this);
+				
+				if (consumeDragEvents) {
+					e.setConsumed(true);
+				}
 			}
 			
 			//If dragging stops, unfocus if applicable
@@ -67,6 +72,12 @@ public class DraggableWidgetAssembly extends WidgetAssembly {
 		});
 	}
 	
+	@Override
+	protected boolean isMouseMotionListener() {
+		//The internal listener only does something while dragging, and dragging requires this widget to be focused (which always receives mouse motion events)
+		return (getMouseMotionEventListener() != null || overridesMouseMotionEvent());
+	}
+	
 	/**
 	 * This is split into its own function so that it can be overriden separately from <code>clipDraggingAnchor()</code>
 	 * @param e
@@ -171,6 +182,24 @@ public class DraggableWidgetAssembly extends WidgetAssembly {
 		this.ignoreChildrenWidgets = ignoreChildrenWidgets;
 	}
 
+	/**
+	 * @see <code>setConsumeDragEvents()</code>
+	 */
+	public boolean isConsumingDragEvents() {
+		return consumeDragEvents;
+	}
+
+	/**
+	 * If true, the mouse button event that starts dragging this widget is consumed, so it isn't passed on to any other widgets. Combined with 
+	 * <code>setInvertInputOrder(true)</code> on the parent, this lets a click on the top-most node skip the rest of them. Leave this disabled if other widgets 
+	 * need to know about every click (e.g. to lose focus when clicking elsewhere).
+	 * 
+	 * @param consumeDragEvents
+	 */
+	public void setConsumeDragEvents(boolean consumeDragEvents) {
+		this.consumeDragEvents = consumeDragEvents;
+	}
+
 	/**
 	 * @return true if this DraggableWidgetAssembly is being dragged via user input.
 	 */
@@ -0,0 +1,199 @@
+package nokori.clear.vg.widget.assembly;
+
+import nokori.clear.windows.Window;
+import nokori.clear.windows.event.CharEvent;
+import nokori.clear.windows.event.KeyEvent;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps track of the focused widget of a widget tree and routes keyboard input to it. Every tree has its own FocusManager (stored in its top-level widget, see
+ * <code>Widget.getFocusManager()</code>), so each window of a multi-window ClearApp has a separate focused widget.
+ * <br><br>
+ * While a widget is focused, key and char events are only sent to that widget and its parents (starting from the top of the tree), rather than to every widget.
+ * If no widget is focused, they're sent to the whole tree as usual. See <code>setFocusRoutingEnabled()</code>.
+ */
+public class FocusManager {
+
+	//The FocusManager that last had a widget focused, for the window-independent functions in ClearStaticResources
+	private static volatile FocusManager lastFocusManager = null;
+
+	private Widget root;
+	private Widget focusedWidget = null;
+
+	private boolean focusRoutingEnabled = true;
+
+	//The focused widget and its parents, reused between events
+	private ArrayList<Widget> focusPath = new ArrayList<>();
+
+	FocusManager(Widget root) {
+		this.root = root;
+	}
+
+	/**
+	 * @return the FocusManager that most recently had a widget focused, or null if no widget has been focused yet
+	 * @deprecated this is shared by every window in the JVM. Use <code>Widget.getFocusManager()</code> instead.
+	 */
+	@Deprecated
+	public static FocusManager getLastFocusManager() {
+		return lastFocusManager;
+	}
+
+	/*
+	 *
+	 * Focus
+	 *
+	 */
+
+	public Widget getFocusedWidget() {
+		return focusedWidget;
+	}
+
+	public void setFocusedWidget(Widget focusedWidget) {
+		this.focusedWidget = focusedWidget;
+
+		if (focusedWidget != null) {
+			lastFocusManager = this;
+		}
+	}
+
+	public boolean isFocusedOrCanFocus(Widget widget) {
+		return (focusedWidget == null || focusedWidget == widget);
+	}
+
+	public boolean isFocused(Widget widget) {
+		return (focusedWidget == widget);
+	}
+
+	public boolean isFocused() {
+		return (focusedWidget != null);
+	}
+
+	public boolean clearFocusIfApplicable(Widget widget) {
+		if (isFocused(widget)) {
+			setFocusedWidget(null);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Called when a widget is removed from the tree. If the focused widget was the widget or one of its children, the focus is cleared, since it would otherwise keep
+	 * every other widget in this tree from being focused.
+	 */
+	void widgetRemoved(Widget widget) {
+		for (Widget w = focusedWidget; w != null; w = w.parent) {
+			if (w == widget) {
+				setFocusedWidget(null);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the top-level widget of the tree this FocusManager belongs to
+	 */
+	public Widget getRoot() {
+		return root;
+	}
+
+	/**
+	 * @see <code>setFocusRoutingEnabled()</code>
+	 */
+	public boolean isFocusRoutingEnabled() {
+		return focusRoutingEnabled;
+	}
+
+	/**
+	 * If enabled (the default), key and char events are only sent to the focused widget and its parents while a widget is focused. Disable this if other widgets
+	 * need to receive keyboard input regardless of focus (e.g. global shortcuts set with <code>setOnKeyEvent()</code> on an unrelated widget).
+	 *
+	 * @param focusRoutingEnabled
+	 */
+	public void setFocusRoutingEnabled(boolean focusRoutingEnabled) {
+		this.focusRoutingEnabled = focusRoutingEnabled;
+	}
+
+	/*
+	 *
+	 * Input
+	 *
+	 */
+
+	public void charEvent(Window window, CharEvent event) {
+		if (!buildFocusPath()) {
+			root.charEvent(window, event);
+
+			if (!event.isConsumed()) {
+				root.childrenCharEvent(window, event);
+			}
+
+			return;
+		}
+
+		try {
+			for (int i = focusPath.size() - 1; i >= 0 && !event.isConsumed(); i--) {
+				Widget w = focusPath.get(i);
+
+				//Widgets with input disabled don't pass input on to their children either
+				if (w != root && !w.isInputEnabled()) {
+					break;
+				}
+
+				w.charEvent(window, event);
+			}
+		} finally {
+			focusPath.clear();
+		}
+	}
+
+	public void keyEvent(Window window, KeyEvent event) {
+		if (!buildFocusPath()) {
+			root.keyEvent(window, event);
+
+			if (!event.isConsumed()) {
+				root.childrenKeyEvent(window, event);
+			}
+
+			return;
+		}
+
+		try {
+			for (int i = focusPath.size() - 1; i >= 0 && !event.isConsumed(); i--) {
+				Widget w = focusPath.get(i);
+
+				//Widgets with input disabled don't pass input on to their children either
+				if (w != root && !w.isInputEnabled()) {
+					break;
+				}
+
+				w.keyEvent(window, event);
+			}
+		} finally {
+			focusPath.clear();
+		}
+	}
+
+	/**
+	 * Fills focusPath with the focused widget and its parents, up to the root.
+	 *
+	 * @return false if the event should be sent to the whole tree instead (routing is disabled, nothing is focused, or the focused widget isn't in this tree)
+	 */
+	private boolean buildFocusPath() {
+		if (!focusRoutingEnabled || focusedWidget == null) {
+			return false;
+		}
+
+		for (Widget w = focusedWidget; w != null; w = w.parent) {
+			focusPath.add(w);
+		}
+
+		if (focusPath.get(focusPath.size() - 1) != root) {
+			focusPath.clear();
+			return false;
+		}
+
+		return true;
+	}
+}
@@ -1,12 +1,108 @@
 package nokori.clear.vg.widget.assembly;
 
+import nokori.clear.windows.Window;
+import nokori.clear.windows.event.MouseMotionEvent;
+
+import java.util.ArrayList;
+import java.util.Stack;
+
 /**
  * This is just a WidgetAssembly configured for the typical use-case of a root WidgetAssembly uses in a ClearApplication
  * @author Brayden
  *
  */
 public class RootWidgetAssembly extends WidgetAssembly {
+	
+	private WidgetSpatialIndex spatialIndex = null;
+	
+	//While this assembly's spatial index dispatches a mouse motion event, only widgets marked with this stamp receive it (0 = every widget does)
+	int activeMotionEventStamp = 0;
+	
 	public RootWidgetAssembly() {
 		super(new WidgetSynch(WidgetSynch.Mode.WITH_FRAMEBUFFER));
 	}
+	
+	/**
+	 * @see <code>setSpatialIndexEnabled()</code>
+	 */
+	public boolean isSpatialIndexEnabled() {
+		return (spatialIndex != null);
+	}
+	
+	public void setSpatialIndexEnabled(boolean spatialIndexEnabled) {
+		setSpatialIndexEnabled(spatialIndexEnabled, WidgetSpatialIndex.DEFAULT_CELL_SIZE);
+	}
+	
+	/**
+	 * If enabled, this RootWidgetAssembly keeps a uniform grid of the clipped bounds of all of its widgets, which is used to hit-test the mouse without checking 
+	 * every widget. This is meant for interfaces with a large amount of widgets (e.g. a node editor with thousands of DraggableWidgetAssemblies).
+	 * <br><br>
+	 * While enabled, mouse motion events are only sent to the widgets under the mouse, the widgets the mouse has just exited, the focused widget, and widgets that 
+	 * need every mouse motion event (see <code>Widget.isMouseMotionListener()</code>), along with their parents. <code>getChildrenWithinMouse()</code> uses the 
+	 * grid as well. The grid is kept up to date automatically as widgets are moved, resized, added, or removed.
+	 * 
+	 * @param spatialIndexEnabled
+	 * @param cellSize - the size of the grid cells, in pixels
+	 */
+	public void setSpatialIndexEnabled(boolean spatialIndexEnabled, float cellSize) {
+		spatialIndex = (spatialIndexEnabled ? new WidgetSpatialIndex(this, cellSize) : null);
+	}
+	
+	@Override
+	public void childrenMouseMotionEvent(Window window, MouseMotionEvent event) {
+		if (spatialIndex == null) {
+			super.childrenMouseMotionEvent(window, event);
+			return;
+		}
+		
+		//The first event is sent to every widget, so that the index knows which widgets the mouse is already within
+		if (!spatialIndex.isPrimed()) {
+			super.childrenMouseMotionEvent(window, event);
+			spatialIndex.prime();
+			return;
+		}
+		
+		activeMotionEventStamp = spatialIndex.markMotionEventTargets(event.getMouseX(), event.getMouseY());
+		
+		try {
+			super.childrenMouseMotionEvent(window, event);
+		} finally {
+			activeMotionEventStamp = 0;
+		}
+	}
+	
+	@Override
+	public Stack<Widget> getChildrenWithinMouse(Window window) {
+		if (spatialIndex == null) {
+			return super.getChildrenWithinMouse(window);
+		}
+		
+		ArrayList<Widget> widgets = new ArrayList<>();
+		spatialIndex.getWidgetsAt(window.getMouseX(), window.getMouseY(), widgets);
+		
+		//Same order as the widget tree
+		widgets.sort((w1, w2) -> Integer.compare(spatialIndex.getTreeOrder(w1), spatialIndex.getTreeOrder(w2)));
+		
+		Stack<Widget> intersecting = new Stack<Widget>();
+		intersecting.addAll(widgets);
+		return intersecting;
+	}
+	
+	@Override
+	protected void widgetHitTestChanged(Widget widget) {
+		if (spatialIndex != null) {
+			if (widget == this) {
+				spatialIndex.treeChanged();
+			} else {
+				spatialIndex.widgetChanged(widget);
+			}
+		}
+	}
+	
+	@Override
+	protected void widgetTreeChanged() {
+		if (spatialIndex != null) {
+			spatialIndex.treeChanged();
+		}
+	}
 }
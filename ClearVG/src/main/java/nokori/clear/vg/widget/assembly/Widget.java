@@ -17,8 +17,16 @@ public abstract class Widget extends WidgetContainer {
 	
 	private Vector2f pos = new Vector2f(0f, 0f);
 	private Vector2f size = new Vector2f(0f, 0f);
+	
+	//Cached results of getClippedX()/getClippedY(). Invalidated for the whole subtree when this widget or one of its parents moves.
+	private float clippedX, clippedY;
+	private boolean clippedPositionValid = false;
 
 	private boolean inputEnabled = true;
+	private boolean tickThreadSafe = false;
+	
+	//Only created for top-level widgets (see getFocusManager())
+	private FocusManager focusManager = null;
 	
 	private CharEventListener charEventListener = null;
 	private KeyEventListener keyEventListener = null;
@@ -38,6 +46,24 @@ public abstract class Widget extends WidgetContainer {
 	
 	private boolean mouseWithin = false;
 	
+	//The entry of this widget in a WidgetSpatialIndex, if any
+	int spatialIndexId = -1;
+	int spatialIndexSiblingIndex = 0;
+	boolean spatialIndexPending = false;
+	
+	//Whether or not a Widget class overrides the mouse motion event functions, in which case it may need every mouse motion event
+	private static final ClassValue<Boolean> OVERRIDES_MOUSE_MOTION_EVENT = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> c) {
+			try {
+				return (c.getMethod("mouseMotionEvent", Window.class, MouseMotionEvent.class).getDeclaringClass() != Widget.class 
+						|| c.getMethod("childrenMouseMotionEvent", Window.class, MouseMotionEvent.class).getDeclaringClass() != WidgetContainer.class);
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+	
 	public Widget() {
 		
 	}
@@ -70,6 +96,16 @@ public abstract class Widget extends WidgetContainer {
 	 */
 	public abstract void render(NanoVGContext context, WidgetAssembly rootWidgetAssembly);
 	
+	/**
+	 * Called instead of <code>render()</code> and <code>renderChildren()</code> by the parent container. Overridden by WidgetAssemblies with render caching 
+	 * enabled.
+	 * 
+	 * @return true if this widget and its children were drawn from a cache, in which case they aren't rendered
+	 */
+	boolean renderFromCache(NanoVGContext context) {
+		return false;
+	}
+	
 	/**
 	 * This is called when a widget is removed from a widget container or at the end of the program's life. Make sure to dispose any native resources that will leak otherwise.
 	 */
@@ -91,7 +127,37 @@ public abstract class Widget extends WidgetContainer {
 	public Widget getParent() {
 		return parent;
 	}
+	
+	/**
+	 * @return the top-level widget of the tree this widget is in (the widget with no parent), which may be this widget
+	 */
+	public Widget getRootWidget() {
+		Widget root = this;
+		
+		while (root.parent != null) {
+			root = root.parent;
+		}
+		
+		return root;
+	}
+	
+	/**
+	 * @return the FocusManager of the tree this widget is in. In a ClearApp, every window has its own tree, and therefore its own focused widget.
+	 */
+	public FocusManager getFocusManager() {
+		Widget root = getRootWidget();
+		
+		if (root.focusManager == null) {
+			root.focusManager = new FocusManager(root);
+		}
+		
+		return root.focusManager;
+	}
 
+	/**
+	 * @return the position vector of this widget. Use <code>setX()</code>/<code>setY()</code> to change it, since changes made to the vector directly aren't 
+	 * tracked (e.g. by <code>getClippedX()</code>, which is cached).
+	 */
 	public Vector2f getPosition() {
 		return pos;
 	}
@@ -128,7 +194,12 @@ public abstract class Widget extends WidgetContainer {
 	 * @param x
 	 */
 	public void setX(float x) {
-		pos.x = x;
+		if (pos.x != x) {
+			pos.x = x;
+			invalidateClippedPosition();
+			invalidate();
+			widgetHitTestChanged(this);
+		}
 	}
 
 	public void offsetX(float xOffset) {
@@ -152,7 +223,12 @@ public abstract class Widget extends WidgetContainer {
 	 * @param y
 	 */
 	public void setY(float y) {
-		pos.y = y;
+		if (pos.y != y) {
+			pos.y = y;
+			invalidateClippedPosition();
+			invalidate();
+			widgetHitTestChanged(this);
+		}
 	}
 	
 	public void offsetY(float yOffset) {
@@ -164,7 +240,11 @@ public abstract class Widget extends WidgetContainer {
 	}
 
 	public void setWidth(float width) {
-		size.x = width;
+		if (size.x != width) {
+			size.x = width;
+			invalidate();
+			widgetHitTestChanged(this);
+		}
 	}
 
 	public float getHeight() {
@@ -172,7 +252,11 @@ public abstract class Widget extends WidgetContainer {
 	}
 
 	public void setHeight(float height) {
-		size.y = height;
+		if (size.y != height) {
+			size.y = height;
+			invalidate();
+			widgetHitTestChanged(this);
+		}
 	}
 
 	/**
@@ -181,7 +265,11 @@ public abstract class Widget extends WidgetContainer {
 	 * @see getX()
 	 */
 	public float getClippedX() {
-		return (parent != null ? parent.getClippedX() + pos.x : pos.x);
+		if (!clippedPositionValid) {
+			updateClippedPosition();
+		}
+		
+		return clippedX;
 	}
 	
 	/**
@@ -190,7 +278,33 @@ public abstract class Widget extends WidgetContainer {
 	 * @see getY()
 	 */
 	public float getClippedY() {
-		return (parent != null ? parent.getClippedY() + pos.y : pos.y);
+		if (!clippedPositionValid) {
+			updateClippedPosition();
+		}
+		
+		return clippedY;
+	}
+	
+	private void updateClippedPosition() {
+		clippedX = (parent != null ? parent.getClippedX() + pos.x : pos.x);
+		clippedY = (parent != null ? parent.getClippedY() + pos.y : pos.y);
+		clippedPositionValid = true;
+	}
+	
+	/**
+	 * Clears the cached clipped position of this widget and all of its children. 
+	 */
+	private void invalidateClippedPosition() {
+		//Children can only have a valid position if their parent does, so if this widget is already invalid, so are its children
+		if (!clippedPositionValid) {
+			return;
+		}
+		
+		clippedPositionValid = false;
+		
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).invalidateClippedPosition();
+		}
 	}
 
 	/**
@@ -210,6 +324,27 @@ public abstract class Widget extends WidgetContainer {
 		this.inputEnabled = inputEnabled;
 	}
 	
+	/**
+	 * @see <code>setTickThreadSafe()</code>
+	 */
+	public boolean isTickThreadSafe() {
+		return tickThreadSafe;
+	}
+
+	/**
+	 * Marks this widget and its children as safe to tick on another thread, at the same time as its thread-safe siblings. This only has an effect if parallel 
+	 * ticking is enabled (see <code>ClearApp.setParallelTickEnabled()</code>). Rendering always happens on the rendering thread.
+	 * <br><br>
+	 * A thread-safe widget's <code>tick()</code> (and the ticks of its children) may only change the widget and its children, and may read but not change 
+	 * anything else in the tree. It also can't use NanoVG, start Transitions, change the focused widget, or use anything else that's shared between widgets. 
+	 * Moving, resizing, and invalidating widgets is fine.
+	 * 
+	 * @param tickThreadSafe
+	 */
+	public void setTickThreadSafe(boolean tickThreadSafe) {
+		this.tickThreadSafe = tickThreadSafe;
+	}
+	
 	/**
 	 * Checks if the mouse is within this widget on the fly by using the data stored in the given Window (rather than using the cached state).
 	 * 
@@ -295,6 +430,19 @@ public abstract class Widget extends WidgetContainer {
 	 * 
 	 */
 	
+	/**
+	 * Marks this widget as changed, along with all of its parents.
+	 * 
+	 * @see <code>WidgetContainer.invalidate()</code>
+	 */
+	@Override
+	public void invalidate() {
+		//If the parent is already dirty, so is the rest of the tree above it
+		for (Widget w = this; w != null && !w.isDirty(); w = w.parent) {
+			w.markDirty();
+		}
+	}
+	
 	@Override
 	protected void addChildCallback(Widget widget) {
 		if (widget.parent != null) {
@@ -303,11 +451,33 @@ public abstract class Widget extends WidgetContainer {
 		}
 		
 		widget.parent = this;
+		widget.invalidateClippedPosition();
 	}
 
 	@Override
 	protected void removeChildCallback(Widget widget) {
+		Widget root = getRootWidget();
+		
+		if (root.focusManager != null) {
+			root.focusManager.widgetRemoved(widget);
+		}
+		
 		widget.parent = null;
+		widget.invalidateClippedPosition();
+	}
+	
+	@Override
+	protected void widgetHitTestChanged(Widget widget) {
+		if (parent != null) {
+			parent.widgetHitTestChanged(widget);
+		}
+	}
+	
+	@Override
+	protected void widgetTreeChanged() {
+		if (parent != null) {
+			parent.widgetTreeChanged();
+		}
 	}
 	
 	/*
@@ -332,6 +502,23 @@ public abstract class Widget extends WidgetContainer {
 	public void resetMouseWithin() {
 		mouseWithin = false;
 	}
+	
+	/**
+	 * Used by the spatial index of RootWidgetAssembly to decide which widgets need to receive mouse motion events that happen outside of their bounds. 
+	 * If false, this widget only receives mouse motion events while the mouse is within it (or has just left it), or while it's focused. 
+	 * 
+	 * @return true if this widget has a mouse motion listener or overrides the mouse motion event functions
+	 */
+	protected boolean isMouseMotionListener() {
+		return (mouseMotionEventListener != null || internalMouseMotionEventListener != null || overridesMouseMotionEvent());
+	}
+	
+	/**
+	 * @return true if the class of this widget overrides <code>mouseMotionEvent()</code> or <code>childrenMouseMotionEvent()</code>
+	 */
+	protected final boolean overridesMouseMotionEvent() {
+		return OVERRIDES_MOUSE_MOTION_EVENT.get(getClass());
+	}
 
 	public void charEvent(Window window, CharEvent event) {
 		if (internalCharEventListener != null) {
@@ -397,6 +584,8 @@ public abstract class Widget extends WidgetContainer {
 			if (mouseEnteredEventListener != null) {
 				mouseEnteredEventListener.listen(e);
 			}
+			
+			e.recycle();
 		}
 		
 		//Mouse exited
@@ -410,6 +599,8 @@ public abstract class Widget extends WidgetContainer {
 			if (mouseExitedEventListener != null) {
 				mouseExitedEventListener.listen(e);
 			}
+			
+			e.recycle();
 		}
 	}
 	
@@ -463,6 +654,7 @@ public abstract class Widget extends WidgetContainer {
 
 	public void setOnMouseMotionEvent(MouseMotionEventListener mouseMotionEventListener) {
 		this.mouseMotionEventListener = mouseMotionEventListener;
+		widgetHitTestChanged(this);
 	}
 
 	public MouseEnteredEventListener getMouseEnteredEventListener() {
@@ -530,6 +722,7 @@ public abstract class Widget extends WidgetContainer {
 
 	protected void setOnInternalMouseMotionEvent(MouseMotionEventListener internalMouseMotionEventListener) {
 		this.internalMouseMotionEventListener = internalMouseMotionEventListener;
+		widgetHitTestChanged(this);
 	}
 
 	protected MouseEnteredEventListener getInternalMouseEnteredEventListener() {
@@ -2,6 +2,7 @@ package nokori.clear.vg.widget.assembly;
 
 import nokori.clear.vg.ClearColor;
 import nokori.clear.vg.NanoVGContext;
+import nokori.clear.vg.NanoVGFramebuffer;
 import org.lwjgl.nanovg.NanoVG;
 
 /**
@@ -9,8 +10,24 @@ import org.lwjgl.nanovg.NanoVG;
  */
 public class WidgetAssembly extends Widget {
 	
+	public static final float DEFAULT_RENDER_CACHE_MARGIN = 8f;
+	
 	private ClearColor backgroundFill = null;
 	
+	/*
+	 * Render caching (see setRenderCacheEnabled())
+	 */
+	
+	private boolean renderCacheEnabled = false;
+	private float renderCacheMargin = DEFAULT_RENDER_CACHE_MARGIN;
+	
+	private NanoVGContext renderCacheContext = null;
+	private NanoVGFramebuffer renderCache = null;
+	private float renderCachePixelRatio;
+	
+	//Set to false whenever this assembly is marked dirty, which happens whenever anything inside of it is invalidated
+	private boolean renderCacheValid = false;
+	private int renderCacheUpdateCount = 0;
 
 	/**
 	 * Initializes the WidgetAssembly with the coordinates (0, 0) and the dimensions (0, 0).
@@ -59,24 +76,153 @@ public class WidgetAssembly extends Widget {
 	@Override
 	public void render(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
 		if (backgroundFill != null) {
-			backgroundFill.tallocNVG(fill -> {
-				long vg = context.get();
-				float x = getClippedX();
-				float y = getClippedY();
-				float w = getWidth();
-				float h = getHeight();
-				
-				NanoVG.nvgBeginPath(vg);
-				NanoVG.nvgRoundedRect(vg, x, y, w, h, 0);
-				NanoVG.nvgFillColor(vg, fill);
-				NanoVG.nvgFill(vg);
-				NanoVG.nvgClosePath(vg);
-			});
+			long vg = context.get();
+			float x = getClippedX();
+			float y = getClippedY();
+			float w = getWidth();
+			float h = getHeight();
+			
+			NanoVG.nvgBeginPath(vg);
+			NanoVG.nvgRoundedRect(vg, x, y, w, h, 0);
+			NanoVG.nvgFillColor(vg, backgroundFill.getNVG());
+			NanoVG.nvgFill(vg);
+			NanoVG.nvgClosePath(vg);
 		}
 	}
 
+	/*
+	 * 
+	 * Render Caching
+	 * 
+	 */
+	
+	@Override
+	void markDirty() {
+		super.markDirty();
+		renderCacheValid = false;
+	}
+	
+	@Override
+	public void renderCaches(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		//A valid cache means nothing inside of this assembly has changed, so the caches of any assemblies inside of it are up to date as well
+		if (renderCacheEnabled && renderCacheValid && renderCache != null && renderCachePixelRatio == context.getPixelRatio()) {
+			return;
+		}
+		
+		super.renderCaches(context, rootWidgetAssembly);
+		
+		if (renderCacheEnabled) {
+			updateRenderCache(context, rootWidgetAssembly);
+		}
+	}
+	
+	private void updateRenderCache(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		float pixelRatio = context.getPixelRatio();
+		int width = (int) Math.max(1, Math.ceil((getWidth() + renderCacheMargin * 2) * pixelRatio));
+		int height = (int) Math.max(1, Math.ceil((getHeight() + renderCacheMargin * 2) * pixelRatio));
+		
+		if (renderCache == null || renderCacheContext != context || renderCache.getWidth() != width || renderCache.getHeight() != height) {
+			deleteRenderCache();
+			
+			renderCache = context.createFramebuffer(width, height);
+			
+			//If the framebuffer can't be created, this assembly is just rendered normally
+			if (renderCache == null) {
+				return;
+			}
+			
+			renderCacheContext = context;
+		}
+		
+		//Anything invalidated while the cache is being rendered is rendered again next frame
+		clearDirty();
+		renderCacheValid = true;
+		renderCachePixelRatio = pixelRatio;
+		
+		context.beginFramebufferFrame(renderCache, getClippedX() - renderCacheMargin, getClippedY() - renderCacheMargin, pixelRatio);
+		
+		render(context, rootWidgetAssembly);
+		renderChildren(context, rootWidgetAssembly);
+		
+		context.endFramebufferFrame();
+		
+		renderCacheUpdateCount++;
+	}
+	
+	@Override
+	boolean renderFromCache(NanoVGContext context) {
+		if (!renderCacheEnabled || !renderCacheValid || renderCache == null || renderCacheContext != context) {
+			return false;
+		}
+		
+		context.drawFramebuffer(renderCache, getClippedX() - renderCacheMargin, getClippedY() - renderCacheMargin, renderCachePixelRatio);
+		return true;
+	}
+	
+	private void deleteRenderCache() {
+		if (renderCache != null) {
+			renderCacheContext.deleteFramebuffer(renderCache);
+			renderCache = null;
+			renderCacheContext = null;
+		}
+		
+		renderCacheValid = false;
+	}
+	
+	/**
+	 * @see <code>setRenderCacheEnabled()</code>
+	 */
+	public boolean isRenderCacheEnabled() {
+		return renderCacheEnabled;
+	}
+	
+	public void setRenderCacheEnabled(boolean renderCacheEnabled) {
+		setRenderCacheEnabled(renderCacheEnabled, DEFAULT_RENDER_CACHE_MARGIN);
+	}
+	
+	/**
+	 * If enabled, this WidgetAssembly and its children are rendered once into an off-screen framebuffer, which is then drawn as a single image every frame until 
+	 * something inside of the assembly is invalidated. This is meant for complex assemblies that rarely change (e.g. ButtonAssemblies, which are made of a drop 
+	 * shadow, a rounded rectangle, and a label). Moving the assembly's parents doesn't require the cache to be rendered again.
+	 * <br><br>
+	 * Keep in mind:
+	 * <br>- Changes that don't invalidate a widget aren't picked up (see <code>Widget.invalidate()</code>). For example, a FillTransition changing a color 
+	 * should be given the widget using it with <code>setInvalidatedWidget()</code>.
+	 * <br>- Anything drawn further than the margin outside of this assembly's bounds is cut off.
+	 * <br>- The caches are rendered before each frame by <code>renderCaches()</code>, which ClearApp calls automatically. Caching the root WidgetAssembly itself 
+	 * has no effect.
+	 * <br>- The framebuffer is deleted when caching is disabled or the assembly is disposed, which has to happen on the rendering thread.
+	 * 
+	 * @param renderCacheEnabled
+	 * @param margin - extra space around the bounds of this assembly to include in the cache (e.g. for drop shadows)
+	 */
+	public void setRenderCacheEnabled(boolean renderCacheEnabled, float margin) {
+		this.renderCacheEnabled = renderCacheEnabled;
+		this.renderCacheMargin = margin;
+		
+		if (!renderCacheEnabled) {
+			deleteRenderCache();
+		}
+		
+		invalidate();
+	}
+	
+	/**
+	 * @return the number of times this assembly has been rendered into its cache, for checking that the cache is being used
+	 */
+	public int getRenderCacheUpdateCount() {
+		return renderCacheUpdateCount;
+	}
+	
+	/*
+	 * 
+	 * Getters/Setters
+	 * 
+	 */
+	
 	public void setBackgroundFill(ClearColor backgroundFill) {
 		this.backgroundFill = backgroundFill;
+		invalidate();
 	}
 
 	public ClearColor getBackgroundFill() {
@@ -84,5 +230,7 @@ public class WidgetAssembly extends Widget {
 	}
 	
 	@Override
-	public void dispose() {}
+	public void dispose() {
+		deleteRenderCache();
+	}
 }
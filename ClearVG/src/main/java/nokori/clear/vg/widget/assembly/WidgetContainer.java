@@ -9,10 +9,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * WidgetContainers are used to manage groups of Widgets in one class. By default, Widgets always extend this class so that it can contain children. 
  * However, sometimes problems can be solved by using a WidgetContainer by itself. Just remember that a WidgetContainer by itself isn't a working Widget.
+ * <br><br>
+ * Input events are passed down the tree depth-first: a widget receives an event before its children, and children receive it in order (or in reverse order, see
+ * <code>setInvertInputOrder()</code>). If a listener consumes the event (<code>event.setConsumed(true)</code>), the remaining listeners of that widget still 
+ * receive it, but it isn't passed on to any other widgets. Keep in mind that widgets that don't receive a mouse motion event can't update their 
+ * mouse entered/exited state.
  */
 public class WidgetContainer {
 	
@@ -24,6 +32,16 @@ public class WidgetContainer {
 	
 	protected NanoVGScaler scaler = new NanoVGScaler();
 	
+	//Whether or not something has changed that requires this container to be rendered again. Starts out true so that the first frame is always rendered.
+	private boolean dirty = true;
+	
+	//The last stamp a spatial index marked this container with (see RootWidgetAssembly.activeMotionEventStamp). Stays 0 in trees without a spatial index.
+	int motionEventStamp = 0;
+	
+	//The children marked with markedChildrenStamp, so that the other children don't have to be iterated
+	private ArrayList<Widget> markedChildren = null;
+	private int markedChildrenStamp = 0;
+	
 	/**
 	 * This is a lambda function that allows outside classes to quickly iterate through all of the Widgets contained by this object.
 	 * @param processor -> the lambda class, taking in only one argument: the current widget
@@ -51,79 +69,271 @@ public class WidgetContainer {
 		}
 	}
 	
+	/**
+	 * Ticks the children the same way as <code>tickChildren(context, rootWidgetAssembly)</code>, except that neighboring children marked thread-safe (see 
+	 * <code>Widget.setTickThreadSafe()</code>) are ticked at the same time on the given pool, each along with its own children. The other children are ticked 
+	 * on the calling thread in order, and the thread-safe children before them are always finished first, so the order is only relaxed between thread-safe 
+	 * siblings.
+	 * 
+	 * @param context
+	 * @param rootWidgetAssembly
+	 * @param pool - the pool to tick the thread-safe children on, or null to tick everything on the calling thread
+	 */
+	public void tickChildren(NanoVGContext context, WidgetAssembly rootWidgetAssembly, ForkJoinPool pool) {
+		if (pool == null) {
+			tickChildren(context, rootWidgetAssembly);
+			return;
+		}
+		
+		if (!tickChildren) {
+			return;
+		}
+		
+		ArrayList<TickTask> batch = null;
+		
+		for (int i = 0; i < children.size(); i++) {
+			Widget w = children.get(i);
+			
+			if (w.isTickThreadSafe()) {
+				if (batch == null) {
+					batch = new ArrayList<>();
+				}
+				
+				batch.add(new TickTask(w, context, rootWidgetAssembly));
+				continue;
+			}
+			
+			tickBatch(batch, pool);
+			batch = null;
+			
+			w.tick(context, rootWidgetAssembly);
+			w.tickChildren(context, rootWidgetAssembly, pool);
+		}
+		
+		tickBatch(batch, pool);
+	}
+	
+	private void tickBatch(ArrayList<TickTask> batch, ForkJoinPool pool) {
+		if (batch == null) {
+			return;
+		}
+		
+		if (batch.size() == 1) {
+			batch.get(0).compute();
+			return;
+		}
+		
+		//The subtrees read the clipped positions of their parents, which are cached the first time they're used. Updating them now keeps the subtrees from 
+		//writing to them at the same time.
+		if (this instanceof Widget) {
+			((Widget) this).getClippedX();
+		}
+		
+		if (ForkJoinTask.getPool() == pool) {
+			ForkJoinTask.invokeAll(batch);
+		} else {
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					ForkJoinTask.invokeAll(batch);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Ticks a thread-safe widget and its children.
+	 */
+	private static class TickTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private Widget widget;
+		private NanoVGContext context;
+		private WidgetAssembly rootWidgetAssembly;
+		
+		public TickTask(Widget widget, NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+			this.widget = widget;
+			this.context = context;
+			this.rootWidgetAssembly = rootWidgetAssembly;
+		}
+		
+		@Override
+		protected void compute() {
+			widget.tick(context, rootWidgetAssembly);
+			widget.tickChildren(context, rootWidgetAssembly);
+		}
+	}
+	
 	public void renderChildren(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
 		for (int i = 0; i < children.size(); i++) {
 			Widget w = children.get(i);
 			
-			if (renderChildren) {
+			if (renderChildren && !w.renderFromCache(context)) {
 				w.render(context, rootWidgetAssembly);
 				w.renderChildren(context, rootWidgetAssembly);
 			}
 		}
 	}
 	
+	/**
+	 * Renders the off-screen caches of the WidgetAssemblies in this container that have render caching enabled and have changed since their cache was 
+	 * last rendered (see <code>WidgetAssembly.setRenderCacheEnabled()</code>). This has to be called outside of a NanoVG frame, which is why ClearApp calls it 
+	 * before starting each frame.
+	 */
+	public void renderCaches(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		if (!renderChildren) {
+			return;
+		}
+		
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).renderCaches(context, rootWidgetAssembly);
+		}
+	}
+	
 	public void childrenCharEvent(Window window, CharEvent event) {
-		iterateChildren(invertInputOrder, (i) -> {
+		iterateChildren(invertInputOrder, event, (i) -> {
 			Widget w = children.get(i);
 			
 			if (w.isInputEnabled()) {
 				w.charEvent(window, event);
-				w.childrenCharEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenCharEvent(window, event);
+				}
 			}
 		});
 	}
 	
 	public void childrenKeyEvent(Window window, KeyEvent event) {
-		iterateChildren(invertInputOrder, (i) -> {
+		iterateChildren(invertInputOrder, event, (i) -> {
 			Widget w = children.get(i);
 			
 			if (w.isInputEnabled()) {
 				w.keyEvent(window, event);
-				w.childrenKeyEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenKeyEvent(window, event);
+				}
 			}
 		});
 	}
 	
 	public void childrenMouseButtonEvent(Window window, MouseButtonEvent event) {
-		iterateChildren(invertInputOrder, (i) -> {
+		iterateChildren(invertInputOrder, event, (i) -> {
 			Widget w = children.get(i);
 			
 			if (w.isInputEnabled()) {
 				w.mouseButtonEvent(window, event);
-				w.childrenMouseButtonEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenMouseButtonEvent(window, event);
+				}
 			}
 		});
 	}
 	
 	public void childrenMouseMotionEvent(Window window, MouseMotionEvent event) {
-		iterateChildren(invertInputOrder, (i) -> {
+		//Only widgets in a tree with a spatial index are ever marked, so the others don't have to look up their root
+		if (motionEventStamp != 0) {
+			Widget root = ((Widget) this).getRootWidget();
+			
+			if (root instanceof RootWidgetAssembly && ((RootWidgetAssembly) root).activeMotionEventStamp != 0) {
+				childrenMarkedMouseMotionEvent(window, event, (RootWidgetAssembly) root);
+				return;
+			}
+		}
+		
+		iterateChildren(invertInputOrder, event, (i) -> {
 			Widget w = children.get(i);
 			
 			if (w.isInputEnabled()) {
 				w.mouseMotionEvent(window, event);
-				w.childrenMouseMotionEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenMouseMotionEvent(window, event);
+				}
 			}
 		});
 	}
 	
+	/**
+	 * Same as <code>childrenMouseMotionEvent()</code>, but only the children marked by the spatial index receive the event.
+	 */
+	private void childrenMarkedMouseMotionEvent(Window window, MouseMotionEvent event, RootWidgetAssembly root) {
+		int stamp = root.activeMotionEventStamp;
+		
+		if (markedChildrenStamp != stamp) {
+			return;
+		}
+		
+		ArrayList<Widget> marked = markedChildren;
+		
+		for (int i = 0; i < marked.size() && !event.isConsumed(); i++) {
+			Widget w = marked.get(invertInputOrder ? marked.size() - 1 - i : i);
+			
+			if (w.isInputEnabled()) {
+				w.mouseMotionEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenMouseMotionEvent(window, event);
+				}
+			}
+			
+			//A listener may have started dispatching another event
+			if (root.activeMotionEventStamp != stamp) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Adds the child to the children marked with the given stamp, keeping them in the same order as <code>children</code>.
+	 */
+	void markChild(Widget child, int stamp) {
+		if (markedChildrenStamp != stamp) {
+			if (markedChildren == null) {
+				markedChildren = new ArrayList<>();
+			}
+			
+			markedChildren.clear();
+			markedChildrenStamp = stamp;
+		}
+		
+		int i = markedChildren.size();
+		markedChildren.add(child);
+		
+		while (i > 0 && markedChildren.get(i - 1).spatialIndexSiblingIndex > child.spatialIndexSiblingIndex) {
+			markedChildren.set(i, markedChildren.get(i - 1));
+			i--;
+		}
+		
+		markedChildren.set(i, child);
+	}
+	
 	public void childrenMouseScrollEvent(Window window, MouseScrollEvent event) {
-		iterateChildren(invertInputOrder, (i) -> {
+		iterateChildren(invertInputOrder, event, (i) -> {
 			Widget w = children.get(i);
 			
 			if (w.isInputEnabled()) {
 				w.mouseScrollEvent(window, event);
-				w.childrenMouseScrollEvent(window, event);
+				
+				if (!event.isConsumed()) {
+					w.childrenMouseScrollEvent(window, event);
+				}
 			}
 		});
 	}
 	
-	private void iterateChildren(boolean reverseOrder, IterationHandler h) {
+	/**
+	 * Iterates the children until the event is consumed.
+	 */
+	private void iterateChildren(boolean reverseOrder, Event event, IterationHandler h) {
 		if (reverseOrder) {
-			for (int i = children.size()-1; i >= 0; i--) {
+			for (int i = children.size()-1; i >= 0 && !event.isConsumed(); i--) {
 				h.event(i);
 			}
 		} else {
-			for (int i = 0; i < children.size(); i++) {
+			for (int i = 0; i < children.size() && !event.isConsumed(); i++) {
 				h.event(i);
 			}
 		}
@@ -157,6 +367,23 @@ public class WidgetContainer {
 
 	protected void removeChildCallback(Widget widget) {
 		
+	}
+	
+	/**
+	 * Called when a widget in this tree has been moved or resized, or its mouse motion listeners have changed. Widgets pass this on to their parent, so it 
+	 * reaches the root of the tree (see <code>RootWidgetAssembly.setSpatialIndexEnabled()</code>).
+	 * 
+	 * @param widget - the widget that changed
+	 */
+	protected void widgetHitTestChanged(Widget widget) {
+		
+	}
+	
+	/**
+	 * Called when widgets have been added, removed, or reordered anywhere in this tree. Widgets pass this on to their parent, so it reaches the root of the tree.
+	 */
+	protected void widgetTreeChanged() {
+		
 	}
 
 	/**
@@ -191,6 +418,8 @@ public class WidgetContainer {
 					addChildCallback(child);
 				}
 				
+				invalidate();
+				widgetTreeChanged();
 				return;
 			}
 		}
@@ -209,12 +438,17 @@ public class WidgetContainer {
 			children.add(w);
 			addChildCallback(w);
 		}
+		
+		invalidate();
+		widgetTreeChanged();
 	}
 	
 	public boolean removeChild(Widget widget) {
 		if (children.remove(widget)) {
 			removeChildCallback(widget);
 			widget.dispose();
+			invalidate();
+			widgetTreeChanged();
 			return true;
 		}
 		
@@ -240,6 +474,8 @@ public class WidgetContainer {
 	 */
 	public void sortChildren(Comparator<Widget> comparator) {
 		children.sort(comparator);
+		invalidate();
+		widgetTreeChanged();
 	}
 	
 	/**
@@ -247,6 +483,8 @@ public class WidgetContainer {
 	 */
 	public void reverseChildren() {
 		Collections.reverse(children);
+		invalidate();
+		widgetTreeChanged();
 	}
 	
 	/**
@@ -309,6 +547,53 @@ public class WidgetContainer {
 		return tickChildren;
 	}
 
+	/*
+	 * 
+	 * 
+	 * Dirty Tracking
+	 * 
+	 * 
+	 */
+	
+	/**
+	 * Marks this container as changed, meaning that it needs to be rendered again. Widgets also mark their parents, so the root of the tree always knows if 
+	 * anything in it has changed. 
+	 * <br><br>
+	 * Position, size, fill, and text changes made through setters invalidate widgets automatically. Custom widgets that change how they look in other ways 
+	 * (e.g. in <code>tick()</code> or an event listener) should call this function themselves.
+	 */
+	public void invalidate() {
+		markDirty();
+	}
+	
+	void markDirty() {
+		dirty = true;
+	}
+	
+	/**
+	 * @return true if this container or any of its children have changed since they were last rendered
+	 * @see <code>invalidate()</code>
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	/**
+	 * Marks this container and all of its children as up to date. This is called by ClearApp after the tree is rendered.
+	 */
+	public void clearDirty() {
+		//Children can't be dirty without their parent being dirty, so clean subtrees can be skipped
+		if (!dirty) {
+			return;
+		}
+		
+		dirty = false;
+		
+		for (int i = 0; i < children.size(); i++) {
+			children.get(i).clearDirty();
+		}
+	}
+	
 	public void setTickChildren(boolean tickChildren) {
 		this.tickChildren = tickChildren;
 	}
@@ -319,6 +604,7 @@ public class WidgetContainer {
 
 	public void setRenderChildren(boolean renderChildren) {
 		this.renderChildren = renderChildren;
+		invalidate();
 	}
 	
 	public NanoVGScaler getScaler() {
@@ -327,6 +613,7 @@ public class WidgetContainer {
 
 	public void setScaler(NanoVGScaler scaler) {
 		this.scaler = scaler;
+		widgetTreeChanged();
 	}
 
 	public void dispose() {
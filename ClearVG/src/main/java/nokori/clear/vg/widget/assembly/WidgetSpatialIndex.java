@@ -0,0 +1,419 @@
+package nokori.clear.vg.widget.assembly;
+
+import nokori.clear.windows.event.MouseEventImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the clipped bounds of every widget in a RootWidgetAssembly, used to find the widgets under the mouse without checking all of them.
+ * See <code>RootWidgetAssembly.setSpatialIndexEnabled()</code>.
+ * <br><br>
+ * The grid covers the bounds of the root; widgets outside of it are put in the cells along its edges, and mouse coordinates are clamped the same way.
+ * Widgets that move are re-inserted (along with their children) the next time the index is used, while adding, removing, or reordering widgets rebuilds it.
+ */
+class WidgetSpatialIndex {
+
+	public static final float DEFAULT_CELL_SIZE = 64f;
+
+	//Widgets covering more cells than this are kept in a separate list that's checked on every query instead
+	private static final int MAX_CELLS_PER_WIDGET = 256;
+
+	private RootWidgetAssembly root;
+	private float cellSize;
+
+	/*
+	 * Entries (in tree order)
+	 */
+
+	private Widget[] widgets = new Widget[64];
+
+	//The cells covered by each entry: min column, min row, max column, max row. The min column is -1 for entries in the large list.
+	private int[] entryCells = new int[64 * 4];
+	private int size = 0;
+
+	private int[] large = new int[16];
+	private int largeSize = 0;
+
+	//Entries that receive every mouse motion event (see Widget.isMouseMotionListener()). Collected again when listenersChanged is true.
+	private ArrayList<Widget> listeners = new ArrayList<>();
+	private boolean listenersChanged = true;
+
+	/*
+	 * Grid
+	 */
+
+	private int columns = 0, rows = 0;
+	private int[][] cells = new int[0][];
+	private int[] cellSizes = new int[0];
+
+	/*
+	 * Updates
+	 */
+
+	private boolean treeChanged = true;
+	private ArrayList<Widget> pending = new ArrayList<>();
+
+	/*
+	 * Mouse motion
+	 */
+
+	//The widgets the mouse was within after the last mouse motion event, which have to receive the next one so that they know when the mouse has exited
+	private ArrayList<Widget> previousTargets = new ArrayList<>();
+	private ArrayList<Widget> targets = new ArrayList<>();
+	private boolean primed = false;
+	private int stamp = 0;
+
+	public WidgetSpatialIndex(RootWidgetAssembly root, float cellSize) {
+		this.root = root;
+		this.cellSize = cellSize;
+	}
+
+	/*
+	 *
+	 * Change Tracking
+	 *
+	 */
+
+	/**
+	 * Marks the given widget (and its children) to be re-inserted the next time the index is used. Synchronized since widgets can be moved while ticking in 
+	 * parallel (see <code>Widget.setTickThreadSafe()</code>).
+	 */
+	public synchronized void widgetChanged(Widget widget) {
+		if (!widget.spatialIndexPending) {
+			widget.spatialIndexPending = true;
+			pending.add(widget);
+		}
+	}
+
+	/**
+	 * Marks the index to be rebuilt the next time it's used.
+	 */
+	public synchronized void treeChanged() {
+		treeChanged = true;
+	}
+
+	private synchronized void update() {
+		//Lots of changes (e.g. a canvas containing everything was moved) are handled faster by rebuilding everything
+		if (treeChanged || pending.size() > size / 4) {
+			rebuild();
+		} else {
+			for (int i = 0; i < pending.size(); i++) {
+				Widget w = pending.get(i);
+				w.spatialIndexPending = false;
+
+				if (contains(w)) {
+					reinsert(w);
+				}
+			}
+		}
+
+		pending.clear();
+
+		if (listenersChanged) {
+			listeners.clear();
+
+			for (int i = 0; i < size; i++) {
+				if (widgets[i].isMouseMotionListener()) {
+					listeners.add(widgets[i]);
+				}
+			}
+
+			listenersChanged = false;
+		}
+	}
+
+	private void rebuild() {
+		for (int i = 0; i < pending.size(); i++) {
+			pending.get(i).spatialIndexPending = false;
+		}
+
+		Arrays.fill(widgets, 0, size, null);
+		size = 0;
+		largeSize = 0;
+
+		/*
+		 * Size the grid to the root
+		 */
+
+		float scale = root.getScaler().getScale();
+		columns = Math.max(1, (int) Math.ceil(root.getWidth() * scale / cellSize));
+		rows = Math.max(1, (int) Math.ceil(root.getHeight() * scale / cellSize));
+
+		int cellCount = columns * rows;
+
+		if (cells.length != cellCount) {
+			cells = new int[cellCount][];
+			cellSizes = new int[cellCount];
+		} else {
+			Arrays.fill(cellSizes, 0);
+		}
+
+		/*
+		 * Add every widget below the root
+		 */
+
+		addChildren(root);
+
+		for (int i = 0; i < size; i++) {
+			insert(i);
+		}
+
+		//Forget the targets that were removed from the tree
+		previousTargets.removeIf(w -> !contains(w));
+
+		treeChanged = false;
+		listenersChanged = true;
+	}
+
+	private void addChildren(WidgetContainer container) {
+		for (int i = 0; i < container.children.size(); i++) {
+			Widget w = container.children.get(i);
+
+			if (size == widgets.length) {
+				widgets = Arrays.copyOf(widgets, size * 2);
+				entryCells = Arrays.copyOf(entryCells, size * 2 * 4);
+			}
+
+			w.spatialIndexId = size;
+			w.spatialIndexSiblingIndex = i;
+			widgets[size++] = w;
+
+			addChildren(w);
+		}
+	}
+
+	/**
+	 * Re-inserts the widget and its children, whose bounds have changed.
+	 */
+	private void reinsert(Widget w) {
+		int id = w.spatialIndexId;
+
+		remove(id);
+		insert(id);
+
+		for (int i = 0; i < w.children.size(); i++) {
+			reinsert(w.children.get(i));
+		}
+
+		//The listeners may have changed as well
+		listenersChanged = true;
+	}
+
+	private boolean contains(Widget w) {
+		int id = w.spatialIndexId;
+		return (id >= 0 && id < size && widgets[id] == w);
+	}
+
+	/*
+	 *
+	 * Grid
+	 *
+	 */
+
+	private void insert(int id) {
+		Widget w = widgets[id];
+		float scale = w.getScaler().getScale();
+
+		float x = w.getClippedX() * scale;
+		float y = w.getClippedY() * scale;
+
+		int minColumn = getColumn(x);
+		int minRow = getRow(y);
+		int maxColumn = getColumn(x + w.getWidth() * scale);
+		int maxRow = getRow(y + w.getHeight() * scale);
+
+		int index = id * 4;
+
+		if ((maxColumn - minColumn + 1) * (maxRow - minRow + 1) > MAX_CELLS_PER_WIDGET) {
+			if (largeSize == large.length) {
+				large = Arrays.copyOf(large, largeSize * 2);
+			}
+
+			large[largeSize++] = id;
+			entryCells[index] = -1;
+			return;
+		}
+
+		entryCells[index] = minColumn;
+		entryCells[index + 1] = minRow;
+		entryCells[index + 2] = maxColumn;
+		entryCells[index + 3] = maxRow;
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				int cell = row * columns + column;
+				int[] entries = cells[cell];
+				int count = cellSizes[cell];
+
+				if (entries == null) {
+					entries = cells[cell] = new int[8];
+				} else if (count == entries.length) {
+					entries = cells[cell] = Arrays.copyOf(entries, count * 2);
+				}
+
+				entries[count] = id;
+				cellSizes[cell]++;
+			}
+		}
+	}
+
+	private void remove(int id) {
+		int index = id * 4;
+
+		if (entryCells[index] == -1) {
+			removeEntry(large, largeSize, id);
+			largeSize--;
+			return;
+		}
+
+		for (int row = entryCells[index + 1]; row <= entryCells[index + 3]; row++) {
+			for (int column = entryCells[index]; column <= entryCells[index + 2]; column++) {
+				int cell = row * columns + column;
+				removeEntry(cells[cell], cellSizes[cell], id);
+				cellSizes[cell]--;
+			}
+		}
+	}
+
+	/**
+	 * Removes the id from the array by moving the last element into its place. The id must be in the array.
+	 */
+	private static void removeEntry(int[] entries, int size, int id) {
+		for (int i = 0; i < size; i++) {
+			if (entries[i] == id) {
+				entries[i] = entries[size - 1];
+				return;
+			}
+		}
+	}
+
+	private int getColumn(double x) {
+		return clamp((int) Math.floor(x / cellSize), columns);
+	}
+
+	private int getRow(double y) {
+		return clamp((int) Math.floor(y / cellSize), rows);
+	}
+
+	private static int clamp(int value, int count) {
+		return (value < 0 ? 0 : (value >= count ? count - 1 : value));
+	}
+
+	/*
+	 *
+	 * Queries
+	 *
+	 */
+
+	/**
+	 * Finds every widget that the given (unscaled) mouse coordinates are within.
+	 *
+	 * @param mouseX
+	 * @param mouseY
+	 * @param results - the list to add the widgets to, in no particular order
+	 */
+	public void getWidgetsAt(double mouseX, double mouseY, ArrayList<Widget> results) {
+		update();
+
+		int cell = getRow(mouseY) * columns + getColumn(mouseX);
+		int[] entries = cells[cell];
+
+		for (int i = 0; i < cellSizes[cell]; i++) {
+			addIfWithin(widgets[entries[i]], mouseX, mouseY, results);
+		}
+
+		for (int i = 0; i < largeSize; i++) {
+			addIfWithin(widgets[large[i]], mouseX, mouseY, results);
+		}
+	}
+
+	private static void addIfWithin(Widget w, double mouseX, double mouseY, ArrayList<Widget> results) {
+		double scale = w.getScaler().getScale();
+
+		if (w.intersects(MouseEventImpl.getScaledMouseCoordinate(mouseX, scale), MouseEventImpl.getScaledMouseCoordinate(mouseY, scale))) {
+			results.add(w);
+		}
+	}
+
+	/**
+	 * @return the position of the widget in the tree (for sorting the results of <code>getWidgetsAt()</code>), or -1 if it's not in the index
+	 */
+	public int getTreeOrder(Widget w) {
+		return (contains(w) ? w.spatialIndexId : -1);
+	}
+
+	/**
+	 * Until this is true, mouse motion events have to be sent to every widget so that the index can find out which ones the mouse is already within.
+	 */
+	public boolean isPrimed() {
+		return primed;
+	}
+
+	/**
+	 * Called after a mouse motion event was sent to every widget.
+	 */
+	public void prime() {
+		update();
+
+		previousTargets.clear();
+
+		for (int i = 0; i < size; i++) {
+			if (widgets[i].isMouseWithin()) {
+				previousTargets.add(widgets[i]);
+			}
+		}
+
+		primed = true;
+	}
+
+	/**
+	 * Marks the widgets that need to receive a mouse motion event at the given coordinates, along with their parents: the widgets under the mouse, the widgets
+	 * the mouse was within after the last event, the mouse motion listeners, and the focused widget.
+	 *
+	 * @return the stamp the widgets were marked with (see <code>RootWidgetAssembly.activeMotionEventStamp</code>)
+	 */
+	public int markMotionEventTargets(double mouseX, double mouseY) {
+		targets.clear();
+		getWidgetsAt(mouseX, mouseY, targets);
+
+		if (++stamp == 0) {
+			stamp = 1;
+		}
+
+		mark(targets);
+		mark(previousTargets);
+		mark(listeners);
+
+		Widget focusedWidget = root.getFocusManager().getFocusedWidget();
+
+		if (focusedWidget != null && contains(focusedWidget)) {
+			mark(focusedWidget);
+		}
+
+		//The widgets under the mouse now are the ones that have to be told when it exits them
+		ArrayList<Widget> swap = previousTargets;
+		previousTargets = targets;
+		targets = swap;
+		targets.clear();
+
+		return stamp;
+	}
+
+	private void mark(ArrayList<Widget> widgets) {
+		for (int i = 0; i < widgets.size(); i++) {
+			mark(widgets.get(i));
+		}
+	}
+
+	private void mark(Widget widget) {
+		//If a widget is already marked, so are its parents
+		for (Widget w = widget; w != null && w.motionEventStamp != stamp; w = w.parent) {
+			w.motionEventStamp = stamp;
+
+			if (w.parent != null) {
+				w.parent.markChild(w, stamp);
+			}
+		}
+	}
+}
@@ -29,9 +29,7 @@ public class WidgetUtils {
 	}
 	
 	public static void nvgRect(long vg, ClearColor fill, float x, float y, float width, float height) {
-		fill.tallocNVG(f -> {
-			nvgRect(vg, f, x, y, width, height);
-		});
+		nvgRect(vg, fill.getNVG(), x, y, width, height);
 	}
 
 	/**
@@ -132,7 +132,7 @@ public class ClearEscapeSequences {
 		return false;
 	}
 	
-	public static boolean insideSequence(char escapeSequence, StringBuilder textBuilder, int characterIndex) {
+	public static boolean insideSequence(char escapeSequence, CharSequence textBuilder, int characterIndex) {
 		/*
 		 * Check to the left of the index. We don't have to check to the right because only commands to the left have an effect.
 		 */
@@ -161,7 +161,7 @@ public class ClearEscapeSequences {
 		return false;
 	}
 	
-	public static boolean isCharEscapeSequence(StringBuilder textBuilder, int characterIndex) {
+	public static boolean isCharEscapeSequence(CharSequence textBuilder, int characterIndex) {
 		for (int i = 0; i < ESCAPE_SEQUENCES.length; i++) {
 			char e = ESCAPE_SEQUENCES[i];
 
@@ -173,7 +173,7 @@ public class ClearEscapeSequences {
 		return false;
 	}
 	
-	public static boolean isCharEscapeSequence(StringBuilder textBuilder, int characterIndex, char escapeSequence) {
+	public static boolean isCharEscapeSequence(CharSequence textBuilder, int characterIndex, char escapeSequence) {
 		if (characterIndex < 0 || characterIndex >= textBuilder.length()) {
 			return false;
 		}
@@ -199,6 +199,10 @@ public class ClearEscapeSequences {
 		return false;
 	}
 	
+	public static int deleteSequenceAt(StringBuilder textBuilder, int characterIndex, boolean deleteResetEscapeSequenceAhead) {
+		return deleteSequenceAt(new StringBuilderTextBuffer(textBuilder), characterIndex, deleteResetEscapeSequenceAhead);
+	}
+	
 	/**
 	 * Deletes an escape sequence at the index. Also delete a reset sequence ahead if applicable.
 	 * 
@@ -207,7 +211,7 @@ public class ClearEscapeSequences {
 	 * @param deleteResetEscapeSequenceAhead
 	 * @return characters deleted
 	 */
-	public static int deleteSequenceAt(StringBuilder textBuilder, int characterIndex, boolean deleteResetEscapeSequenceAhead) {
+	public static int deleteSequenceAt(TextBuffer textBuilder, int characterIndex, boolean deleteResetEscapeSequenceAhead) {
 		char c = textBuilder.charAt(characterIndex);
 		int deleted = 0;
 		
@@ -232,6 +236,14 @@ public class ClearEscapeSequences {
 	}
 	
 	public static int deleteResetEscapeSequenceAhead(StringBuilder textBuilder, int characterIndex) {
+		return deleteResetEscapeSequenceAhead(new StringBuilderTextBuffer(textBuilder), characterIndex, null);
+	}
+	
+	public static int deleteResetEscapeSequenceAhead(StringBuilder textBuilder, int characterIndex, CharProcessor processor) {
+		return deleteResetEscapeSequenceAhead(new StringBuilderTextBuffer(textBuilder), characterIndex, processor);
+	}
+	
+	public static int deleteResetEscapeSequenceAhead(TextBuffer textBuilder, int characterIndex) {
 		return deleteResetEscapeSequenceAhead(textBuilder, characterIndex, null);
 	}
 	
@@ -241,7 +253,7 @@ public class ClearEscapeSequences {
 	 * @param characterIndex
 	 * @return how many characters were deleted (1 if the reset sequence was found and deleted, 0 if nothing was found)
 	 */
-	public static int deleteResetEscapeSequenceAhead(StringBuilder textBuilder, int characterIndex, CharProcessor processor) {
+	public static int deleteResetEscapeSequenceAhead(TextBuffer textBuilder, int characterIndex, CharProcessor processor) {
 		if (characterIndex < 0 || characterIndex >= textBuilder.length()) return 0;
 		
 		/*
@@ -306,7 +318,7 @@ public class ClearEscapeSequences {
 	 * @param c
 	 */
 	public static void colorEscapeSequence(NanoVGContext context, TextAreaWidget widget, TextAreaContentHandler textContentHandler, int characterIndex, char c) {
-		StringBuilder t = widget.getTextBuilder();
+		TextBuffer t = widget.getTextBuffer();
 		
 		if (characterIndex + ClearColor.HEX_COLOR_LENGTH < t.length()) {
 			
@@ -332,9 +344,7 @@ public class ClearEscapeSequences {
 					}
 					
 					//Finally, set the color for rendering.
-					color.tallocNVG(fill -> {
-						NanoVG.nvgFillColor(context.get(), fill);
-					});
+					NanoVG.nvgFillColor(context.get(), color.getNVG());
 
 					textContentHandler.notifyTextFillChanged(color);
 				} else {
@@ -354,7 +364,7 @@ public class ClearEscapeSequences {
 	 * @param checkRight
 	 * @return
 	 */
-	public static Vector2i colorEscapeSequenceToLeft(StringBuilder textBuilder, int characterIndex) {
+	public static Vector2i colorEscapeSequenceToLeft(CharSequence textBuilder, int characterIndex) {
 		int start = -1;
 		
 		int startIndex = characterIndex - ESCAPE_SEQUENCE_COLOR_LENGTH;
@@ -386,6 +396,174 @@ public class ClearEscapeSequences {
 		return new Vector2i(start, end);
 	}
 
+	/*
+	 * 
+	 * 
+	 * MARKUP IMPORT/EXPORT
+	 * 
+	 * 
+	 */
+	
+	/**
+	 * Converts text formatted with escape sequences into plain text and style spans with the same formatting. This allows text written for the escape sequences 
+	 * to be used with the span formatting of a TextAreaWidget (see <code>TextAreaWidget.setFormattedText()</code>).
+	 * 
+	 * @param markup - the text containing escape sequences
+	 * @param spans - the StyleSpanList to store the formatting in. It's cleared first.
+	 * @return the text with all of the escape sequences removed
+	 */
+	public static String importMarkup(CharSequence markup, StyleSpanList spans) {
+		spans.clear();
+		
+		StringBuilder text = new StringBuilder(markup.length());
+		
+		//Equal styles share one TextStyle, so that it's easy to tell when the formatting actually changes
+		HashMap<String, TextStyle> styleCache = new HashMap<String, TextStyle>();
+		
+		FontStyle fontStyle = null;
+		String hexColor = null;
+		
+		TextStyle style = null;
+		int styleStart = 0;
+		
+		for (int i = 0; i < markup.length(); i++) {
+			char c = markup.charAt(i);
+			
+			if (c == ESCAPE_SEQUENCE_RESET) {
+				fontStyle = null;
+				hexColor = null;
+			} else if (c == ESCAPE_SEQUENCE_BOLD) {
+				fontStyle = FontStyle.BOLD;
+			} else if (c == ESCAPE_SEQUENCE_LIGHT) {
+				fontStyle = FontStyle.LIGHT;
+			} else if (c == ESCAPE_SEQUENCE_ITALIC) {
+				fontStyle = FontStyle.ITALIC;
+			} else if (c == ESCAPE_SEQUENCE_COLOR) {
+				int end = Math.min(i + ESCAPE_SEQUENCE_COLOR_LENGTH, markup.length());
+				String hex = markup.subSequence(i + 1, end).toString();
+				
+				if (hex.length() == ClearColor.HEX_COLOR_LENGTH && hex.startsWith("#")) {
+					hexColor = hex;
+				} else {
+					System.err.println("WARNING: Caught invalid Color Escape Sequence at index " + i + ". Input: " + hex);
+				}
+				
+				//The HEX value is skipped either way, same as it is when rendering
+				i = end - 1;
+			} else {
+				text.append(c);
+				continue;
+			}
+			
+			/*
+			 * The formatting has changed, so close the current span and start a new one
+			 */
+			
+			TextStyle newStyle = null;
+			
+			if (fontStyle != null || hexColor != null) {
+				String key = fontStyle + hexColor;
+				newStyle = styleCache.get(key);
+				
+				if (newStyle == null) {
+					newStyle = new TextStyle(fontStyle, (hexColor != null ? new ClearColor(hexColor) : null));
+					styleCache.put(key, newStyle);
+				}
+			}
+			
+			if (newStyle != style) {
+				if (style != null) {
+					spans.add(styleStart, text.length(), style);
+				}
+				
+				style = newStyle;
+				styleStart = text.length();
+			}
+		}
+		
+		if (style != null) {
+			spans.add(styleStart, text.length(), style);
+		}
+		
+		return text.toString();
+	}
+	
+	/**
+	 * Converts plain text and style spans into text formatted with escape sequences, for compatibility with code that expects them (e.g. for saving the text to a file).
+	 * Each span is written as the escape sequences for its style, followed by the text of the span and a reset sequence. A <code>FontStyle.REGULAR</code> span style 
+	 * has no escape sequence, so it isn't written.
+	 * 
+	 * @param text - the plain text
+	 * @param spans - the formatting of the text
+	 * @return the text with escape sequences added
+	 */
+	public static String exportMarkup(CharSequence text, StyleSpanList spans) {
+		StringBuilder markup = new StringBuilder(text.length() + spans.size() * (2 + ESCAPE_SEQUENCE_COLOR_LENGTH));
+		
+		int spanIndex = 0;
+		
+		for (int i = 0; i <= text.length(); i++) {
+			if (spanIndex < spans.size() && spans.getEnd(spanIndex) == i) {
+				markup.append(ESCAPE_SEQUENCE_RESET);
+				spanIndex++;
+			}
+			
+			if (spanIndex < spans.size() && spans.getStart(spanIndex) == i) {
+				TextStyle style = spans.getStyle(spanIndex);
+				
+				if (style.getFontStyle() != null) {
+					switch (style.getFontStyle()) {
+					case BOLD:
+						markup.append(ESCAPE_SEQUENCE_BOLD);
+						break;
+					case LIGHT:
+						markup.append(ESCAPE_SEQUENCE_LIGHT);
+						break;
+					case ITALIC:
+						markup.append(ESCAPE_SEQUENCE_ITALIC);
+						break;
+					default:
+						break;
+					}
+				}
+				
+				if (style.getFill() != null) {
+					markup.append(ESCAPE_SEQUENCE_COLOR).append(style.getFill().toHEX());
+				}
+			}
+			
+			if (i < text.length()) {
+				markup.append(text.charAt(i));
+			}
+		}
+		
+		return markup.toString();
+	}
+	
+	/**
+	 * @param text
+	 * @return the number of escape sequence characters in the text
+	 */
+	public static int countEscapeSequences(CharSequence text) {
+		int count = 0;
+		
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			//All of the escape sequences are control characters
+			if (c < ' ') {
+				for (int j = 0; j < ESCAPE_SEQUENCES.length; j++) {
+					if (c == ESCAPE_SEQUENCES[j]) {
+						count++;
+						break;
+					}
+				}
+			}
+		}
+		
+		return count;
+	}
+
 	public interface CharProcessor {
 		public void process(int index, char c);
 	}
@@ -46,7 +46,7 @@ public class DefaultTextAreaContentInputHandler extends TextAreaContentInputHand
 			 * Allows us to seamlessly move the caret between text areas
 			 */
 			
-			Widget focused = ClearStaticResources.getFocusedWidget();
+			Widget focused = ClearStaticResources.getFocusedWidget(widget);
 			
 			//Cancel editing if the mouse is hovering this text field but its currently focused on another text field
 			if (event.isPressed() && widget.isMouseIntersectingThisWidget(window) 
@@ -0,0 +1,422 @@
+package nokori.clear.vg.widget.text;
+
+import java.util.Random;
+
+/**
+ * A TextBuffer implemented as a piece table. The text is never shifted in memory: characters are only ever appended to a single store, and the document is
+ * described by an ordered list of pieces (ranges of that store). Inserting splits a piece and adds a new one, deleting drops pieces.
+ * <br><br>
+ * The pieces are kept in a randomized balanced tree (a treap) ordered by their position in the document, with each node knowing the total length of its subtree.
+ * This makes inserting, deleting, and finding characters O(log n) in the number of pieces. A few extra optimizations are included for how text areas are used:
+ * <br><br>
+ * - Typing at the end of the last inserted text extends that piece instead of adding a new one.<br>
+ * - The last piece found by <code>charAt()</code> is remembered, so reading characters in order is O(1) for most characters.<br>
+ * - <code>toString()</code> is cached until the text is edited, so it can be called every frame.<br>
+ * - The store is compacted once it's mostly made up of deleted text.
+ */
+public class PieceTableTextBuffer implements TextBuffer {
+
+	//The store is compacted when it's larger than this plus twice the text length
+	private static final int COMPACT_THRESHOLD = 1 << 16;
+
+	private static class Piece {
+		//The range of this piece in the store
+		int start, length;
+
+		//Treap data
+		int priority;
+		int subtreeLength;
+		Piece left, right;
+
+		Piece(int start, int length, int priority) {
+			this.start = start;
+			this.length = length;
+			this.priority = priority;
+			this.subtreeLength = length;
+		}
+	}
+
+	private StringBuilder store = new StringBuilder();
+	private Piece root = null;
+
+	private Random random = new Random();
+
+	//The results of split()
+	private Piece splitLeft, splitRight;
+
+	//The last piece found by charAt() and the document offset it starts at
+	private Piece cachedPiece = null;
+	private int cachedPieceOffset = 0;
+
+	//The end offset of the last insertion, for extending it when the user keeps typing
+	private int lastInsertEnd = -1;
+
+	private String cachedString = null;
+
+	private EditListener editListener = null;
+
+	public PieceTableTextBuffer() {
+
+	}
+
+	public PieceTableTextBuffer(CharSequence text) {
+		insert(0, text);
+	}
+
+	/*
+	 *
+	 * Reading
+	 *
+	 */
+
+	@Override
+	public int length() {
+		return length(root);
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length()) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+
+		if (cachedPiece == null || index < cachedPieceOffset || index >= cachedPieceOffset + cachedPiece.length) {
+			findPiece(index);
+		}
+
+		return store.charAt(cachedPiece.start + (index - cachedPieceOffset));
+	}
+
+	/**
+	 * Finds the piece containing the index and caches it along with its offset.
+	 */
+	private void findPiece(int index) {
+		Piece n = root;
+		int offset = 0;
+
+		while (n != null) {
+			int leftLength = length(n.left);
+
+			if (index < offset + leftLength) {
+				n = n.left;
+			} else if (index < offset + leftLength + n.length) {
+				cachedPiece = n;
+				cachedPieceOffset = offset + leftLength;
+				return;
+			} else {
+				offset += leftLength + n.length;
+				n = n.right;
+			}
+		}
+	}
+
+	@Override
+	public String substring(int start, int end) {
+		checkRange(start, end);
+
+		if (cachedString != null) {
+			return cachedString.substring(start, end);
+		}
+
+		char[] chars = new char[end - start];
+		getChars(root, 0, start, end, chars, 0);
+		return new String(chars);
+	}
+
+	@Override
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		checkRange(srcBegin, srcEnd);
+		getChars(root, 0, srcBegin, srcEnd, dst, dstBegin);
+	}
+
+	/**
+	 * Copies the characters of the subtree that fall between begin and end (document offsets) into the array. dstBegin is where the character at begin goes.
+	 */
+	private void getChars(Piece n, int offset, int begin, int end, char[] dst, int dstBegin) {
+		if (n == null || begin >= end) {
+			return;
+		}
+
+		int pieceStart = offset + length(n.left);
+		int pieceEnd = pieceStart + n.length;
+
+		if (begin < pieceStart) {
+			getChars(n.left, offset, begin, Math.min(end, pieceStart), dst, dstBegin);
+		}
+
+		int copyStart = Math.max(begin, pieceStart);
+		int copyEnd = Math.min(end, pieceEnd);
+
+		if (copyStart < copyEnd) {
+			store.getChars(n.start + (copyStart - pieceStart), n.start + (copyEnd - pieceStart), dst, dstBegin + (copyStart - begin));
+		}
+
+		if (end > pieceEnd) {
+			int rightBegin = Math.max(begin, pieceEnd);
+			getChars(n.right, pieceEnd, rightBegin, end, dst, dstBegin + (rightBegin - begin));
+		}
+	}
+
+	@Override
+	public String toString() {
+		if (cachedString == null) {
+			char[] chars = new char[length()];
+			getChars(root, 0, 0, chars.length, chars, 0);
+			cachedString = new String(chars);
+		}
+
+		return cachedString;
+	}
+
+	/*
+	 *
+	 * Editing
+	 *
+	 */
+
+	@Override
+	public TextBuffer insert(int offset, CharSequence string) {
+		if (offset < 0 || offset > length()) {
+			throw new StringIndexOutOfBoundsException(offset);
+		}
+
+		int length = string.length();
+
+		if (length == 0) {
+			return this;
+		}
+
+		notifyEdited();
+
+		if (store.length() > COMPACT_THRESHOLD + (length() * 2)) {
+			compact();
+		}
+
+		//Extend the last insertion if the user is still typing at the end of it. Otherwise add a new piece.
+		if (offset == lastInsertEnd && extendPiece(offset, length)) {
+			store.append(string);
+		} else {
+			Piece piece = new Piece(store.length(), length, random.nextInt());
+			store.append(string);
+
+			split(root, offset);
+			root = merge(merge(splitLeft, piece), splitRight);
+		}
+
+		lastInsertEnd = offset + length;
+
+		if (editListener != null) {
+			editListener.textInserted(offset, string.toString());
+		}
+
+		return this;
+	}
+
+	@Override
+	public TextBuffer insert(int offset, char c) {
+		return insert(offset, Character.toString(c));
+	}
+
+	@Override
+	public TextBuffer delete(int start, int end) {
+		//Clamped the same way StringBuilder.delete() does it
+		end = Math.min(end, length());
+		checkRange(start, end);
+
+		if (start == end) {
+			return this;
+		}
+
+		if (editListener != null) {
+			editListener.textDeleted(start, substring(start, end));
+		}
+
+		notifyEdited();
+		lastInsertEnd = -1;
+
+		split(root, end);
+		Piece after = splitRight;
+
+		split(splitLeft, start);
+		root = merge(splitLeft, after);
+
+		return this;
+	}
+
+	@Override
+	public TextBuffer deleteCharAt(int index) {
+		if (index < 0 || index >= length()) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+
+		return delete(index, index + 1);
+	}
+
+	@Override
+	public TextBuffer replace(int start, int end, String string) {
+		//Replacing all of the text (e.g. setText()) starts the store over
+		if (start == 0 && end >= length()) {
+			if (editListener != null && length() > 0) {
+				editListener.textDeleted(0, toString());
+			}
+
+			store = new StringBuilder();
+			root = null;
+			lastInsertEnd = -1;
+			notifyEdited();
+
+			return insert(0, string);
+		}
+
+		delete(start, end);
+		return insert(start, string);
+	}
+
+	@Override
+	public void setEditListener(EditListener listener) {
+		this.editListener = listener;
+	}
+
+	private void notifyEdited() {
+		cachedString = null;
+		cachedPiece = null;
+	}
+
+	/**
+	 * Extends the piece ending at the offset by the given length, if it ends at the end of the store (meaning the new characters will directly follow it).
+	 *
+	 * @return true if the piece was extended
+	 */
+	private boolean extendPiece(int offset, int length) {
+		if (offset == 0) {
+			return false;
+		}
+
+		findPiece(offset - 1);
+
+		Piece piece = cachedPiece;
+		cachedPiece = null;
+
+		if (piece == null || cachedPieceOffset + piece.length != offset || piece.start + piece.length != store.length()) {
+			return false;
+		}
+
+		//Update the subtree lengths on the way down to the piece
+		Piece n = root;
+		int nodeOffset = 0;
+
+		while (n != piece) {
+			n.subtreeLength += length;
+
+			int leftLength = length(n.left);
+
+			if (offset - 1 < nodeOffset + leftLength) {
+				n = n.left;
+			} else {
+				nodeOffset += leftLength + n.length;
+				n = n.right;
+			}
+		}
+
+		piece.length += length;
+		piece.subtreeLength += length;
+
+		return true;
+	}
+
+	/**
+	 * Rewrites the store so that it only contains the current text, as one piece.
+	 */
+	private void compact() {
+		String text = toString();
+
+		store = new StringBuilder(text);
+		root = (text.isEmpty() ? null : new Piece(0, text.length(), random.nextInt()));
+
+		lastInsertEnd = -1;
+		notifyEdited();
+	}
+
+	/*
+	 *
+	 * Treap functions
+	 *
+	 */
+
+	private static int length(Piece n) {
+		return (n != null ? n.subtreeLength : 0);
+	}
+
+	private static void update(Piece n) {
+		n.subtreeLength = length(n.left) + n.length + length(n.right);
+	}
+
+	/**
+	 * Splits the subtree into the pieces before the offset (splitLeft) and the pieces after it (splitRight). A piece containing the offset is cut in two.
+	 */
+	private void split(Piece n, int offset) {
+		if (n == null) {
+			splitLeft = null;
+			splitRight = null;
+			return;
+		}
+
+		int leftLength = length(n.left);
+
+		if (offset <= leftLength) {
+			split(n.left, offset);
+			n.left = splitRight;
+			update(n);
+			splitRight = n;
+		} else if (offset >= leftLength + n.length) {
+			split(n.right, offset - leftLength - n.length);
+			n.right = splitLeft;
+			update(n);
+			splitLeft = n;
+		} else {
+			int cut = offset - leftLength;
+
+			//The tail inherits the priority so that it can stay above the right subtree
+			Piece tail = new Piece(n.start + cut, n.length - cut, n.priority);
+			tail.right = n.right;
+
+			n.right = null;
+			n.length = cut;
+
+			update(n);
+			update(tail);
+
+			splitLeft = n;
+			splitRight = tail;
+		}
+	}
+
+	/**
+	 * Merges two subtrees, where every piece in a comes before every piece in b.
+	 */
+	private Piece merge(Piece a, Piece b) {
+		if (a == null) {
+			return b;
+		}
+
+		if (b == null) {
+			return a;
+		}
+
+		if (a.priority >= b.priority) {
+			a.right = merge(a.right, b);
+			update(a);
+			return a;
+		} else {
+			b.left = merge(a, b.left);
+			update(b);
+			return b;
+		}
+	}
+
+	private void checkRange(int start, int end) {
+		if (start < 0 || start > end || end > length()) {
+			throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package nokori.clear.vg.widget.text;
+
+/**
+ * A TextBuffer that stores its text in a StringBuilder. Edits shift the characters after them (O(n)) and <code>toString()</code> copies the full text every time,
+ * so this is best suited for short text, or for code that needs to work with the StringBuilder directly.
+ *
+ * @see <code>TextAreaWidget.setTextBuffer()</code>
+ */
+public class StringBuilderTextBuffer implements TextBuffer {
+
+	private StringBuilder stringBuilder;
+	private EditListener editListener = null;
+
+	public StringBuilderTextBuffer() {
+		this(new StringBuilder());
+	}
+
+	public StringBuilderTextBuffer(StringBuilder stringBuilder) {
+		this.stringBuilder = stringBuilder;
+	}
+
+	@Override
+	public int length() {
+		return stringBuilder.length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return stringBuilder.charAt(index);
+	}
+
+	@Override
+	public TextBuffer insert(int offset, CharSequence string) {
+		stringBuilder.insert(offset, string);
+
+		if (editListener != null && string.length() > 0) {
+			editListener.textInserted(offset, string.toString());
+		}
+
+		return this;
+	}
+
+	@Override
+	public TextBuffer insert(int offset, char c) {
+		return insert(offset, Character.toString(c));
+	}
+
+	@Override
+	public TextBuffer delete(int start, int end) {
+		end = Math.min(end, stringBuilder.length());
+
+		if (editListener != null && start >= 0 && start < end) {
+			editListener.textDeleted(start, stringBuilder.substring(start, end));
+		}
+
+		stringBuilder.delete(start, end);
+		return this;
+	}
+
+	@Override
+	public TextBuffer deleteCharAt(int index) {
+		if (index < 0 || index >= stringBuilder.length()) {
+			throw new StringIndexOutOfBoundsException(index);
+		}
+
+		return delete(index, index + 1);
+	}
+
+	@Override
+	public TextBuffer replace(int start, int end, String string) {
+		delete(start, end);
+		return insert(start, string);
+	}
+
+	@Override
+	public String substring(int start, int end) {
+		return stringBuilder.substring(start, end);
+	}
+
+	@Override
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		stringBuilder.getChars(srcBegin, srcEnd, dst, dstBegin);
+	}
+
+	@Override
+	public void setEditListener(EditListener listener) {
+		this.editListener = listener;
+	}
+
+	@Override
+	public String toString() {
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * @return the StringBuilder backing this TextBuffer. Modifying it modifies this TextBuffer, but the edits won't be reported to the EditListener.
+	 */
+	public StringBuilder getStringBuilder() {
+		return stringBuilder;
+	}
+}
@@ -0,0 +1,444 @@
+package nokori.clear.vg.widget.text;
+
+import java.util.Arrays;
+
+/**
+ * A side-table of formatting for the text of a TextAreaWidget, stored as a sorted list of non-overlapping spans (start inclusive, end exclusive) with a TextStyle each.
+ * Unlike escape sequences, nothing is added to the text itself.
+ * <br><br>
+ * When registered with <code>TextAreaWidget.addStyleSpans()</code>, the spans are rendered and are shifted automatically as the text is edited. Text inserted inside of
+ * a span becomes part of it, while text inserted at its edges doesn't. Finding the span at an offset is a binary search.
+ * <br><br>
+ * The spans are stored in a gap buffer that follows the edits. The spans after the gap are stored relative to a shared shift, so an edit only updates the spans it
+ * touches and the shift, rather than every span after it. Edits are usually made near the previous one (e.g. while typing), so the gap rarely has to move far.
+ */
+public class StyleSpanList implements TextBuffer.EditListener {
+
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+	private TextStyle[] styles = new TextStyle[16];
+
+	//Spans [0, gapStart) are stored at the start of the arrays, and the rest are stored from gapEnd onward
+	private int gapStart = 0;
+	private int gapEnd = 16;
+
+	//Added to the stored starts and ends of the spans after the gap
+	private int shift = 0;
+
+	/*
+	 *
+	 * Lookup
+	 *
+	 */
+
+	public int size() {
+		return starts.length - (gapEnd - gapStart);
+	}
+
+	public int getStart(int index) {
+		return (index < gapStart ? starts[index] : starts[index + (gapEnd - gapStart)] + shift);
+	}
+
+	public int getEnd(int index) {
+		return (index < gapStart ? ends[index] : ends[index + (gapEnd - gapStart)] + shift);
+	}
+
+	public TextStyle getStyle(int index) {
+		return styles[index < gapStart ? index : index + (gapEnd - gapStart)];
+	}
+
+	/**
+	 * @param offset
+	 * @return the index of the first span that ends after the offset (which either contains the offset or is the next span after it), or size() if there are none
+	 */
+	public int getFirstSpanEndingAfter(int offset) {
+		int low = 0;
+		int high = size();
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (getEnd(mid) <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @param offset
+	 * @return the index of the first span that starts at or after the offset, or size() if there are none
+	 */
+	private int getFirstSpanStartingAt(int offset) {
+		int low = 0;
+		int high = size();
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (getStart(mid) < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @param offset
+	 * @return the index of the span containing the offset, or -1 if there isn't one
+	 */
+	public int getSpanAt(int offset) {
+		int index = getFirstSpanEndingAfter(offset);
+		return (index < size() && getStart(index) <= offset ? index : -1);
+	}
+
+	/**
+	 * @param offset
+	 * @return the style of the span containing the offset, or null if there isn't one
+	 */
+	public TextStyle getStyleAt(int offset) {
+		int index = getSpanAt(offset);
+		return (index != -1 ? getStyle(index) : null);
+	}
+
+	/*
+	 *
+	 * Editing
+	 *
+	 */
+
+	/**
+	 * Adds a span. The range must not overlap any existing spans; use <code>removeRange()</code> first if needed.
+	 *
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 * @param style
+	 */
+	public void add(int start, int end, TextStyle style) {
+		if (start >= end) {
+			return;
+		}
+
+		int index = getFirstSpanEndingAfter(start);
+
+		if (index < size() && getStart(index) < end) {
+			throw new IllegalArgumentException("Span " + start + "-" + end + " overlaps span " + getStart(index) + "-" + getEnd(index));
+		}
+
+		moveGap(index);
+		ensureGap(1);
+
+		starts[gapStart] = start;
+		ends[gapStart] = end;
+		styles[gapStart] = style;
+		gapStart++;
+	}
+
+	/**
+	 * Removes the formatting from the given range. Spans partially inside of it are trimmed (or split in two).
+	 *
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 */
+	public void removeRange(int start, int end) {
+		if (start >= end) {
+			return;
+		}
+
+		int size = size();
+		int first = getFirstSpanEndingAfter(start);
+
+		//A span covering the whole range is split in two
+		if (first < size && getStart(first) < start && getEnd(first) > end) {
+			int oldEnd = getEnd(first);
+			setEnd(first, start);
+			add(end, oldEnd, getStyle(first));
+			return;
+		}
+
+		//Trim a span overlapping the start of the range
+		if (first < size && getStart(first) < start) {
+			setEnd(first, start);
+			first++;
+		}
+
+		int last = first;
+
+		while (last < size && getEnd(last) <= end) {
+			last++;
+		}
+
+		//Trim a span overlapping the end of the range
+		if (last < size && getStart(last) < end) {
+			setStart(last, end);
+		}
+
+		removeSpans(first, last);
+	}
+
+	/**
+	 * Applies a style to the given range on top of the existing formatting. Where the range overlaps existing spans, their styles are merged with the new one
+	 * (see <code>TextStyle.merge()</code>), and the rest of the range is given the new style.
+	 *
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 * @param style
+	 */
+	public void applyStyle(int start, int end, TextStyle style) {
+		if (start >= end) {
+			return;
+		}
+
+		int size = size();
+		int first = getFirstSpanEndingAfter(start);
+		int overlapping = 0;
+
+		while (first + overlapping < size && getStart(first + overlapping) < end) {
+			overlapping++;
+		}
+
+		//Work out the new spans for the range first, then replace the old ones
+		int[] newStarts = new int[overlapping * 2 + 1];
+		int[] newEnds = new int[overlapping * 2 + 1];
+		TextStyle[] newStyles = new TextStyle[overlapping * 2 + 1];
+		int count = 0;
+
+		int index = first;
+		int position = start;
+
+		while (position < end) {
+			int segmentEnd;
+
+			if (index < size && getStart(index) <= position) {
+				segmentEnd = Math.min(getEnd(index), end);
+				newStyles[count] = getStyle(index).merge(style);
+				index++;
+			} else {
+				segmentEnd = (index < size ? Math.min(getStart(index), end) : end);
+				newStyles[count] = style;
+			}
+
+			newStarts[count] = position;
+			newEnds[count] = segmentEnd;
+			count++;
+
+			position = segmentEnd;
+		}
+
+		removeRange(start, end);
+
+		for (int i = 0; i < count; i++) {
+			add(newStarts[i], newEnds[i], newStyles[i]);
+		}
+	}
+
+	/**
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 * @return a new StyleSpanList with the spans inside of the given range, trimmed to it
+	 */
+	public StyleSpanList copyRange(int start, int end) {
+		StyleSpanList copy = new StyleSpanList();
+		int size = size();
+
+		for (int i = getFirstSpanEndingAfter(start); i < size && getStart(i) < end; i++) {
+			copy.add(Math.max(getStart(i), start), Math.min(getEnd(i), end), getStyle(i));
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Replaces the formatting of the given range with the spans of the given StyleSpanList (e.g. one returned by <code>copyRange()</code>). Spans outside of
+	 * the range are ignored. Touching spans with the same style are joined back together (including across the edges of the range), so replacing a range with
+	 * a copy of it leaves the spans as they were.
+	 *
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 * @param spans
+	 */
+	public void replaceRange(int start, int end, StyleSpanList spans) {
+		removeRange(start, end);
+
+		for (int i = 0; i < spans.size(); i++) {
+			int spanStart = Math.max(spans.getStart(i), start);
+			int spanEnd = Math.min(spans.getEnd(i), end);
+
+			add(spanStart, spanEnd, spans.getStyle(i));
+			joinSpansAt(spanStart);
+		}
+
+		joinSpansAt(start);
+		joinSpansAt(end);
+	}
+
+	/**
+	 * Joins the span ending at the offset with the span starting there if they have the same style.
+	 */
+	private void joinSpansAt(int offset) {
+		int index = getFirstSpanEndingAfter(offset - 1);
+
+		if (index + 1 < size() && getEnd(index) == offset && getStart(index + 1) == offset && getStyle(index) == getStyle(index + 1)) {
+			setEnd(index, getEnd(index + 1));
+			removeSpans(index + 1, index + 2);
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(styles, null);
+		gapStart = 0;
+		gapEnd = starts.length;
+		shift = 0;
+	}
+
+	@Override
+	public void textInserted(int offset, String string) {
+		int length = string.length();
+
+		//The spans starting at or after the offset are moved along with the text, which the shift does for all of them at once
+		int index = getFirstSpanStartingAt(offset);
+		moveGap(index);
+		shift += length;
+
+		//A span containing the offset grows
+		if (index > 0 && ends[index - 1] > offset) {
+			ends[index - 1] += length;
+		}
+	}
+
+	@Override
+	public void textDeleted(int offset, String string) {
+		int length = string.length();
+		int deleteEnd = offset + length;
+
+		//The spans starting after the deletion are moved back, which the shift does for all of them at once
+		int index = getFirstSpanStartingAt(deleteEnd);
+		moveGap(index);
+		shift -= length;
+
+		//The spans before the gap that overlap the deletion are trimmed
+		int first = getFirstSpanEndingAfter(offset);
+		int emptyStart = -1, emptyEnd = -1;
+
+		for (int i = first; i < index; i++) {
+			starts[i] = (starts[i] <= offset ? starts[i] : offset);
+			ends[i] = (ends[i] >= deleteEnd ? ends[i] - length : offset);
+
+			//Spans entirely inside the deletion are empty now. They're always next to each other.
+			if (starts[i] == ends[i]) {
+				if (emptyStart == -1) {
+					emptyStart = i;
+				}
+
+				emptyEnd = i + 1;
+			}
+		}
+
+		if (emptyStart != -1) {
+			removeSpans(emptyStart, emptyEnd);
+		}
+	}
+
+	private void setStart(int index, int start) {
+		if (index < gapStart) {
+			starts[index] = start;
+		} else {
+			starts[index + (gapEnd - gapStart)] = start - shift;
+		}
+	}
+
+	private void setEnd(int index, int end) {
+		if (index < gapStart) {
+			ends[index] = end;
+		} else {
+			ends[index + (gapEnd - gapStart)] = end - shift;
+		}
+	}
+
+	private void removeSpans(int from, int to) {
+		if (from >= to) {
+			return;
+		}
+
+		moveGap(to);
+
+		Arrays.fill(styles, from, to, null);
+		gapStart = from;
+	}
+
+	/**
+	 * Moves the gap so that it starts before the span at the given index, converting the spans it moves past between absolute and shifted positions.
+	 */
+	private void moveGap(int index) {
+		if (index < gapStart) {
+			int count = gapStart - index;
+			int newGapEnd = gapEnd - count;
+
+			//Backwards, since the spans can overlap when the gap is smaller than the distance moved
+			for (int i = count - 1; i >= 0; i--) {
+				starts[newGapEnd + i] = starts[index + i] - shift;
+				ends[newGapEnd + i] = ends[index + i] - shift;
+				styles[newGapEnd + i] = styles[index + i];
+			}
+
+			Arrays.fill(styles, index, newGapEnd, null);
+
+			gapStart = index;
+			gapEnd = newGapEnd;
+		} else if (index > gapStart) {
+			int count = index - gapStart;
+
+			for (int i = 0; i < count; i++) {
+				starts[gapStart + i] = starts[gapEnd + i] + shift;
+				ends[gapStart + i] = ends[gapEnd + i] + shift;
+				styles[gapStart + i] = styles[gapEnd + i];
+			}
+
+			Arrays.fill(styles, index, gapEnd + count, null);
+
+			gapStart = index;
+			gapEnd += count;
+		}
+
+		//With no spans after the gap, the shift doesn't apply to anything
+		if (gapEnd == starts.length) {
+			shift = 0;
+		}
+	}
+
+	/**
+	 * Grows the arrays if the gap can't fit the given number of spans.
+	 */
+	private void ensureGap(int count) {
+		if (gapEnd - gapStart >= count) {
+			return;
+		}
+
+		int afterGap = starts.length - gapEnd;
+		int capacity = Math.max(starts.length * 2, gapStart + afterGap + count);
+		int newGapEnd = capacity - afterGap;
+
+		int[] newStarts = new int[capacity];
+		int[] newEnds = new int[capacity];
+		TextStyle[] newStyles = new TextStyle[capacity];
+
+		System.arraycopy(starts, 0, newStarts, 0, gapStart);
+		System.arraycopy(ends, 0, newEnds, 0, gapStart);
+		System.arraycopy(styles, 0, newStyles, 0, gapStart);
+
+		System.arraycopy(starts, gapEnd, newStarts, newGapEnd, afterGap);
+		System.arraycopy(ends, gapEnd, newEnds, newGapEnd, afterGap);
+		System.arraycopy(styles, gapEnd, newStyles, newGapEnd, afterGap);
+
+		starts = newStarts;
+		ends = newEnds;
+		styles = newStyles;
+		gapEnd = newGapEnd;
+	}
+}
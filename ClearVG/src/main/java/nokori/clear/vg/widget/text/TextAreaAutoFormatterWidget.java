@@ -47,7 +47,7 @@ public class TextAreaAutoFormatterWidget extends Widget {
 	public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
 		/*TextAreaWidget textAreaWidget = (TextAreaWidget) parent;
 		TextAreaContentHandler h = textAreaWidget.getTextContentHandler();
-		System.out.println("Caret position: " + h.getCaretPosition() + " (" + textAreaWidget.getTextBuilder().length() + ")");*/
+		System.out.println("Caret position: " + h.getCaretPosition() + " (" + textAreaWidget.getTextBuffer().length() + ")");*/
 		
 		if (!initialRefresh) {
 			refresh();
@@ -69,7 +69,11 @@ public class TextAreaAutoFormatterWidget extends Widget {
 		if (parent instanceof TextAreaWidget) {
 			TextAreaWidget textAreaWidget = (TextAreaWidget) parent;
 			TextAreaContentHandler h = textAreaWidget.getTextContentHandler();
-			StringBuilder textBuilder = textAreaWidget.getTextBuilder();
+			TextBuffer textBuilder = textAreaWidget.getTextBuffer();
+			
+			//The formatting is recorded as one edit in the undo history, rather than every escape sequence that's removed and re-added
+			TextAreaHistory history = h.getEditHistory();
+			history.beginBatch(textBuilder);
 			
 			//Disables manual formatting so that the system isn't confused by manual formatting tags and the automatic ones added autonomously
 			textAreaWidget.getInputSettings().setManualFormattingEnabled(false);
@@ -136,8 +140,10 @@ public class TextAreaAutoFormatterWidget extends Widget {
 				//Adjust caret if needed
 				replaceAll(h, textBuilder, key, replacement, syntax.resetMode);
 			}
+			
+			history.endBatch(textBuilder);
 
-			//System.out.println("Auto-Formatter: Final caret position: " + h.getCaretPosition() + " (" + textAreaWidget.getTextBuilder().length() + ")");
+			//System.out.println("Auto-Formatter: Final caret position: " + h.getCaretPosition() + " (" + textAreaWidget.getTextBuffer().length() + ")");
 		} else {
 			System.err.println("WARNING: TextAreaAutoFormatterWidget (" + this + ") added to incompatble widget (" + parent + "). "
 					+ "Please add this widget to a TextAreaWidget to experience proper functionality.");
@@ -146,7 +152,7 @@ public class TextAreaAutoFormatterWidget extends Widget {
 		initialRefresh = true;
 	}
 	
-	private void replaceAll(TextAreaContentHandler h, StringBuilder sb, String regex, String replacement, SyntaxResetMode resetMode) {
+	private void replaceAll(TextAreaContentHandler h, TextBuffer sb, String regex, String replacement, SyntaxResetMode resetMode) {
 	    Matcher m = Pattern.compile(Pattern.quote(regex)).matcher(sb);
 	    int start = 0;
 	    
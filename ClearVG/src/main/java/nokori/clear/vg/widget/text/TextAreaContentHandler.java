@@ -10,9 +10,13 @@ import nokori.clear.vg.widget.assembly.WidgetUtils;
 import nokori.clear.windows.Window;
 import org.joml.Vector2f;
 import org.joml.Vector2i;
+import org.lwjgl.nanovg.NVGColor;
+import org.lwjgl.nanovg.NVGGlyphPosition;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 
 import static nokori.clear.vg.widget.text.ClearEscapeSequences.*;
 import static org.lwjgl.nanovg.NanoVG.*;
@@ -32,6 +36,9 @@ public class TextAreaContentHandler {
 	/** Disables character skipping, meaning that longer escape sequences such as HEX color setters will be displayed for debugging purposes */
 	private static final boolean SKIPPING_ENABLED = true;
 	
+	/** Groups plain characters into runs that are drawn with one nvgText() call each. Disable to render every character individually for debugging purposes */
+	private static final boolean RUN_BATCHING_ENABLED = true;
+	
 	/*
 	 * Core data
 	 */
@@ -47,6 +54,9 @@ public class TextAreaContentHandler {
 	
 	private HashMap<String, String> escapeSequenceReplacements = ClearEscapeSequences.initDefault(SHOW_ESCAPE_SEQUENCES);
 	
+	//The escape sequences and replaced characters, rebuilt every frame since the replacements can be changed at any time (see isPlainCharacter())
+	private BitSet specialCharacters = new BitSet(128);
+	
 	//If true, a color escape sequence was found and we need to skip ahead seven characters to accommodate a HEX value.
 	int skipsRequested = 0;
 	
@@ -54,8 +64,35 @@ public class TextAreaContentHandler {
 	HashMap<String, ClearColor> colorCache = new HashMap<String, ClearColor>();
 	private ClearColor currentTextFill = null;
 	
+	//The fill of highlighted characters that match the highlight color, reused for every character
+	private ClearColor highlightedTextFill = new ClearColor(0f, 0f, 0f, 0f);
+	
 	private FontStyle currentTextStyle = FontStyle.REGULAR;
 	
+	/*
+	 * Run rendering
+	 */
+	
+	//Reused buffers for looking up the character positions inside of a run of text. The glyph positions are created on first use, since NanoVG structs need
+	//the native library.
+	private NVGGlyphPosition.Buffer glyphPositions = null;
+	private float[] runCharacterX = new float[64];
+	
+	/*
+	 * Style spans
+	 */
+	
+	//The current span of each of the widget's StyleSpanLists while a line is being rendered
+	private int[] spanCursors = new int[4];
+	
+	//The formatting applied by the spans on top of the escape sequence formatting (null where the spans don't change it)
+	private FontStyle spanTextStyle = null;
+	private ClearColor spanTextFill = null;
+	
+	//The formatting set by the escape sequences, which is restored when a span ends
+	private FontStyle baseTextStyle = FontStyle.REGULAR;
+	private ClearColor baseTextFill = null;
+	
 	/*
 	 * Caret
 	 */
@@ -88,6 +125,7 @@ public class TextAreaContentHandler {
 	
 	public TextAreaContentHandler(TextAreaWidget textArea) {
 		this.widget = textArea;
+		caretFadeTransition.setInvalidatedWidget(textArea);
 	}
 
 	/**
@@ -96,10 +134,34 @@ public class TextAreaContentHandler {
 	 */
 	public void beginFrame() {
 		skipsRequested = 0;
+		refreshSpecialCharacters();
+	}
+	
+	/**
+	 * Rebuilds the set of characters that aren't plain (see <code>isPlainCharacter()</code>) from the escape sequences and the current replacements.
+	 */
+	private void refreshSpecialCharacters() {
+		specialCharacters.clear();
+		
+		for (int i = 0; i < ESCAPE_SEQUENCES.length; i++) {
+			specialCharacters.set(ESCAPE_SEQUENCES[i]);
+		}
+		
+		for (String key : escapeSequenceReplacements.keySet()) {
+			//Replacements are looked up one character at a time, so longer keys never match
+			if (key.length() == 1) {
+				specialCharacters.set(key.charAt(0));
+			}
+		}
 	}
 	
 	/**
 	 * Renders the given line of text and returns the number of characters rendered. Font.split() has to be used before this will work.
+	 * <br><br>
+	 * Consecutive plain characters that share the same highlighting state are grouped into runs and drawn with a single <code>nvgText()</code> call. 
+	 * Escape sequences and replaced characters (e.g. tabs) are still processed one at a time.
+	 * <br><br>
+	 * The formatting of the widget's StyleSpanLists is applied over the escape sequence formatting, and runs are also broken wherever a span starts or ends.
 	 * 
 	 * @param context - NanoVG Context
 	 * @param font - the font to be used
@@ -116,53 +178,60 @@ public class TextAreaContentHandler {
 		float advanceX = textContentX;
 		
 		float adjustedClickY = lineY + scissorY;
+		
+		//The start of the current run of plain characters in this line (-1 if no run is being built)
+		int runStart = -1;
+		
+		ArrayList<StyleSpanList> styleSpans = widget.getStyleSpans();
+		boolean hasStyleSpans = !styleSpans.isEmpty();
+		
+		if (hasStyleSpans) {
+			beginStyleSpans(context, styleSpans, startIndex);
+		}
 
 		for (int i = 0; i < text.length(); i++) {
 			int characterIndex = startIndex + i;
+			char character = text.charAt(i);
 			
-			//Render the caret
-			if (caret == characterIndex) {
-				renderCaret(vg, advanceX, lineY, fontHeight);
+			boolean plain = (RUN_BATCHING_ENABLED && skipsRequested == 0 && isPlainCharacter(character));
+			boolean spanBoundary = (hasStyleSpans && i > 0 && isStyleSpanBoundary(styleSpans, characterIndex));
+			
+			//Draw the pending run if this character can't be added to it
+			if (runStart != -1 && (!plain || spanBoundary || isContentHighlighted(startIndex + runStart) != isContentHighlighted(characterIndex))) {
+				advanceX = renderRun(vg, lineNumber, text, runStart, i, startIndex, advanceX, lineY, adjustedClickY, fontHeight);
+				runStart = -1;
 			}
-
-			String c = checkEscapeSequences(context, characterIndex, text.charAt(i));
 			
-			if (!SKIPPING_ENABLED) {
-				skipsRequested = 0;
+			if (spanBoundary) {
+				updateStyleSpans(context, styleSpans, characterIndex);
 			}
-
-			if (skipsRequested == 0) {
-
-				// save state so that text formatting commands don't carry over into the next rendering
-				nvgSave(vg);
-				
-				// records data to be used for rendering the highlighted segments of the text
-				highlightRenderLogic(vg, advanceX, lineY, characterIndex);
-	
-				// render text
-				float bAdvanceX = advanceX;
-				advanceX = nvgText(vg, advanceX, lineY, c);
-				
-				// caret systems
-				if (widget.getInputSettings().isCaretEnabled()) {
-					forEachCharCaretLogic(vg, characterIndex, lineNumber, bAdvanceX, lineY, adjustedClickY, (advanceX - bAdvanceX), fontHeight);
+			
+			if (plain) {
+				if (runStart == -1) {
+					runStart = i;
 				}
-				
-				// pop state
-				nvgRestore(vg);
 			} else {
-				skipsRequested--;
+				advanceX = renderCharacter(context, vg, lineNumber, character, characterIndex, advanceX, lineY, adjustedClickY, fontHeight);
 				
-				//Character rendering is skipped, but caret logic is still checked.
-				nvgSave(vg);
-				forEachCharCaretLogic(vg, characterIndex, lineNumber, advanceX, lineY, adjustedClickY, 0, fontHeight);
-				nvgRestore(vg);
+				//Escape sequences inside of a span don't override its formatting
+				if (hasStyleSpans) {
+					applySpanStyle(context);
+				}
 			}
 
 			// add this character to total characters rendered
 			totalCharacters++;
 		}
 		
+		if (runStart != -1) {
+			advanceX = renderRun(vg, lineNumber, text, runStart, text.length(), startIndex, advanceX, lineY, adjustedClickY, fontHeight);
+		}
+		
+		//Go back to the escape sequence formatting so that the spans don't carry over into the next line
+		if (hasStyleSpans) {
+			setSpanStyle(context, null, null);
+		}
+		
 		/*
 		 * Underline
 		 */
@@ -195,21 +264,272 @@ public class TextAreaContentHandler {
 		return totalCharacters;
 	}
 	
-	public float calculateMaxAdvance(NanoVGContext context, float width, Font font, ArrayList<String> lines) {
+	/**
+	 * Renders a single character on its own, processing any escape sequence or replacement it has. This is used for escape sequences, 
+	 * skipped characters (e.g. the HEX values of color sequences), and replaced characters such as tabs.
+	 * 
+	 * @return the advance after the character
+	 */
+	private float renderCharacter(NanoVGContext context, long vg, int lineNumber, char character, int characterIndex, float advanceX, float lineY, float adjustedClickY, float fontHeight) {
+		//Render the caret
+		if (caret == characterIndex) {
+			renderCaret(vg, advanceX, lineY, fontHeight);
+		}
+
+		String c = checkEscapeSequences(context, characterIndex, character);
+		
+		if (!SKIPPING_ENABLED) {
+			skipsRequested = 0;
+		}
+
+		if (skipsRequested == 0) {
+
+			// save state so that text formatting commands don't carry over into the next rendering
+			nvgSave(vg);
+			
+			// records data to be used for rendering the highlighted segments of the text
+			highlightRenderLogic(vg, advanceX, lineY, characterIndex);
+	
+			// render text
+			float bAdvanceX = advanceX;
+			advanceX = nvgText(vg, advanceX, lineY, c);
+			
+			// caret systems
+			if (widget.getInputSettings().isCaretEnabled()) {
+				forEachCharCaretLogic(vg, characterIndex, lineNumber, bAdvanceX, lineY, adjustedClickY, (advanceX - bAdvanceX), fontHeight);
+			}
+			
+			// pop state
+			nvgRestore(vg);
+		} else {
+			skipsRequested--;
+			
+			//Character rendering is skipped, but caret logic is still checked.
+			nvgSave(vg);
+			forEachCharCaretLogic(vg, characterIndex, lineNumber, advanceX, lineY, adjustedClickY, 0, fontHeight);
+			nvgRestore(vg);
+		}
+		
+		return advanceX;
+	}
+	
+	/**
+	 * Renders a run of plain characters (see <code>isPlainCharacter()</code>) with one <code>nvgText()</code> call.
+	 * <br><br>
+	 * If the caret is being moved, or the caret/highlighting indices fall within the run, the glyph positions of the run are queried so that the 
+	 * per-character caret and highlighting logic still works with exact coordinates. Otherwise no per-character work is done at all.
+	 * 
+	 * @param start - the index of the first character of the run in the line
+	 * @param end - the index after the last character of the run in the line
+	 * @param startIndex - the index of the first character of the line in the text
+	 * @return the advance after the run
+	 */
+	private float renderRun(long vg, int lineNumber, String text, int start, int end, int startIndex, float advanceX, float lineY, float adjustedClickY, float fontHeight) {
+		String run = text.substring(start, end);
+		
+		int runStartIndex = startIndex + start;
+		int runEndIndex = startIndex + end;
+		
+		boolean caretEnabled = widget.getInputSettings().isCaretEnabled();
+		boolean caretInRun = (caret >= runStartIndex && caret < runEndIndex);
+		
+		boolean needsGlyphPositions = (caretEnabled && updateCaret) || caretInRun
+				|| (getHighlightStartIndex() >= runStartIndex && getHighlightStartIndex() < runEndIndex)
+				|| (getHighlightEndIndex() >= runStartIndex && getHighlightEndIndex() < runEndIndex);
+		
+		if (needsGlyphPositions) {
+			calculateRunCharacterPositions(vg, run, advanceX, lineY);
+		}
+		
+		//The caret is rendered before the text, same as it is for single characters
+		if (caretInRun) {
+			renderCaret(vg, runCharacterX[caret - runStartIndex], lineY, fontHeight);
+		}
+		
+		// save state so that text formatting commands don't carry over into the next rendering
+		nvgSave(vg);
+		
+		// the whole run shares the same highlighting state, so the first character decides the color tweak
+		highlightRenderLogic(vg, advanceX, lineY, runStartIndex);
+		
+		float endX = nvgText(vg, advanceX, lineY, run);
+		
+		if (needsGlyphPositions) {
+			for (int j = 0; j < run.length(); j++) {
+				int characterIndex = runStartIndex + j;
+				
+				float x = runCharacterX[j];
+				float nextX = (j + 1 < run.length() ? runCharacterX[j + 1] : endX);
+				
+				recordHighlightPositions(x, lineY, characterIndex);
+				
+				if (caretEnabled) {
+					forEachCharCaretLogic(vg, characterIndex, lineNumber, x, lineY, adjustedClickY, (nextX - x), fontHeight);
+				}
+			}
+		}
+		
+		nvgRestore(vg);
+		
+		return endX;
+	}
+	
+	/**
+	 * Fills <code>runCharacterX</code> with the x position of each character of the run, using <code>nvgTextGlyphPositions()</code>.
+	 * <br><br>
+	 * NanoVG gives one glyph position per codepoint, so both halves of a surrogate pair share the position of their glyph.
+	 */
+	private void calculateRunCharacterPositions(long vg, String run, float x, float y) {
+		int length = run.length();
+		
+		if (glyphPositions == null || glyphPositions.capacity() < length) {
+			glyphPositions = NVGGlyphPosition.create(Math.max(length, runCharacterX.length));
+			runCharacterX = new float[glyphPositions.capacity()];
+		}
+		
+		glyphPositions.clear();
+		int glyphCount = nvgTextGlyphPositions(vg, x, y, run, glyphPositions);
+		
+		int glyph = 0;
+		
+		for (int j = 0; j < length; j++) {
+			if (glyph < glyphCount) {
+				x = glyphPositions.get(glyph).x();
+			}
+			
+			runCharacterX[j] = x;
+			
+			if (!Character.isHighSurrogate(run.charAt(j)) || j + 1 >= length || !Character.isLowSurrogate(run.charAt(j + 1))) {
+				glyph++;
+			}
+		}
+	}
+	
+	/*
+	 * 
+	 * Style span rendering
+	 * 
+	 */
+	
+	/**
+	 * Finds the spans of each StyleSpanList at the start of a line and applies their formatting.
+	 */
+	private void beginStyleSpans(NanoVGContext context, ArrayList<StyleSpanList> styleSpans, int startIndex) {
+		if (spanCursors.length < styleSpans.size()) {
+			spanCursors = new int[styleSpans.size()];
+		}
+		
+		for (int i = 0; i < styleSpans.size(); i++) {
+			spanCursors[i] = styleSpans.get(i).getFirstSpanEndingAfter(startIndex);
+		}
+		
+		updateStyleSpans(context, styleSpans, startIndex);
+	}
+	
+	/**
+	 * @return true if a span starts or ends at the character index
+	 */
+	private boolean isStyleSpanBoundary(ArrayList<StyleSpanList> styleSpans, int characterIndex) {
+		for (int i = 0; i < styleSpans.size(); i++) {
+			StyleSpanList spans = styleSpans.get(i);
+			int cursor = spanCursors[i];
+			
+			if (cursor < spans.size() && (spans.getStart(cursor) == characterIndex || spans.getEnd(cursor) == characterIndex)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Moves the span cursors up to the character index and applies the combined formatting of the spans containing it. StyleSpanLists added to the widget 
+	 * later take priority over earlier ones.
+	 */
+	private void updateStyleSpans(NanoVGContext context, ArrayList<StyleSpanList> styleSpans, int characterIndex) {
+		FontStyle fontStyle = null;
+		ClearColor fill = null;
+		
+		for (int i = 0; i < styleSpans.size(); i++) {
+			StyleSpanList spans = styleSpans.get(i);
+			
+			while (spanCursors[i] < spans.size() && spans.getEnd(spanCursors[i]) <= characterIndex) {
+				spanCursors[i]++;
+			}
+			
+			int cursor = spanCursors[i];
+			
+			if (cursor < spans.size() && spans.getStart(cursor) <= characterIndex) {
+				TextStyle style = spans.getStyle(cursor);
+				
+				if (style.getFontStyle() != null) {
+					fontStyle = style.getFontStyle();
+				}
+				
+				if (style.getFill() != null) {
+					fill = style.getFill();
+				}
+			}
+		}
+		
+		setSpanStyle(context, fontStyle, fill);
+	}
+	
+	/**
+	 * Sets the formatting applied by the spans. Anything set to null returns to the escape sequence formatting.
+	 */
+	private void setSpanStyle(NanoVGContext context, FontStyle fontStyle, ClearColor fill) {
+		if (fontStyle == spanTextStyle && fill == spanTextFill) {
+			return;
+		}
+		
+		if (fontStyle != spanTextStyle) {
+			FontStyle style = (fontStyle != null ? fontStyle : baseTextStyle);
+			widget.getFont().configureNVG(context, widget.getFontSize(), TextAreaWidget.TEXT_AREA_ALIGNMENT, style);
+			currentTextStyle = style;
+		}
+		
+		if (fill != spanTextFill && (fill != null || baseTextFill != null)) {
+			ClearColor color = (fill != null ? fill : baseTextFill);
+			nvgFillColor(context.get(), color.getNVG());
+			setCurrentTextFill(color);
+		}
+		
+		spanTextStyle = fontStyle;
+		spanTextFill = fill;
+	}
+	
+	/**
+	 * Applies the formatting of the spans again, after an escape sequence may have changed it.
+	 */
+	private void applySpanStyle(NanoVGContext context) {
+		if (spanTextStyle != null) {
+			widget.getFont().configureNVG(context, widget.getFontSize(), TextAreaWidget.TEXT_AREA_ALIGNMENT, spanTextStyle);
+			currentTextStyle = spanTextStyle;
+		}
+		
+		if (spanTextFill != null) {
+			nvgFillColor(context.get(), spanTextFill.getNVG());
+			setCurrentTextFill(spanTextFill);
+		}
+	}
+	
+	/**
+	 * @return true if the character is rendered as-is, meaning that it isn't an escape sequence or a character that gets replaced (e.g. tabs)
+	 */
+	private boolean isPlainCharacter(char c) {
+		return !specialCharacters.get(c);
+	}
+	
+	public float calculateMaxAdvance(NanoVGContext context, float width, Font font, List<String> lines) {
 		//Calculate the max advance every time the text changes.
 		float maxAdvance = width;
 		int characterIndex = 0;
 		
 		for (int i = 0; i < lines.size(); i++) {
 			String l = lines.get(i);
-			String s = "";
-			
-			for (int j = 0; j < l.length(); j++) {
-				s += checkEscapeSequences(context, characterIndex, l.charAt(j));
-				characterIndex++;
-			}
-			
-			float a = font.getTextBounds(context, widget.tempVec, s).x();
+			float a = calculateLineAdvance(context, font, l, characterIndex);
+			characterIndex += l.length();
 
 			if (a > maxAdvance) {
 				maxAdvance = a;
@@ -219,6 +539,25 @@ public class TextAreaContentHandler {
 		return maxAdvance;
 	}
 	
+	/**
+	 * Calculates the rendered advance of a single line, with escape sequences processed.
+	 * 
+	 * @param context
+	 * @param font
+	 * @param line - the line to measure
+	 * @param characterIndex - the index of the first character of the line in the text of the widget
+	 * @return the advance of the line
+	 */
+	public float calculateLineAdvance(NanoVGContext context, Font font, String line, int characterIndex) {
+		StringBuilder s = new StringBuilder(line.length());
+		
+		for (int j = 0; j < line.length(); j++) {
+			s.append(checkEscapeSequences(context, characterIndex + j, line.charAt(j)));
+		}
+		
+		return font.getTextBounds(context, widget.tempVec, s.toString()).x();
+	}
+	
 	/**
 	 * Processes the given char and returns the modified version from the replacement hashmap if applicable.
 	 * 
@@ -373,37 +712,35 @@ public class TextAreaContentHandler {
 		 * Render the caret
 		 */
 		
-		ClearColor caretFill = currentTextFill.alpha(caretFader);
-		
-		caretFill.tallocNVG(fill -> {
-			float defaultLineThickness = 2.0f;
+		//currentTextFill is a copy, so it can be changed freely
+		NVGColor fill = currentTextFill.alpha(caretFader).getNVG();
+		float defaultLineThickness = 2.0f;
+		
+		switch(this.currentTextStyle) {
+		case BOLD:
+			WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness * 2f, fontHeight);
+			break;
+		case ITALIC:
+			float thickness = defaultLineThickness;
+			float offset = 2.0f;
 			
-			switch(this.currentTextStyle) {
-			case BOLD:
-				WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness * 2f, fontHeight);
-				break;
-			case ITALIC:
-				float thickness = defaultLineThickness;
-				float offset = 2.0f;
-				
-				float topX = x + offset;
-				float topX2 = x + offset + thickness;
-				float topY = y;
-				float botY = y + fontHeight;
-				float botX = x;
-				float botX2 = x + thickness;
-				
-				WidgetUtils.nvgShape(vg, fill, topX, topY, topX2, topY, botX2, botY, botX, botY);
-				break;
-			case LIGHT:
-				WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness/2f, fontHeight);
-				break;
-			case REGULAR:
-			default:
-				WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness, fontHeight);
-				break;
-			}
-		});
+			float topX = x + offset;
+			float topX2 = x + offset + thickness;
+			float topY = y;
+			float botY = y + fontHeight;
+			float botX = x;
+			float botX2 = x + thickness;
+			
+			WidgetUtils.nvgShape(vg, fill, topX, topY, topX2, topY, botX2, botY, botX, botY);
+			break;
+		case LIGHT:
+			WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness/2f, fontHeight);
+			break;
+		case REGULAR:
+		default:
+			WidgetUtils.nvgRect(vg, fill, x, y, defaultLineThickness, fontHeight);
+			break;
+		}
 		
 		nvgRestore(vg);
 	}
@@ -487,11 +824,28 @@ public class TextAreaContentHandler {
 	 * @param characterIndex
 	 */
 	private void highlightRenderLogic(long vg, float x, float y, int characterIndex) {
-		
+		recordHighlightPositions(x, y, characterIndex);
+
 		/*
-		 * Record highlight positions
+		 * If this character is highlighted, tweak the color if it matches the highlight color.
 		 */
 		
+		if (isContentHighlighted(characterIndex) && widget.getHighlightFill().rgbMatches(currentTextFill)) {
+			//The divided color comes from the shared pool if the highlight fill is immutable (the default), and copying it keeps NVGColors from being created per character
+			highlightedTextFill.set(widget.getHighlightFill().divide(2.5f));
+			nvgFillColor(vg, highlightedTextFill.getNVG());
+		}
+		
+	}
+	
+	/**
+	 * Records the rendering location of the character if it matches one of the highlight indices.
+	 * 
+	 * @param x
+	 * @param y
+	 * @param characterIndex
+	 */
+	private void recordHighlightPositions(float x, float y, int characterIndex) {
 		if (characterIndex == getHighlightStartIndex()) {
 			if (highlightStartPos == null) {
 				highlightStartPos = new Vector2f(x, y);
@@ -507,17 +861,6 @@ public class TextAreaContentHandler {
 				highlightEndPos.set(x, y);
 			}
 		}
-
-		/*
-		 * If this character is highlighted, tweak the color if it matches the highlight color.
-		 */
-		
-		if (isContentHighlighted(characterIndex) && widget.getHighlightFill().rgbMatches(currentTextFill)) {
-			widget.getHighlightFill().divide(2.5f).tallocNVG(fill -> {
-				nvgFillColor(vg, fill);
-			});
-		}
-		
 	}
 	
 	/**
@@ -534,23 +877,23 @@ public class TextAreaContentHandler {
 		nvgSave(vg);
 		
 		if (widget.getInputSettings().isHighlightingEnabled() && isContentHighlighted()) {
-			widget.getHighlightFill().tallocNVG(fill -> {
-				for (float y = highlightStartPos.y; y <= highlightEndPos.y; y += fontHeight) {
-					float x = textContentX;
-					float w = textContentW - 1;
-					float h = fontHeight + 1;
-					
-					if (y == highlightStartPos.y) {
-						x = highlightStartPos.x;
-					}
-					
-					if (y == highlightEndPos.y) {
-						w = (highlightEndPos.x - x);
-					}
-					
-					WidgetUtils.nvgRect(vg, fill, x, y, w, h);
+			NVGColor fill = widget.getHighlightFill().getNVG();
+			
+			for (float y = highlightStartPos.y; y <= highlightEndPos.y; y += fontHeight) {
+				float x = textContentX;
+				float w = textContentW - 1;
+				float h = fontHeight + 1;
+				
+				if (y == highlightStartPos.y) {
+					x = highlightStartPos.x;
+				}
+				
+				if (y == highlightEndPos.y) {
+					w = (highlightEndPos.x - x);
 				}
-			});
+				
+				WidgetUtils.nvgRect(vg, fill, x, y, w, h);
+			}
 		}
 		
 		nvgRestore(vg);
@@ -605,7 +948,7 @@ public class TextAreaContentHandler {
 
 	public void deleteHighlightedContent() {
 		if (isContentHighlighted()) {
-			widget.getTextBuilder().delete(getHighlightStartIndex(), getHighlightEndIndex());
+			widget.getTextBuffer().delete(getHighlightStartIndex(), getHighlightEndIndex());
 			setCaretPosition(getHighlightStartIndex());
 			resetHighlighting();
 			widget.requestRefresh();
@@ -614,7 +957,7 @@ public class TextAreaContentHandler {
 	}
 	
 	public void insertStringAtPosition(int position, String string) {
-		StringBuilder s = widget.getTextBuilder();
+		TextBuffer s = widget.getTextBuffer();
 		int characterLimit = widget.getInputSettings().getCharacterLimit();
 		
 		if (s.length() + string.length() < characterLimit) {
@@ -635,7 +978,7 @@ public class TextAreaContentHandler {
 	public void insertCharacterAtCaret(String character) {
 		editHistory.notifyEditing(widget, this);
 		
-		StringBuilder textBuilder = widget.getTextBuilder();
+		TextBuffer textBuilder = widget.getTextBuffer();
 		
 		if (caret >= 0 && caret <= textBuilder.length()) {
 			deleteHighlightedContent();
@@ -654,13 +997,14 @@ public class TextAreaContentHandler {
 	}
 	
 	public int backspace(int position, boolean requestRefresh) {
-		StringBuilder textBuilder = widget.getTextBuilder();
+		TextBuffer textBuilder = widget.getTextBuffer();
 		boolean manualFormattingEnabled = widget.getInputSettings().isManualFormattingEnabled();
+		boolean containsEscapeSequences = widget.containsEscapeSequences();
 		
 		int indicesMoved = 0;
 		int charIndex = position-1;
 		
-		while(!manualFormattingEnabled && position > 0 && isCharEscapeSequence(textBuilder, charIndex)){
+		while(!manualFormattingEnabled && containsEscapeSequences && position > 0 && isCharEscapeSequence(textBuilder, charIndex)){
 			position--;
 			charIndex = position-1;
 			indicesMoved++;
@@ -673,7 +1017,7 @@ public class TextAreaContentHandler {
 			 * Backspace special cases for escape sequences
 			 */
 			
-			if (manualFormattingEnabled) {
+			if (manualFormattingEnabled && containsEscapeSequences) {
 				Vector2i colorSequence = colorEscapeSequenceToLeft(textBuilder, charIndex);
 
 				if (colorSequence != null) {
@@ -694,7 +1038,9 @@ public class TextAreaContentHandler {
 				charsDeleted = 1;
 			}
 			
-			deleteResetEscapeSequenceAhead(textBuilder, charIndex);
+			if (containsEscapeSequences) {
+				deleteResetEscapeSequenceAhead(textBuilder, charIndex);
+			}
 			
 			if (requestRefresh) {
 				widget.requestRefresh();
@@ -743,7 +1089,7 @@ public class TextAreaContentHandler {
 		int start = getHighlightStartIndex();
 		int end = getHighlightEndIndex();
 		
-		widget.getTextBuilder().delete(start, end);
+		widget.getTextBuffer().delete(start, end);
 		widget.requestRefresh();
 		
 		setCaretPosition(start);
@@ -755,7 +1101,7 @@ public class TextAreaContentHandler {
 		int start = getHighlightStartIndex();
 		int end = getHighlightEndIndex();
 		
-		String s = widget.getTextBuilder().substring(start, end);
+		String s = widget.getTextBuffer().substring(start, end);
 
 		window.setClipboardString(getProcessedText(s));
 	}
@@ -792,7 +1138,12 @@ public class TextAreaContentHandler {
 			return;
 		}
 		
-		if (insideSequence(escapeSequence, widget.getTextBuilder(), caret)) {
+		if (widget.getInputSettings().isSpanFormattingEnabled()) {
+			styleSelectionSpans(escapeSequence);
+			return;
+		}
+		
+		if (insideSequence(escapeSequence, widget.getTextBuffer(), caret)) {
 			return;
 		}
 		
@@ -810,12 +1161,39 @@ public class TextAreaContentHandler {
 		}
 		
 
-		widget.getTextBuilder().insert(start, escapeSequence);
-		widget.getTextBuilder().insert(end + 1, ESCAPE_SEQUENCE_RESET);
+		widget.getTextBuffer().insert(start, escapeSequence);
+		widget.getTextBuffer().insert(end + 1, ESCAPE_SEQUENCE_RESET);
 
 		widget.requestRefresh();
 	}
 	
+	/**
+	 * Applies the formatting of the escape sequence to the selection using the formatting spans of the widget. Since spans can't be empty, nothing happens 
+	 * if there's no selection.
+	 */
+	private void styleSelectionSpans(char escapeSequence) {
+		if (!isContentHighlighted()) {
+			return;
+		}
+		
+		TextStyle style = TextStyle.fromEscapeSequence(escapeSequence, null);
+		
+		if (style != null) {
+			StyleSpanList formatting = widget.getFormatting();
+			int start = getHighlightStartIndex();
+			int end = getHighlightEndIndex();
+			
+			//Recorded in the edit history so that the formatting can be undone like the text
+			editHistory.notifyEditing(widget, this);
+			StyleSpanList before = formatting.copyRange(start, end);
+			
+			formatting.applyStyle(start, end, style);
+			
+			editHistory.recordStyleEdit(formatting, start, end, before, formatting.copyRange(start, end));
+			widget.requestRefresh();
+		}
+	}
+	
 	public void undo() {
 		editHistory.undo(widget, this);
 	}
@@ -834,7 +1212,7 @@ public class TextAreaContentHandler {
 			 * Caret offset for color sequences
 			 */
 			
-			Vector2i colorSequence = colorEscapeSequenceToLeft(widget.getTextBuilder(), caret);
+			Vector2i colorSequence = (widget.containsEscapeSequences() ? colorEscapeSequenceToLeft(widget.getTextBuffer(), caret) : null);
 			
 			if (colorSequence != null) {
 				int offset = (caret - colorSequence.x());
@@ -854,7 +1232,7 @@ public class TextAreaContentHandler {
 	}
 	
 	public void moveCaretRight() {
-		StringBuilder s = widget.getTextBuilder();
+		TextBuffer s = widget.getTextBuffer();
 		
 		if (caret < s.length()) {
 			resetHighlighting();
@@ -946,7 +1324,7 @@ public class TextAreaContentHandler {
 	 * @param s - the string to process
 	 * @return
 	 */
-	public String getProcessedText(String s) {
+	public String getProcessedText(CharSequence s) {
 		StringBuilder copy = new StringBuilder();
 		
 		for (int i = 0; i < s.length(); i++) {
@@ -977,6 +1355,13 @@ public class TextAreaContentHandler {
 		return escapeSequenceReplacements;
 	}
 	
+	/**
+	 * @return the TextAreaHistory that records the edits made to the TextBuffer of the TextAreaWidget for undo/redo
+	 */
+	public TextAreaHistory getEditHistory() {
+		return editHistory;
+	}
+	
 	private void offsetCaret(int offset, boolean allowLeftMovement) {
 		setCaretPosition(caret + offset, allowLeftMovement);
 		/*System.err.println("offset: " + offset + " (" + caret + ")");
@@ -997,8 +1382,8 @@ public class TextAreaContentHandler {
 		caret = newCaret;
 		
 		//If manual formatting is disabled, make sure the caret never lands on an escape sequence.
-		if (!widget.getInputSettings().isManualFormattingEnabled()) {
-			StringBuilder s = widget.getTextBuilder();
+		if (!widget.getInputSettings().isManualFormattingEnabled() && widget.containsEscapeSequences()) {
+			TextBuffer s = widget.getTextBuffer();
 
 			if (movingRight || !allowLeftMovement) {
 				//Skip right if moving the caret right
@@ -1026,14 +1411,20 @@ public class TextAreaContentHandler {
 	}
 
 	void notifyTextFillChanged(ClearColor newTextFill) {
+		setCurrentTextFill(newTextFill);
+		baseTextFill = newTextFill;
+	}
+	
+	void notifyTextStyleChanged(FontStyle fontStyle) {
+		currentTextStyle = fontStyle;
+		baseTextStyle = fontStyle;
+	}
+	
+	private void setCurrentTextFill(ClearColor newTextFill) {
 		if (currentTextFill == null) {
 			currentTextFill = newTextFill.copy();
 		} else if (!newTextFill.rgbMatches(currentTextFill)) {
 			currentTextFill.red(newTextFill.getRed()).green(newTextFill.getGreen()).blue(newTextFill.getBlue());
 		}
 	}
-	
-	void notifyTextStyleChanged(FontStyle fontStyle) {
-		currentTextStyle = fontStyle;
-	}
 }
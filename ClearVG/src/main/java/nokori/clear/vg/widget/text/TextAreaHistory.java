@@ -1,69 +1,543 @@
 package nokori.clear.vg.widget.text;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Records the edits made to the TextBuffer of a TextAreaWidget so that they can be undone and redone. Instead of storing copies of the text, only the edits
+ * themselves are stored (an insertion or deletion at an offset, along with the text involved), so the memory used grows with the size of the edits rather than
+ * the size of the text. Changes made to the formatting spans of the widget are recorded the same way (see <code>recordStyleEdit()</code>), and deletions keep the
+ * formatting of the deleted text so that undoing them restores it too (see <code>setFormatting()</code>).
+ * <br><br>
+ * Edits are grouped into EditStates. A new state is started when the user begins typing after not editing for <code>STATE_SAVE_TIME</code>, and undo/redo
+ * work on whole states. Once the recorded edits take up more than the memory limit, the oldest states are forgotten.
+ */
+public class TextAreaHistory implements TextBuffer.EditListener {
 
-public class TextAreaHistory {
-	
-	private Stack<TextState> undoStack = new Stack<TextState>();
-	private Stack<TextState> redoStack = new Stack<TextState>();
-	
 	private static final long STATE_SAVE_TIME = 2000L; //Two seconds
-	
+
+	//Rough size of an Edit object, used for counting memory
+	private static final long EDIT_OVERHEAD = 48L;
+
+	//Rough size of a span in a StyleEdit
+	private static final long SPAN_OVERHEAD = 12L;
+
+	public static final long DEFAULT_MEMORY_LIMIT = 16L * 1024L * 1024L;
+
+	//The first state in each deque is the most recent one
+	private ArrayDeque<EditState> undoStack = new ArrayDeque<EditState>();
+	private ArrayDeque<EditState> redoStack = new ArrayDeque<EditState>();
+
 	private long lastEditTime = -1;
 
-	private static class TextState {
-		StringBuilder textBuilder;
-		int caret;
-		
-		public TextState(StringBuilder textBuilder, int caret) {
-			this.textBuilder = textBuilder;
-			this.caret = caret;
-		}
-		
-		public void apply(TextAreaWidget widget, TextAreaContentHandler textAreaContentHandler) {
-			StringBuilder s = null;
-			int characterLimit = widget.getInputSettings().getCharacterLimit();
-			
-			if (textBuilder.length() > characterLimit) {
-				s = new StringBuilder(widget.getTextBuilder().substring(0, characterLimit));
+	//The state that new edits are added to (the most recent undo state, or null if the next edit should start a new one)
+	private EditState currentState = null;
+
+	private long memoryUsage = 0;
+	private long memoryLimit = DEFAULT_MEMORY_LIMIT;
+
+	//Edits aren't recorded while undoing/redoing, or while a batch is open
+	private boolean applying = false;
+	private String batchText = null;
+
+	//The formatting spans that deletions keep a copy of (see setFormatting())
+	private StyleSpanList formatting = null;
+
+	private static abstract class Edit {
+		public abstract void undo(TextBuffer textBuffer);
+
+		public abstract void redo(TextBuffer textBuffer);
+
+		/**
+		 * @return true if this edit can currently be undone on the given TextBuffer
+		 */
+		public abstract boolean canUndo(TextBuffer textBuffer);
+	}
+
+	private static class TextEdit extends Edit {
+		boolean insertion;
+		int offset;
+		private StringBuilder text;
+
+		//The StyleSpanList that the formatting of deleted text is restored to
+		private StyleSpanList formatting;
+
+		//The formatting of deleted text, relative to the start of the text (null if it had none)
+		private StyleSpanList spans = null;
+
+		//Text deleted to the left (backspacing) is appended in reverse, and put back in order once the text is needed (see getText())
+		private boolean reversed = false;
+
+		public TextEdit(boolean insertion, int offset, String text, StyleSpanList formatting) {
+			this.insertion = insertion;
+			this.offset = offset;
+			this.text = new StringBuilder(text);
+			this.formatting = formatting;
+		}
+
+		public int length() {
+			return text.length();
+		}
+
+		/**
+		 * Adds text after the text of this edit.
+		 *
+		 * @param string
+		 * @param stringSpans - the formatting of the string, relative to its start (or null)
+		 */
+		public void append(String string, StyleSpanList stringSpans) {
+			addSpans(stringSpans, length());
+			getText().append(string);
+		}
+
+		/**
+		 * Adds text before the text of this edit, without shifting the text that's already there.
+		 *
+		 * @param string
+		 * @param stringSpans - the formatting of the string, relative to its start (or null)
+		 */
+		public void prepend(String string, StyleSpanList stringSpans) {
+			if (spans != null) {
+				spans.textInserted(0, string);
+			}
+
+			addSpans(stringSpans, 0);
+
+			if (!reversed) {
+				reverse(text);
+				reversed = true;
+			}
+
+			for (int i = string.length() - 1; i >= 0; i--) {
+				text.append(string.charAt(i));
+			}
+		}
+
+		private void addSpans(StyleSpanList stringSpans, int start) {
+			if (stringSpans == null) {
+				return;
+			}
+
+			if (spans == null) {
+				spans = new StyleSpanList();
+			}
+
+			for (int i = 0; i < stringSpans.size(); i++) {
+				spans.add(stringSpans.getStart(i) + start, stringSpans.getEnd(i) + start, stringSpans.getStyle(i));
+			}
+		}
+
+		/**
+		 * @return the text of this edit, in order
+		 */
+		public StringBuilder getText() {
+			if (reversed) {
+				reverse(text);
+				reversed = false;
+			}
+
+			return text;
+		}
+
+		/**
+		 * Reverses the characters one by one (unlike <code>StringBuilder.reverse()</code>, which keeps surrogate pairs in order), so that reversing twice always
+		 * gives back the same text.
+		 */
+		private static void reverse(StringBuilder text) {
+			for (int i = 0, j = text.length() - 1; i < j; i++, j--) {
+				char c = text.charAt(i);
+				text.setCharAt(i, text.charAt(j));
+				text.setCharAt(j, c);
+			}
+		}
+
+		@Override
+		public void undo(TextBuffer textBuffer) {
+			if (insertion) {
+				textBuffer.delete(offset, offset + length());
+			} else {
+				textBuffer.insert(offset, getText());
+
+				if (spans != null) {
+					StyleSpanList restored = new StyleSpanList();
+
+					for (int i = 0; i < spans.size(); i++) {
+						restored.add(spans.getStart(i) + offset, spans.getEnd(i) + offset, spans.getStyle(i));
+					}
+
+					formatting.replaceRange(offset, offset + length(), restored);
+				}
+			}
+		}
+
+		@Override
+		public void redo(TextBuffer textBuffer) {
+			if (insertion) {
+				textBuffer.insert(offset, getText());
+			} else {
+				textBuffer.delete(offset, offset + length());
+			}
+		}
+
+		@Override
+		public boolean canUndo(TextBuffer textBuffer) {
+			if (insertion) {
+				return (offset + length() <= textBuffer.length() && textBuffer.substring(offset, offset + length()).contentEquals(getText()));
 			} else {
-				s = new StringBuilder(textBuilder);
+				return (offset <= textBuffer.length());
 			}
-			
-			
-			widget.setTextBuilder(s);
-			
-			textAreaContentHandler.setCaretPosition(caret);
 		}
 	}
-	
+
+	/**
+	 * A change to the formatting of a range of the text, stored as the spans inside of the range before and after the change.
+	 */
+	private static class StyleEdit extends Edit {
+		StyleSpanList spans;
+		int start;
+		int end;
+		StyleSpanList before;
+		StyleSpanList after;
+
+		public StyleEdit(StyleSpanList spans, int start, int end, StyleSpanList before, StyleSpanList after) {
+			this.spans = spans;
+			this.start = start;
+			this.end = end;
+			this.before = before;
+			this.after = after;
+		}
+
+		@Override
+		public void undo(TextBuffer textBuffer) {
+			spans.replaceRange(start, end, before);
+		}
+
+		@Override
+		public void redo(TextBuffer textBuffer) {
+			spans.replaceRange(start, end, after);
+		}
+
+		@Override
+		public boolean canUndo(TextBuffer textBuffer) {
+			return (end <= textBuffer.length());
+		}
+	}
+
+	private static class EditState {
+		ArrayList<Edit> edits = new ArrayList<Edit>();
+		int caretBefore;
+		int caretAfter;
+		long memoryUsage = 0;
+
+		public EditState(int caretBefore) {
+			this.caretBefore = caretBefore;
+			this.caretAfter = caretBefore;
+		}
+	}
+
 	public void notifyEditing(TextAreaWidget widget, TextAreaContentHandler contentHandler) {
 		long currentTime = System.currentTimeMillis();
-		
-		if (lastEditTime == -1 || undoStack.isEmpty() || (currentTime - lastEditTime) >= STATE_SAVE_TIME) {
-			pushState(undoStack, widget, contentHandler);
+
+		if (lastEditTime == -1 || currentState == null || (currentTime - lastEditTime) >= STATE_SAVE_TIME) {
+			startState(contentHandler.getCaretPosition());
 		}
-		
+
 		lastEditTime = currentTime;
 	}
-	
-	private void pushState(Stack<TextState> stack, TextAreaWidget widget, TextAreaContentHandler contentHandler) {
-		stack.push(new TextState(new StringBuilder(widget.getTextBuilder()), contentHandler.getCaretPosition()));
+
+	private void startState(int caret) {
+		currentState = new EditState(caret);
+		undoStack.push(currentState);
 	}
-	
+
+	/*
+	 *
+	 * Recording
+	 *
+	 */
+
+	@Override
+	public void textInserted(int offset, String string) {
+		if (applying || batchText != null) return;
+
+		recordEdit(true, offset, string, null);
+	}
+
+	@Override
+	public void textDeleted(int offset, String string) {
+		if (applying || batchText != null) return;
+
+		recordEdit(false, offset, string, copyFormatting(offset, offset + string.length()));
+	}
+
+	/**
+	 * @return the formatting spans inside of the range, relative to its start, or null if there aren't any
+	 */
+	private StyleSpanList copyFormatting(int start, int end) {
+		if (formatting == null) {
+			return null;
+		}
+
+		StyleSpanList copy = null;
+
+		for (int i = formatting.getFirstSpanEndingAfter(start); i < formatting.size() && formatting.getStart(i) < end; i++) {
+			if (copy == null) {
+				copy = new StyleSpanList();
+			}
+
+			copy.add(Math.max(formatting.getStart(i), start) - start, Math.min(formatting.getEnd(i), end) - start, formatting.getStyle(i));
+		}
+
+		return copy;
+	}
+
+	private void recordEdit(boolean insertion, int offset, String string, StyleSpanList spans) {
+		long spanMemory = (spans != null ? spans.size() * SPAN_OVERHEAD : 0L);
+
+		//A new edit replaces anything that was undone
+		clearRedoStack();
+
+		if (currentState == null) {
+			startState(offset);
+		}
+
+		ArrayList<Edit> edits = currentState.edits;
+		Edit lastEdit = (edits.isEmpty() ? null : edits.get(edits.size() - 1));
+		TextEdit last = (lastEdit instanceof TextEdit ? (TextEdit) lastEdit : null);
+
+		if (last != null && last.insertion == insertion) {
+			//Typing continues the last insertion
+			if (insertion && offset == last.offset + last.length()) {
+				last.append(string, spans);
+				addMemoryUsage(string.length() * 2L);
+				return;
+			}
+
+			//Backspacing continues the last deletion to the left, deleting forward continues it to the right
+			if (!insertion && offset + string.length() == last.offset) {
+				last.prepend(string, spans);
+				last.offset = offset;
+				addMemoryUsage(string.length() * 2L + spanMemory);
+				return;
+			}
+
+			if (!insertion && offset == last.offset) {
+				last.append(string, spans);
+				addMemoryUsage(string.length() * 2L + spanMemory);
+				return;
+			}
+		}
+
+		TextEdit edit = new TextEdit(insertion, offset, string, formatting);
+		edit.addSpans(spans, 0);
+		edits.add(edit);
+		addMemoryUsage(EDIT_OVERHEAD + string.length() * 2L + spanMemory);
+	}
+
+	/**
+	 * Records a change made to the formatting of the given range, so that it can be undone along with the text edits around it. The spans are copied with
+	 * <code>StyleSpanList.copyRange()</code>.
+	 *
+	 * @param spans - the StyleSpanList that was changed
+	 * @param start - inclusive
+	 * @param end - exclusive
+	 * @param before - the spans inside of the range before the change
+	 * @param after - the spans inside of the range after the change
+	 */
+	public void recordStyleEdit(StyleSpanList spans, int start, int end, StyleSpanList before, StyleSpanList after) {
+		if (applying || start >= end) return;
+
+		clearRedoStack();
+
+		if (currentState == null) {
+			startState(start);
+		}
+
+		currentState.edits.add(new StyleEdit(spans, start, end, before, after));
+		addMemoryUsage(EDIT_OVERHEAD + (before.size() + after.size()) * SPAN_OVERHEAD);
+	}
+
+	/**
+	 * Starts a batch of edits that will be recorded as a single replacement of the changed region once <code>endBatch()</code> is called. This is used for
+	 * edits that touch a lot of the text but change little of it, such as TextAreaAutoFormatterWidget removing and re-adding all of its escape sequences.
+	 *
+	 * @param textBuffer
+	 */
+	public void beginBatch(TextBuffer textBuffer) {
+		if (applying || batchText != null) return;
+
+		batchText = textBuffer.toString();
+	}
+
+	/**
+	 * Ends the batch started with <code>beginBatch()</code> and records the difference between the text at the start of the batch and now.
+	 *
+	 * @param textBuffer
+	 */
+	public void endBatch(TextBuffer textBuffer) {
+		if (applying || batchText == null) return;
+
+		String oldText = batchText;
+		String newText = textBuffer.toString();
+		batchText = null;
+
+		int oldLength = oldText.length();
+		int newLength = newText.length();
+		int minLength = Math.min(oldLength, newLength);
+
+		int prefix = 0;
+
+		while (prefix < minLength && oldText.charAt(prefix) == newText.charAt(prefix)) {
+			prefix++;
+		}
+
+		if (prefix == oldLength && prefix == newLength) {
+			return;
+		}
+
+		int suffix = 0;
+
+		while (suffix < minLength - prefix && oldText.charAt(oldLength - 1 - suffix) == newText.charAt(newLength - 1 - suffix)) {
+			suffix++;
+		}
+
+		if (prefix < oldLength - suffix) {
+			recordEdit(false, prefix, oldText.substring(prefix, oldLength - suffix), null);
+		}
+
+		if (prefix < newLength - suffix) {
+			recordEdit(true, prefix, newText.substring(prefix, newLength - suffix), null);
+		}
+	}
+
+	/*
+	 *
+	 * Undo/Redo
+	 *
+	 */
+
 	public void undo(TextAreaWidget widget, TextAreaContentHandler textAreaContentHandler) {
-		if (!undoStack.isEmpty()) {
-			pushState(redoStack, widget, textAreaContentHandler);
-			TextState state = undoStack.pop();
-			state.apply(widget, textAreaContentHandler);
+		EditState state = undoStack.peek();
+
+		if (state == null) {
+			return;
+		}
+
+		TextBuffer textBuffer = widget.getTextBuffer();
+		ArrayList<Edit> edits = state.edits;
+
+		//If the text was changed without going through the TextBuffer (e.g. through the StringBuilder of a StringBuilderTextBuffer), the recorded edits no longer line up with it
+		if (!edits.isEmpty() && !edits.get(edits.size() - 1).canUndo(textBuffer)) {
+			System.err.println("WARNING: TextAreaHistory: the text was modified outside of its TextBuffer. Clearing the edit history.");
+			clear();
+			return;
+		}
+
+		undoStack.pop();
+		state.caretAfter = textAreaContentHandler.getCaretPosition();
+
+		applying = true;
+
+		for (int i = edits.size() - 1; i >= 0; i--) {
+			edits.get(i).undo(textBuffer);
 		}
+
+		apply(widget, textAreaContentHandler, state.caretBefore);
+		applying = false;
+
+		redoStack.push(state);
+		currentState = null;
 	}
-	
+
 	public void redo(TextAreaWidget widget, TextAreaContentHandler textAreaContentHandler) {
-		if (!redoStack.isEmpty()) {
-			pushState(undoStack, widget, textAreaContentHandler);
-			TextState state = redoStack.pop();
-			state.apply(widget, textAreaContentHandler);
+		EditState state = redoStack.poll();
+
+		if (state == null) {
+			return;
+		}
+
+		TextBuffer textBuffer = widget.getTextBuffer();
+
+		applying = true;
+
+		for (int i = 0; i < state.edits.size(); i++) {
+			state.edits.get(i).redo(textBuffer);
+		}
+
+		apply(widget, textAreaContentHandler, state.caretAfter);
+		applying = false;
+
+		undoStack.push(state);
+		currentState = null;
+	}
+
+	private void apply(TextAreaWidget widget, TextAreaContentHandler textAreaContentHandler, int caret) {
+		textAreaContentHandler.refresh();
+		widget.requestRefresh();
+
+		textAreaContentHandler.setCaretPosition(Math.min(caret, widget.getTextBuffer().length()));
+	}
+
+	/*
+	 *
+	 * Memory
+	 *
+	 */
+
+	private void addMemoryUsage(long bytes) {
+		currentState.memoryUsage += bytes;
+		memoryUsage += bytes;
+
+		//Forget the oldest states until the history fits the limit again. The state being recorded is always kept.
+		while (memoryUsage > memoryLimit && undoStack.size() > 1) {
+			memoryUsage -= undoStack.removeLast().memoryUsage;
+		}
+	}
+
+	private void clearRedoStack() {
+		while (!redoStack.isEmpty()) {
+			memoryUsage -= redoStack.pop().memoryUsage;
 		}
 	}
+
+	/**
+	 * Clears all undo/redo history.
+	 */
+	public void clear() {
+		undoStack.clear();
+		redoStack.clear();
+		currentState = null;
+		memoryUsage = 0;
+		lastEditTime = -1;
+	}
+
+	/**
+	 * Sets the formatting spans that deletions keep a copy of, so that undoing a deletion restores the formatting of the deleted text along with the text. For 
+	 * this to work, this TextAreaHistory has to be notified of deletions before the spans are (which TextAreaWidget does for its own formatting).
+	 *
+	 * @param formatting - the spans, or null to only record the text
+	 */
+	public void setFormatting(StyleSpanList formatting) {
+		this.formatting = formatting;
+	}
+
+	/**
+	 * @return the approximate amount of memory used by the recorded edits, in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * Sets the approximate amount of memory (in bytes) the recorded edits are allowed to use. Once it's exceeded, the oldest undo states are forgotten.
+	 *
+	 * @param memoryLimit
+	 */
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
 }
@@ -21,6 +21,9 @@ public class TextAreaInputSettings {
 	//Spacing commands like \n and \t aren't affected by this, however.
 	private boolean manualFormattingEnabled = true;
 	
+	//If true, formatting added by the user is stored in the formatting spans of the widget (see TextAreaWidget.getFormatting()) instead of being inserted into the text as escape sequences.
+	private boolean spanFormattingEnabled = false;
+	
 	private boolean backspaceEnabled = true;
 	private boolean tabEnabled = true;
 	
@@ -110,6 +113,14 @@ public class TextAreaInputSettings {
 		this.manualFormattingEnabled = manualFormattingEnabled;
 	}
 
+	public boolean isSpanFormattingEnabled() {
+		return spanFormattingEnabled;
+	}
+
+	public void setSpanFormattingEnabled(boolean spanFormattingEnabled) {
+		this.spanFormattingEnabled = spanFormattingEnabled;
+	}
+
 	public boolean isBackspaceEnabled() {
 		return (inputEnabled && backspaceEnabled);
 	}
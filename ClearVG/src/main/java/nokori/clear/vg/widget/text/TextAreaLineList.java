@@ -0,0 +1,244 @@
+package nokori.clear.vg.widget.text;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * The split lines of a TextAreaWidget, along with the advance and starting character index of each line. The lines are stored in a gap buffer, so replacing the
+ * lines of an edited paragraph only moves the lines between it and the previous edit, rather than every line after it. Since edits are usually made near the
+ * previous one (e.g. while typing), this is about the same amount of work no matter how long the text is.
+ * <br><br>
+ * The starting character indices of the lines after the gap are stored relative to the end of the text, so they don't have to be updated when the length of the
+ * text before them changes. The advances are also counted in a sorted map, so the widest line can be found without measuring every line again.
+ */
+class TextAreaLineList extends AbstractList<String> implements RandomAccess {
+
+	private String[] lines = new String[16];
+	private float[] advances = new float[16];
+
+	//The character index that each line starts at. Lines before the gap store it from the start of the text, and lines after it store it from the end (as a negative number).
+	private int[] offsets = new int[16];
+
+	//Lines [0, gapStart) are stored at the start of the arrays, and the rest are stored from gapEnd onward
+	private int gapStart = 0;
+	private int gapEnd = 16;
+
+	//The length of the text the lines were split from
+	private int textLength = 0;
+
+	//The number of lines with each advance
+	private TreeMap<Float, Integer> advanceCounts = new TreeMap<>();
+
+	@Override
+	public int size() {
+		return lines.length - (gapEnd - gapStart);
+	}
+
+	@Override
+	public String get(int line) {
+		checkLine(line);
+		return lines[getArrayIndex(line)];
+	}
+
+	/**
+	 * @return the advance the line was measured with
+	 */
+	public float getAdvance(int line) {
+		checkLine(line);
+		return advances[getArrayIndex(line)];
+	}
+
+	/**
+	 * @param line - the index of the line, or size() for the length of the text
+	 * @return the character index that the line starts at
+	 */
+	public int getOffset(int line) {
+		if (line < gapStart) {
+			return offsets[line];
+		}
+
+		if (line == size()) {
+			return textLength;
+		}
+
+		checkLine(line);
+		return offsets[getArrayIndex(line)] + textLength;
+	}
+
+	/**
+	 * @return the length of the text the lines were split from
+	 */
+	public int getTextLength() {
+		return textLength;
+	}
+
+	/**
+	 * @return the advance of the widest line, or 0 if there are no lines
+	 */
+	public float getMaxAdvance() {
+		return (advanceCounts.isEmpty() ? 0f : advanceCounts.lastKey());
+	}
+
+	/**
+	 * Binary searches for the line starting at the given character index.
+	 *
+	 * @param offset
+	 * @return the index of the first line starting at the offset, or -1 if no line starts there
+	 */
+	public int findLine(int offset) {
+		int size = size();
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (getOffset(mid) < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return (low < size && getOffset(low) == offset ? low : -1);
+	}
+
+	/**
+	 * Replaces the lines from startLine (inclusive) to endLine (exclusive) with the given lines. The new lines start at the same character index as the lines they
+	 * replace, and the lines after them are moved by the difference in the length of the text.
+	 *
+	 * @param startLine
+	 * @param endLine
+	 * @param newLines
+	 * @param newAdvances - the advance of each of the new lines
+	 * @param newTextLength - the length of the text after the edit
+	 */
+	public void replace(int startLine, int endLine, List<String> newLines, float[] newAdvances, int newTextLength) {
+		if (startLine < 0 || endLine > size() || startLine > endLine) {
+			throw new IndexOutOfBoundsException("Lines " + startLine + " to " + endLine + " of " + size());
+		}
+
+		int offset = getOffset(startLine);
+
+		moveGap(endLine);
+
+		//The replaced lines are now right before the gap
+		for (int i = startLine; i < endLine; i++) {
+			removeAdvance(advances[i]);
+			lines[i] = null;
+		}
+
+		gapStart = startLine;
+
+		ensureGap(newLines.size());
+
+		for (int i = 0; i < newLines.size(); i++) {
+			String line = newLines.get(i);
+
+			lines[gapStart] = line;
+			advances[gapStart] = newAdvances[i];
+			offsets[gapStart] = offset;
+			addAdvance(newAdvances[i]);
+
+			offset += line.length();
+			gapStart++;
+		}
+
+		textLength = newTextLength;
+		modCount++;
+	}
+
+	/**
+	 * Moves the gap so that it starts before the given line. The lines it moves past are converted between the two ways of storing their offsets.
+	 */
+	private void moveGap(int line) {
+		if (line < gapStart) {
+			int count = gapStart - line;
+			int newGapEnd = gapEnd - count;
+
+			System.arraycopy(lines, line, lines, newGapEnd, count);
+			System.arraycopy(advances, line, advances, newGapEnd, count);
+
+			//Backwards, since the lines can overlap when the gap is smaller than the distance moved
+			for (int i = count - 1; i >= 0; i--) {
+				offsets[newGapEnd + i] = offsets[line + i] - textLength;
+			}
+
+			gapStart = line;
+			gapEnd = newGapEnd;
+		} else if (line > gapStart) {
+			int count = line - gapStart;
+
+			System.arraycopy(lines, gapEnd, lines, gapStart, count);
+			System.arraycopy(advances, gapEnd, advances, gapStart, count);
+
+			for (int i = 0; i < count; i++) {
+				offsets[gapStart + i] = offsets[gapEnd + i] + textLength;
+			}
+
+			gapStart = line;
+			gapEnd += count;
+		}
+	}
+
+	/**
+	 * Grows the arrays if the gap can't fit the given number of lines.
+	 */
+	private void ensureGap(int lineCount) {
+		if (gapEnd - gapStart >= lineCount) {
+			return;
+		}
+
+		int afterGap = lines.length - gapEnd;
+		int capacity = Math.max(lines.length * 2, gapStart + afterGap + lineCount + 16);
+		int newGapEnd = capacity - afterGap;
+
+		String[] newLines = new String[capacity];
+		float[] newAdvances = new float[capacity];
+		int[] newOffsets = new int[capacity];
+
+		System.arraycopy(lines, 0, newLines, 0, gapStart);
+		System.arraycopy(advances, 0, newAdvances, 0, gapStart);
+		System.arraycopy(offsets, 0, newOffsets, 0, gapStart);
+
+		System.arraycopy(lines, gapEnd, newLines, newGapEnd, afterGap);
+		System.arraycopy(advances, gapEnd, newAdvances, newGapEnd, afterGap);
+		System.arraycopy(offsets, gapEnd, newOffsets, newGapEnd, afterGap);
+
+		lines = newLines;
+		advances = newAdvances;
+		offsets = newOffsets;
+		gapEnd = newGapEnd;
+	}
+
+	private void addAdvance(float advance) {
+		Integer count = advanceCounts.get(advance);
+		advanceCounts.put(advance, (count == null ? 1 : count + 1));
+	}
+
+	private void removeAdvance(float advance) {
+		Integer count = advanceCounts.get(advance);
+
+		if (count == null) {
+			return;
+		}
+
+		if (count == 1) {
+			advanceCounts.remove(advance);
+		} else {
+			advanceCounts.put(advance, count - 1);
+		}
+	}
+
+	private int getArrayIndex(int line) {
+		return (line < gapStart ? line : line + (gapEnd - gapStart));
+	}
+
+	private void checkLine(int line) {
+		if (line < 0 || line >= size()) {
+			throw new IndexOutOfBoundsException("Line " + line + " of " + size());
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package nokori.clear.vg.widget.text;
+
+import nokori.clear.vg.NanoVGContext;
+import nokori.clear.vg.widget.assembly.WidgetAssembly;
+import nokori.clear.vg.widget.assembly.Widget;
+import nokori.clear.vg.widget.text.TextAreaAutoFormatterWidget.SyntaxResetMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * This widget highlights syntax in a TextAreaWidget without editing its text. Matches are stored as spans in a <code>StyleSpanList</code> that's rendered by the
+ * TextAreaWidget alongside its text, so the text never contains any escape sequences added by this widget (unlike TextAreaAutoFormatterWidget).
+ * <br><br>
+ * All of the rules are compiled into a single regular expression, and only the lines touched by an edit are matched again. Rules are matched within single lines,
+ * with longer keys taking priority over shorter ones starting at the same character. A rule using <code>SyntaxResetMode.RESET_AFTER_NEW_LINE</code> (e.g. a comment)
+ * highlights the rest of the line, and no other rules are matched in it.
+ * <br><br>
+ * Add this widget as a child of the TextAreaWidget it should highlight.
+ */
+public class TextAreaSyntaxHighlighterWidget extends Widget implements TextBuffer.EditListener {
+
+	private TextAreaWidget textAreaWidget = null;
+
+	private ArrayList<Rule> rules = new ArrayList<Rule>();
+	private StyleSpanList spans = new StyleSpanList();
+
+	//The rules combined into one pattern, in the order they're tried. Rebuilt when the rules change.
+	private Pattern pattern = null;
+	private Rule[] patternRules = null;
+
+	//The range of the text that needs to be matched again (expanded to whole lines when it's processed). -1 if nothing is dirty.
+	private int dirtyStart = -1;
+	private int dirtyEnd = -1;
+
+	public TextAreaSyntaxHighlighterWidget() {}
+
+	@Override
+	public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		//Attach to the parent when this widget is added. Otherwise, this widget is only updated when the parent is refreshed.
+		if (textAreaWidget == null && parent instanceof TextAreaWidget) {
+			textAreaWidget = (TextAreaWidget) parent;
+			textAreaWidget.addStyleSpans(spans);
+			textAreaWidget.addEditListener(this);
+
+			markAllDirty();
+			refresh();
+		}
+	}
+
+	@Override
+	public void render(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {}
+
+	/*
+	 *
+	 * Edit tracking
+	 *
+	 */
+
+	@Override
+	public void textInserted(int offset, String string) {
+		int length = string.length();
+
+		if (dirtyStart != -1) {
+			dirtyStart = (dirtyStart >= offset ? dirtyStart + length : dirtyStart);
+			dirtyEnd = (dirtyEnd >= offset ? dirtyEnd + length : dirtyEnd);
+		}
+
+		markDirty(offset, offset + length);
+	}
+
+	@Override
+	public void textDeleted(int offset, String string) {
+		int length = string.length();
+		int deleteEnd = offset + length;
+
+		if (dirtyStart != -1) {
+			dirtyStart = (dirtyStart <= offset ? dirtyStart : (dirtyStart >= deleteEnd ? dirtyStart - length : offset));
+			dirtyEnd = (dirtyEnd <= offset ? dirtyEnd : (dirtyEnd >= deleteEnd ? dirtyEnd - length : offset));
+		}
+
+		markDirty(offset, offset);
+	}
+
+	private void markDirty(int start, int end) {
+		if (dirtyStart == -1) {
+			dirtyStart = start;
+			dirtyEnd = end;
+		} else {
+			dirtyStart = Math.min(dirtyStart, start);
+			dirtyEnd = Math.max(dirtyEnd, end);
+		}
+	}
+
+	private void markAllDirty() {
+		if (textAreaWidget != null) {
+			dirtyStart = 0;
+			dirtyEnd = textAreaWidget.getTextBuffer().length();
+		}
+	}
+
+	/*
+	 *
+	 * Highlighting
+	 *
+	 */
+
+	/**
+	 * Matches the rules against the lines that have been edited since the last refresh. This is called from TextAreaWidget's requestRefresh() function.
+	 */
+	void refresh() {
+		if (textAreaWidget == null || dirtyStart == -1) {
+			return;
+		}
+
+		TextBuffer text = textAreaWidget.getTextBuffer();
+		int length = text.length();
+
+		/*
+		 * Expand the dirty range to whole lines
+		 */
+
+		int start = Math.min(dirtyStart, length);
+		int end = Math.min(dirtyEnd, length);
+
+		while (start > 0 && text.charAt(start - 1) != '\n') {
+			start--;
+		}
+
+		while (end < length && text.charAt(end) != '\n') {
+			end++;
+		}
+
+		dirtyStart = -1;
+		dirtyEnd = -1;
+
+		spans.removeRange(start, end);
+
+		if (rules.isEmpty()) {
+			return;
+		}
+
+		if (pattern == null) {
+			compile();
+		}
+
+		/*
+		 * Match the rules
+		 */
+
+		Matcher m = pattern.matcher(text);
+		m.region(start, end);
+
+		while (m.find()) {
+			int matchStart = m.start();
+			int matchEnd = m.end();
+
+			Rule rule = null;
+
+			for (int i = 0; i < patternRules.length; i++) {
+				if (m.start(i + 1) != -1) {
+					rule = patternRules[i];
+					break;
+				}
+			}
+
+			if (rule.resetMode == SyntaxResetMode.RESET_AFTER_NEW_LINE) {
+				//Highlight to the end of the line and skip the rest of it
+				int lineEnd = matchEnd;
+
+				while (lineEnd < end && text.charAt(lineEnd) != '\n') {
+					lineEnd++;
+				}
+
+				if (rule.style != null) {
+					spans.add(matchStart, lineEnd, rule.style);
+				}
+
+				if (lineEnd >= end) {
+					break;
+				}
+
+				m.region(lineEnd, end);
+			} else if (rule.style != null) {
+				spans.add(matchStart, matchEnd, rule.style);
+			}
+		}
+	}
+
+	/**
+	 * Combines all of the rules into one pattern, with each rule as a capturing group. Longer keys are tried first.
+	 */
+	private void compile() {
+		patternRules = rules.toArray(new Rule[rules.size()]);
+
+		//Stable sort, so rules with keys of the same length keep the order they were added in
+		Arrays.sort(patternRules, Comparator.comparingInt((Rule r) -> r.key.length()).reversed());
+
+		StringBuilder regex = new StringBuilder();
+
+		for (int i = 0; i < patternRules.length; i++) {
+			if (i > 0) {
+				regex.append('|');
+			}
+
+			regex.append('(').append(Pattern.quote(patternRules[i].key)).append(')');
+		}
+
+		pattern = Pattern.compile(regex.toString());
+	}
+
+	/**
+	 * Notifies this widget that the rules have changed, so that all of the text is highlighted again on the next refresh.
+	 */
+	private void notifyRulesChanged() {
+		pattern = null;
+		markAllDirty();
+
+		if (textAreaWidget != null) {
+			textAreaWidget.requestRefresh();
+		}
+	}
+
+	/*
+	 *
+	 * Rules
+	 *
+	 */
+
+	public Rule addRule(String key, char escapeSequence) {
+		return addRule(key, escapeSequence, null, SyntaxResetMode.RESET_AFTER_KEY);
+	}
+
+	public Rule addRule(String key, char escapeSequence, String instructions) {
+		return addRule(key, escapeSequence, instructions, SyntaxResetMode.RESET_AFTER_KEY);
+	}
+
+	/**
+	 * Adds a rule using the formatting of an escape sequence, same as <code>TextAreaAutoFormatterWidget.addSyntax()</code>.
+	 *
+	 * @param key - the text to highlight
+	 * @param escapeSequence - the escape sequence whose formatting is used (see <code>ClearEscapeSequences</code>)
+	 * @param instructions - the instructions for the escape sequence (e.g. a HEX color), or null
+	 * @param resetMode - whether to highlight just the key, or the rest of the line
+	 * @return the new rule
+	 */
+	public Rule addRule(String key, char escapeSequence, String instructions, SyntaxResetMode resetMode) {
+		return addRule(key, TextStyle.fromEscapeSequence(escapeSequence, instructions), resetMode);
+	}
+
+	public Rule addRule(String key, TextStyle style) {
+		return addRule(key, style, SyntaxResetMode.RESET_AFTER_KEY);
+	}
+
+	public Rule addRule(String key, TextStyle style, SyntaxResetMode resetMode) {
+		Rule rule = new Rule(key, style, resetMode);
+		rules.add(rule);
+		notifyRulesChanged();
+		return rule;
+	}
+
+	public boolean removeRule(Rule rule) {
+		boolean removed = rules.remove(rule);
+		notifyRulesChanged();
+		return removed;
+	}
+
+	public boolean removeRule(String key) {
+		boolean removed = false;
+
+		for (int i = 0; i < rules.size(); i++) {
+			if (rules.get(i).key.equals(key)) {
+				rules.remove(i);
+				removed = true;
+				i--;
+			}
+		}
+
+		notifyRulesChanged();
+		return removed;
+	}
+
+	public void clearAllRules() {
+		rules.clear();
+		notifyRulesChanged();
+	}
+
+	public ArrayList<Rule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return the spans this widget has highlighted
+	 */
+	public StyleSpanList getSpans() {
+		return spans;
+	}
+
+	@Override
+	public void dispose() {
+		if (textAreaWidget != null) {
+			textAreaWidget.removeStyleSpans(spans);
+			textAreaWidget.removeEditListener(this);
+			textAreaWidget = null;
+		}
+	}
+
+	public static class Rule {
+		private String key;
+		private TextStyle style;
+		private SyntaxResetMode resetMode;
+
+		public Rule(String key, TextStyle style, SyntaxResetMode resetMode) {
+			if (key.isEmpty()) {
+				throw new IllegalArgumentException("Syntax highlighting rules can't have an empty key.");
+			}
+
+			this.key = key;
+			this.style = style;
+			this.resetMode = resetMode;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public TextStyle getStyle() {
+			return style;
+		}
+
+		public SyntaxResetMode getResetMode() {
+			return resetMode;
+		}
+	}
+}
@@ -19,6 +19,8 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.nanovg.NVGColor;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.lwjgl.nanovg.NanoVG.*;
 
@@ -44,7 +46,10 @@ import static org.lwjgl.nanovg.NanoVG.*;
  *   It's not recommended that this class be tampered with, but new features can be added if necessary. Constants for all of the available escape sequences can be found in 
  *   this class.<br><br>
  *   
- * • <code>TextAreaHistory:</code> This class contains <code>TextState</code> objects that allow for undo/redoing during editing.<br><br>
+ * • <code>StyleSpanList:</code> Formatting stored alongside the text instead of inside of it, as ranges of the text with a <code>TextStyle</code> each. The widget's own
+ *   formatting (see <code>setFormattedText()</code>) and the syntax highlighting of <code>TextAreaSyntaxHighlighterWidget</code> are both stored this way.<br><br>
+ *   
+ * • <code>TextAreaHistory:</code> This class records the edits made to the text (as <code>EditState</code> objects) that allow for undo/redoing during editing.<br><br>
  * 
  * If you need to edit or add new features to this text area implementation, the above list should help you in getting started on where to find functionality and how to edit it.
  */
@@ -59,22 +64,103 @@ public class TextAreaWidget extends Widget {
 	
 	public static final int TEXT_AREA_ALIGNMENT = Font.DEFAULT_TEXT_ALIGNMENT;
 	
-	//We store the text in a StringBuilder to make editing perform better. toString() is called when the actual string is needed, e.g. for splitting.
-	private StringBuilder textBuilder;
+	//We store the text in a TextBuffer to make editing perform better. Only the parts that are needed are copied out of it, e.g. the edited paragraphs for splitting.
+	private TextBuffer textBuffer = new PieceTableTextBuffer();
 	
 	private boolean wordWrappingEnabled = true;
 	
-	//The text is then cut up into lines by font.split() for the text content handler to render. 
-	//refreshLines can be set to true to cause font.split to be called again so that the current arraylist is recycled.
-	private ArrayList<String> lines = null;
+	//The text is then cut up into lines by font.split() for the text content handler to render. Along with each line, its advance (used to calculate the 
+	//stringWidth without re-measuring every line after an edit) and the character index it starts at (used to find the lines in view) are stored.
+	//refreshLines can be set to true to cause font.split to be called again so that the current lines are recycled.
+	private TextAreaLineList lines = null;
 	private boolean refreshLines = false;
+
+	//If enabled, only the paragraphs touched by an edit are re-split. splitWidth is the width the current lines were split with.
+	private boolean incrementalLineSplittingEnabled = true;
+	private float splitWidth = -1f;
 	
+	//The part of the text that has been edited since the lines were split, in the current text (-1 if nothing was edited). Updated by the edit listener.
+	private int splitEditStart = -1;
+	private int splitEditEnd = -1;
+
 	private boolean lineSplitOverrideEnabled = false;
 	private float lineSplitOverrideWidth;
 	
 	//TextAreaContentHandler handles formatting and rendering of the lines created above.
 	private TextAreaContentHandler textContentHandler;
 	
+	//Formatting stored outside of the text (e.g. by TextAreaSyntaxHighlighterWidget), rendered on top of the escape sequences in the text.
+	private ArrayList<StyleSpanList> styleSpans = new ArrayList<>();
+	
+	//The formatting of the text itself when span formatting is used (see setFormattedText()). It's always the first of the styleSpans.
+	private StyleSpanList formatting = new StyleSpanList();
+	
+	//The number of escape sequence characters in the text. While there are none, the caret logic doesn't need to scan the text for them.
+	private int escapeSequenceCount = 0;
+	
+	//The StringBuilder handed out by getTextBuilder() (or given to setTextBuilder()). It's kept as a copy of the text, and edits made to it are copied back into the
+	//TextBuffer by syncTextBuilder().
+	private StringBuilder textBuilder = null;
+	
+	//Set while syncTextBuilder() copies edits back, so that they aren't applied to the textBuilder a second time
+	private boolean syncingTextBuilder = false;
+	
+	//Everything that's notified of edits made to the TextBuffer. The style spans are notified of insertions first so that they're up to date for the other listeners,
+	//and of deletions last so that the other listeners (e.g. the edit history) still see the spans of the text being deleted.
+	private ArrayList<TextBuffer.EditListener> editListeners = new ArrayList<>();
+	
+	private TextBuffer.EditListener editListener = new TextBuffer.EditListener() {
+		@Override
+		public void textInserted(int offset, String string) {
+			escapeSequenceCount += ClearEscapeSequences.countEscapeSequences(string);
+			
+			if (splitEditStart == -1) {
+				splitEditStart = offset;
+				splitEditEnd = offset + string.length();
+			} else {
+				splitEditStart = Math.min(splitEditStart, offset);
+				splitEditEnd = Math.max(splitEditEnd, offset) + string.length();
+			}
+			
+			if (textBuilder != null && !syncingTextBuilder) {
+				textBuilder.insert(offset, string);
+			}
+			
+			for (int i = 0; i < styleSpans.size(); i++) {
+				styleSpans.get(i).textInserted(offset, string);
+			}
+			
+			for (int i = 0; i < editListeners.size(); i++) {
+				editListeners.get(i).textInserted(offset, string);
+			}
+		}
+
+		@Override
+		public void textDeleted(int offset, String string) {
+			escapeSequenceCount -= ClearEscapeSequences.countEscapeSequences(string);
+			
+			if (splitEditStart == -1) {
+				splitEditStart = offset;
+				splitEditEnd = offset;
+			} else {
+				splitEditStart = Math.min(splitEditStart, offset);
+				splitEditEnd = Math.max(splitEditEnd - string.length(), offset);
+			}
+			
+			if (textBuilder != null && !syncingTextBuilder) {
+				textBuilder.delete(offset, offset + string.length());
+			}
+			
+			for (int i = 0; i < editListeners.size(); i++) {
+				editListeners.get(i).textDeleted(offset, string);
+			}
+			
+			for (int i = 0; i < styleSpans.size(); i++) {
+				styleSpans.get(i).textDeleted(offset, string);
+			}
+		}
+	};
+	
 	private TextAreaInputSettings inputSettings;
 	private TextAreaContentInputHandler textContentInputHandler;
 	
@@ -214,12 +300,20 @@ public class TextAreaWidget extends Widget {
 		inputSettings =  new TextAreaInputSettings(this);
 		textContentInputHandler = new DefaultTextAreaContentInputHandler(this, textContentHandler);
 		
+		styleSpans.add(formatting);
+		
+		//The initial text isn't part of the edit history
+		textBuffer.setEditListener(editListener);
 		setText(text);
+		addEditListener(textContentHandler.getEditHistory());
+		
+		//Deleted text keeps its formatting in the edit history
+		textContentHandler.getEditHistory().setFormatting(formatting);
 	}
 
 	@Override
 	public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
-		//System.out.println(ClearStaticResources.getFocusedWidget());
+		//System.out.println(ClearStaticResources.getFocusedWidget(this));
 	}
 
 	@Override
@@ -229,7 +323,7 @@ public class TextAreaWidget extends Widget {
 		float width = getWidth();
 		float height = getHeight();
 		
-		String text = textBuilder.toString();
+		syncTextBuilder();
 
 		/*
 		 * 
@@ -284,7 +378,7 @@ public class TextAreaWidget extends Widget {
 		 */
 		
 		if (lines == null || refreshLines) {
-			calculateLineSplits(context, text);
+			calculateLineSplits(context, textBuffer);
 			refreshLines = false;
 		}
 		
@@ -328,10 +422,16 @@ public class TextAreaWidget extends Widget {
 		 * 
 		 */
 		
-		int totalCharacters = 0;
-		firstLineInView = -1;
 		cullOffset = fontHeight * 5;
 		
+		//Only the lines within the scissoring range (plus a bit of padding) are visited. 
+		//You can test the culling by commenting out the nvgScissor call above.
+		int firstLine = getFirstUnculledLine(y);
+		int endLine = getEndUnculledLine(y, height);
+		
+		firstLineInView = (firstLine < endLine ? firstLine : -1);
+		int totalCharacters = lines.getOffset(firstLine);
+		
 		textContentHandler.beginFrame();
 
 		textContentHandler.renderHighlight(vg, textContentX, textContentW, fontHeight);
@@ -341,24 +441,12 @@ public class TextAreaWidget extends Widget {
 		/*
 		 * Render text
 		 */
-		for (int i = 0; i < lines.size(); i++) {
+		for (int i = firstLine; i < endLine; i++) {
 			//Calculate the renderY for this line
 			float rY = getLineRenderY(i);
 			
-			//Culls text that's outside of the scissoring range. We include a bit of padding. 
-			//You can test the culling by commenting out the nvgScissor call above.
-			if (isLineCulled(rY, height)) {
-				totalCharacters += lines.get(i).length();
-				continue;
-			}
-			
-			//Sets the lines in view
-			if (firstLineInView == -1) {
-				firstLineInView = i;
-			}
-			
 			//Draw the text
-			totalCharacters += textContentHandler.renderLine(context, text.length(), i, lines.get(i), totalCharacters, textContentX, rY, scissorY, fontHeight);
+			totalCharacters += textContentHandler.renderLine(context, textBuffer.length(), i, lines.get(i), totalCharacters, textContentX, rY, scissorY, fontHeight);
 		}
 		
 		nvgClosePath(vg);
@@ -374,15 +462,9 @@ public class TextAreaWidget extends Widget {
 		nvgScissor(vg, x, y, textContentW, textContentH);
 		nvgTranslate(vg, 0f, scissorY);
 		
-		for (int i = 0; i < lines.size(); i++) {
+		for (int i = firstLine; i < endLine; i++) {
 			//Calculate the renderY for this line
 			float rY = getLineRenderY(i);
-			
-			//Culls text that's outside of the scissoring range. We include a bit of padding. 
-			//You can test the culling by commenting out the nvgScissor call above.
-			if (isLineCulled(rY, height)) {
-				continue;
-			}
 
 			//Draw line number if applicable
 			renderLineNumber(context, x, rY, lineNumberCompleteWidth, fontHeight, i);
@@ -420,37 +502,198 @@ public class TextAreaWidget extends Widget {
 	}
 	
 	/**
-	 * This function splits the content text into an arraylist containing individual lines, allowing us to render the text content piece by piece.
+	 * This function splits the content text into individual lines, allowing us to render the text content piece by piece.
 	 * 
 	 * @param context
-	 * @param text
+	 * @param text - the text to split (e.g. the TextBuffer of this widget). Only the edited paragraphs are copied out of it when the lines are split incrementally.
 	 */
-	public void calculateLineSplits(NanoVGContext context, String text) {
+	public void calculateLineSplits(NanoVGContext context, CharSequence text) {
 		float lineSplitW = (wordWrappingEnabled ? (lineSplitOverrideEnabled ? lineSplitOverrideWidth : textContentW) : Float.MAX_VALUE);
-		
-		font.split(context, lines = new ArrayList<>(), text, lineSplitW, fontSize, TEXT_AREA_ALIGNMENT, defaultFontStyle);
-		
-		//Don't allow the lines array to be empty.
-		if (lines.isEmpty()) {
-			lines.add("");
+
+		if (!incrementalLineSplittingEnabled || lines == null || lineSplitW != splitWidth
+				|| !calculateLineSplitsIncrementally(context, text, lineSplitW)) {
+
+			ArrayList<String> splitLines = new ArrayList<>();
+			font.split(context, splitLines, text.toString(), lineSplitW, fontSize, TEXT_AREA_ALIGNMENT, defaultFontStyle);
+
+			//Don't allow the lines array to be empty.
+			if (splitLines.isEmpty()) {
+				splitLines.add("");
+			}
+
+			lines = new TextAreaLineList();
+			lines.replace(0, 0, splitLines, calculateLineAdvances(context, splitLines, 0), text.length());
+		}
+
+		splitWidth = lineSplitW;
+		splitEditStart = -1;
+		splitEditEnd = -1;
+
+		stringWidth = Math.max(textContentW, lines.getMaxAdvance());
+	}
+
+	/**
+	 * Re-splits only the paragraphs touched by the edits made since the last split (as reported by the edit listener). Since a new line always ends a line, each 
+	 * paragraph is wrapped independently of the others and the rest of the lines can be kept as they are.
+	 *
+	 * @param context
+	 * @param text
+	 * @param lineSplitW
+	 * @return false if the lines couldn't be matched to the previous text (or the edits to it aren't known), in which case a full split is required
+	 */
+	private boolean calculateLineSplitsIncrementally(NanoVGContext context, CharSequence text, float lineSplitW) {
+		int oldLength = lines.getTextLength();
+		int newLength = text.length();
+
+		//The reported edits only describe the TextBuffer, and only if it can't be changed without reporting it. The StringBuilder of a StringBuilderTextBuffer can be
+		//edited directly (even without changing the length), so its text always gets a full split.
+		if (text != textBuffer || textBuffer instanceof StringBuilderTextBuffer) {
+			return false;
+		}
+
+		if (splitEditStart == -1) {
+			return (newLength == oldLength);
+		}
+
+		if (splitEditEnd > newLength) {
+			return false;
+		}
+
+		/*
+		 * Expand the edited region to whole paragraphs. The new lines used for the bounds are always in the unchanged text, so the bounds line up with the old lines.
+		 */
+
+		int start = lastIndexOf(text, '\n', splitEditStart - 1) + 1;
+		int newEnd = indexOf(text, '\n', splitEditEnd);
+		newEnd = (newEnd == -1 ? newLength : newEnd + 1);
+		int oldEnd = newEnd - (newLength - oldLength);
+
+		/*
+		 * Find the old lines that the paragraphs covered
+		 */
+
+		int firstLine = lines.findLine(start);
+		int endLine = (oldEnd == oldLength ? lines.size() : lines.findLine(oldEnd));
+
+		if (firstLine == -1 || endLine == -1 || endLine < firstLine) {
+			return false;
+		}
+
+		/*
+		 * Split the edited paragraphs and swap them in for the old lines
+		 */
+
+		ArrayList<String> paragraphLines = new ArrayList<>();
+		font.split(context, paragraphLines, text.subSequence(start, newEnd).toString(), lineSplitW, fontSize, TEXT_AREA_ALIGNMENT, defaultFontStyle);
+
+		//Font.split() adds a blank line after a trailing new line, which only belongs at the very end of the text.
+		if (newEnd < newLength && !paragraphLines.isEmpty() && paragraphLines.get(paragraphLines.size() - 1).isEmpty()) {
+			paragraphLines.remove(paragraphLines.size() - 1);
+		}
+
+		lines.replace(firstLine, endLine, paragraphLines, calculateLineAdvances(context, paragraphLines, start), newLength);
+
+		//Same rules as a full split: the lines can't be empty and text ending with a new line has a blank final line.
+		if (lines.isEmpty() || (newLength > 0 && text.charAt(newLength - 1) == '\n' && !lines.get(lines.size() - 1).isEmpty())) {
+			lines.replace(lines.size(), lines.size(), Collections.singletonList(""), new float[1], newLength);
 		}
 
-		stringWidth = textContentHandler.calculateMaxAdvance(context, textContentW, font, lines);
+		return true;
+	}
+
+	/**
+	 * @return the index of the first occurrence of the char at or after fromIndex, or -1 if there isn't one
+	 */
+	private static int indexOf(CharSequence text, char c, int fromIndex) {
+		for (int i = Math.max(fromIndex, 0); i < text.length(); i++) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		
+		return -1;
 	}
 	
+	/**
+	 * @return the index of the last occurrence of the char at or before fromIndex, or -1 if there isn't one
+	 */
+	private static int lastIndexOf(CharSequence text, char c, int fromIndex) {
+		for (int i = Math.min(fromIndex, text.length() - 1); i >= 0; i--) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+
+	/**
+	 * Measures the given lines for calculating the stringWidth.
+	 * 
+	 * @param characterIndex - the character index that the first line starts at
+	 * @return the advance of each line
+	 */
+	private float[] calculateLineAdvances(NanoVGContext context, List<String> lines, int characterIndex) {
+		float[] advances = new float[lines.size()];
+		
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i);
+			advances[i] = textContentHandler.calculateLineAdvance(context, font, line, characterIndex);
+			characterIndex += line.length();
+		}
+		
+		return advances;
+	}
+
 	private float getLineRenderY(int lineIndex) {
 		return textContentY + (fontHeight * lineIndex);
 	}
 	
-	private boolean isLineCulled(float renderY, float height) {
-		float clipY = getClippedY();
-		float cullY = renderY + scissorY;
-
-		if (cullY < (clipY - cullOffset) || cullY > clipY + height + cullOffset) {
-			return true;
+	/**
+	 * Binary searches for the first line that isn't culled above the scissoring range. Lines are rendered top to bottom, so their render Y only ever increases.
+	 * 
+	 * @param clipY - the clipped Y of this widget
+	 * @return the index of the first line that isn't culled, or the number of lines if every line is culled
+	 */
+	private int getFirstUnculledLine(float clipY) {
+		int low = 0;
+		int high = lines.size();
+		
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			
+			if (getLineRenderY(mid) + scissorY < clipY - cullOffset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Binary searches for the first line that's culled below the scissoring range.
+	 * 
+	 * @param clipY - the clipped Y of this widget
+	 * @param height - the height of this widget
+	 * @return the index after the last line that isn't culled
+	 */
+	private int getEndUnculledLine(float clipY, float height) {
+		int low = 0;
+		int high = lines.size();
+		
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			
+			if (getLineRenderY(mid) + scissorY <= clipY + height + cullOffset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
 		}
 		
-		return false;
+		return low;
 	}
 	
 	/**
@@ -459,12 +702,10 @@ public class TextAreaWidget extends Widget {
 	public void resetTextRenderConfiguration(NanoVGContext context) {
 		font.configureNVG(context, fontSize, TEXT_AREA_ALIGNMENT, defaultFontStyle);
 		
-		defaultTextFill.tallocNVG(fill -> {
-			nvgFillColor(context.get(), fill);
-		});
+		nvgFillColor(context.get(), defaultTextFill.getNVG());
 		
 		textContentHandler.notifyTextFillChanged(defaultTextFill);
-		textContentHandler.notifyTextStyleChanged(FontStyle.REGULAR);
+		textContentHandler.notifyTextStyleChanged(defaultFontStyle);
 	}
 	
 	private void renderLineNumber(NanoVGContext context, float x, float y, float lineNumberCompleteWidth, float fontHeight, int line) {
@@ -478,21 +719,17 @@ public class TextAreaWidget extends Widget {
 		float bgHeight = fontHeight + 1f; //adds a teensy bit of padding to prevent minor rounding errors when scrolling. May cause issues if the background has transparency enabled.
 		
 		if (lineNumberBackgroundFill != null && lineNumberBackgroundFill.getAlpha() > 0f) {
-			lineNumberBackgroundFill.tallocNVG(bgFill -> {
-				nvgBeginPath(vg);
-				nvgFillColor(vg, bgFill);
-				nvgRect(vg, x, y, bgWidth, bgHeight);
-				nvgFill(vg);
-				nvgClosePath(vg);
-			});
+			nvgBeginPath(vg);
+			nvgFillColor(vg, lineNumberBackgroundFill.getNVG());
+			nvgRect(vg, x, y, bgWidth, bgHeight);
+			nvgFill(vg);
+			nvgClosePath(vg);
 		}
 		
 		if (lineNumberFill != null && lineNumberFill.getAlpha() > 0f) {
-			lineNumberFill.tallocNVG(fill -> {
-				lineNumberFont.configureNVG(context, fontSize, TEXT_AREA_ALIGNMENT, lineNumberFontStyle);
-				nvgFillColor(vg, fill);
-				nvgText(vg, x + lineNumberLeftPadding, y, Integer.toString(line));
-			});
+			lineNumberFont.configureNVG(context, fontSize, TEXT_AREA_ALIGNMENT, lineNumberFontStyle);
+			nvgFillColor(vg, lineNumberFill.getNVG());
+			nvgText(vg, x + lineNumberLeftPadding, y, Integer.toString(line));
 		}
 		
 		nvgRestore(vg);
@@ -534,6 +771,7 @@ public class TextAreaWidget extends Widget {
 		//Transitions the scrollbar color smoothly to the currently selected fill color
 		if (!verticalScrollbarRenderFill.rgbMatches(currentFill) && verticalScrollbarFillTransition == null) {
 			verticalScrollbarFillTransition = new FillTransition(200, verticalScrollbarRenderFill, currentFill);
+			verticalScrollbarFillTransition.setInvalidatedWidget(this);
 			verticalScrollbarFillTransition.play();
 			verticalScrollbarFillTransition.setOnCompleted(t -> {
 				verticalScrollbarFillTransition = null;
@@ -548,8 +786,8 @@ public class TextAreaWidget extends Widget {
 		
 		long vg = context.get();
 		
-		NVGColor scrollbarBackgroundFill = this.scrollbarBackgroundFill.callocNVG();
-		NVGColor scrollbarFill = verticalScrollbarRenderFill.callocNVG();
+		NVGColor scrollbarBackgroundFill = this.scrollbarBackgroundFill.getNVG();
+		NVGColor scrollbarFill = verticalScrollbarRenderFill.getNVG();
 		
 		//scrollbar background
 		nvgBeginPath(vg);
@@ -567,9 +805,6 @@ public class TextAreaWidget extends Widget {
 			nvgFill(vg);
 			nvgClosePath(vg);
 		}
-		
-		scrollbarBackgroundFill.free();
-		scrollbarFill.free();
 	}
 	
 	private void renderHorizontalScrollbar(NanoVGContext context, float x, float y, float width, float height, float stringWidth) {
@@ -610,6 +845,7 @@ public class TextAreaWidget extends Widget {
 		//Transitions the scrollbar color smoothly to the currently selected fill color
 		if (!horizontalScrollbarRenderFill.rgbMatches(currentFill) && horizontalScrollbarFillTransition == null) {
 			horizontalScrollbarFillTransition = new FillTransition(200, horizontalScrollbarRenderFill, currentFill);
+			horizontalScrollbarFillTransition.setInvalidatedWidget(this);
 			horizontalScrollbarFillTransition.play();
 			horizontalScrollbarFillTransition.setOnCompleted(t -> {
 				horizontalScrollbarFillTransition = null;
@@ -624,8 +860,8 @@ public class TextAreaWidget extends Widget {
 		
 		long vg = context.get();
 		
-		NVGColor scrollbarBackgroundFill = this.scrollbarBackgroundFill.callocNVG();
-		NVGColor scrollbarFill = horizontalScrollbarRenderFill.callocNVG();
+		NVGColor scrollbarBackgroundFill = this.scrollbarBackgroundFill.getNVG();
+		NVGColor scrollbarFill = horizontalScrollbarRenderFill.getNVG();
 		
 		//scrollbar background
 		nvgBeginPath(vg);
@@ -642,9 +878,6 @@ public class TextAreaWidget extends Widget {
 			nvgFill(vg);
 			nvgClosePath(vg);
 		}
-		
-		scrollbarBackgroundFill.free();
-		scrollbarFill.free();
 	}
 	
 	/**
@@ -655,7 +888,9 @@ public class TextAreaWidget extends Widget {
 	 * but rather on the next render frame - hence <code>requestRefresh()</code> and not just <code>refresh()</code>.
 	 */
 	public void requestRefresh() {
+		syncTextBuilder();
 		refreshLines = true;
+		invalidate();
 		
 		//Update Auto-Formatters
 		for (int i = 0; i < getNumChildren(); i++) {
@@ -664,6 +899,10 @@ public class TextAreaWidget extends Widget {
 			if (widget instanceof TextAreaAutoFormatterWidget) {
 				((TextAreaAutoFormatterWidget) widget).refresh();
 			}
+			
+			if (widget instanceof TextAreaSyntaxHighlighterWidget) {
+				((TextAreaSyntaxHighlighterWidget) widget).refresh();
+			}
 		}
 	}
 	
@@ -848,18 +1087,145 @@ public class TextAreaWidget extends Widget {
 	}
 	
 	/**
-	 * A StringBuilder is stored in this class instead of a basic String for editing/performance purposes. It's modified frequently by the various mechanics of this class. 
+	 * A TextBuffer is stored in this class instead of a basic String for editing/performance purposes. It's modified frequently by the various mechanics of this class. 
 	 * This function will allow you to access it, but be careful in doing so.
 	 * 
 	 * <br><br><b>WARNING: </b> This is the raw rendering text. If you save this text to a file, any codes or escape sequences used for rendering will also be saved. 
 	 * Use the <code>getText()</code> function instead if you wish to get the uncoded text.
 	 * 
-	 * @return the StringBuilder containing the text for this TextAreaWidget
+	 * @return the TextBuffer containing the text for this TextAreaWidget
+	 */
+	public TextBuffer getTextBuffer() {
+		return textBuffer;
+	}
+	
+	/**
+	 * Sets the TextBuffer used to store the text of this TextAreaWidget. This can be used to swap in a different TextBuffer implementation. 
+	 * <code>PieceTableTextBuffer</code> is used by default. The undo/redo history is cleared.
+	 * 
+	 * @param textBuffer
+	 */
+	public void setTextBuffer(TextBuffer textBuffer) {
+		TextBuffer oldTextBuffer = this.textBuffer;
+		oldTextBuffer.setEditListener(null);
+		this.textBuffer = textBuffer;
+		textBuffer.setEditListener(editListener);
+		
+		//All of the text was replaced, which leaves no style spans behind and requires a full split
+		for (int i = 0; i < styleSpans.size(); i++) {
+			styleSpans.get(i).clear();
+		}
+		
+		splitWidth = -1f;
+		
+		if (textBuilder != null) {
+			textBuilder.setLength(0);
+			textBuilder.append(textBuffer);
+		}
+		
+		//The other listeners are notified as if all of the text was replaced. The edit history is cleared below, so it doesn't need the text.
+		TextAreaHistory history = textContentHandler.getEditHistory();
+		String oldText = null;
+		String newText = null;
+		
+		for (int i = 0; i < editListeners.size(); i++) {
+			TextBuffer.EditListener listener = editListeners.get(i);
+			
+			if (listener != history && oldTextBuffer.length() > 0) {
+				if (oldText == null) {
+					oldText = oldTextBuffer.toString();
+				}
+				
+				listener.textDeleted(0, oldText);
+			}
+		}
+		
+		for (int i = 0; i < editListeners.size(); i++) {
+			TextBuffer.EditListener listener = editListeners.get(i);
+			
+			if (listener != history && textBuffer.length() > 0) {
+				if (newText == null) {
+					newText = textBuffer.toString();
+				}
+				
+				listener.textInserted(0, newText);
+			}
+		}
+		
+		//The old text may have been edited without notifying the listeners (e.g. through the StringBuilder of a StringBuilderTextBuffer), so the count is started over
+		escapeSequenceCount = ClearEscapeSequences.countEscapeSequences(textBuffer);
+		
+		//The edit history only applies to the text it was recorded from
+		textContentHandler.getEditHistory().clear();
+		
+		textContentHandler.refresh();
+		requestRefresh();
+	}
+	
+	/**
+	 * This function is kept for compatibility with code written before TextBuffers were added. The text stays in its TextBuffer; the returned StringBuilder is a 
+	 * copy of it that's kept up to date as the text is edited. Changes made to the StringBuilder are copied back into the TextBuffer (as regular, undoable edits)
+	 * on the next <code>requestRefresh()</code> or frame.
+	 * <br><br>
+	 * Once this has been called, every refresh and frame compares the StringBuilder against the text to find those changes, which costs as much as the length 
+	 * of the text. Code that edits the text often should use <code>getTextBuffer()</code> instead.
+	 * 
+	 * <br><br><b>WARNING: </b> This is the raw rendering text. If you save this text to a file, any codes or escape sequences used for rendering will also be saved. 
+	 * Use the <code>getText()</code> function instead if you wish to get the uncoded text.
+	 * 
+	 * @return a StringBuilder containing the text for this TextAreaWidget
+	 * @deprecated use <code>getTextBuffer()</code> instead
 	 */
+	@Deprecated
 	public StringBuilder getTextBuilder() {
+		if (textBuilder == null) {
+			textBuilder = new StringBuilder(textBuffer.toString());
+		}
+		
 		return textBuilder;
 	}
 	
+	/**
+	 * Copies the changes made to the StringBuilder from <code>getTextBuilder()</code> into the TextBuffer. Only the part between the first and last changed 
+	 * characters is replaced, so the edit listeners (e.g. the line splitting and the style spans) only see the part that was actually changed.
+	 */
+	private void syncTextBuilder() {
+		if (textBuilder == null) {
+			return;
+		}
+		
+		int textLength = textBuffer.length();
+		int builderLength = textBuilder.length();
+		int minLength = Math.min(textLength, builderLength);
+		
+		int prefix = 0;
+		
+		while (prefix < minLength && textBuffer.charAt(prefix) == textBuilder.charAt(prefix)) {
+			prefix++;
+		}
+		
+		if (prefix == textLength && prefix == builderLength) {
+			return;
+		}
+		
+		int suffix = 0;
+		
+		while (suffix < minLength - prefix && textBuffer.charAt(textLength - 1 - suffix) == textBuilder.charAt(builderLength - 1 - suffix)) {
+			suffix++;
+		}
+		
+		syncingTextBuilder = true;
+		
+		try {
+			textBuffer.replace(prefix, textLength - suffix, textBuilder.substring(prefix, builderLength - suffix));
+		} finally {
+			syncingTextBuilder = false;
+		}
+		
+		textContentHandler.refresh();
+		refreshLines = true;
+	}
+	
 	/**
 	 * This function uses the <code>getProcessedText()</code> function in the TextContentHandler of this TextAreaWidget to retrieve the text content of this widget, allowing you to 
 	 * access a text end-result in this TextAreaWidget.
@@ -867,23 +1233,114 @@ public class TextAreaWidget extends Widget {
 	 * @return the processed raw text content of this TextAreaWidget
 	 */
 	public String getText() {
-		return textContentHandler.getProcessedText(getTextBuilder().toString());
+		return textContentHandler.getProcessedText(textBuffer);
 	}
 	
+	/**
+	 * Sets the text of this TextAreaWidget to the text of the given StringBuilder, which is then kept up to date the same way as the one returned by 
+	 * <code>getTextBuilder()</code>. The text itself stays in the current TextBuffer.
+	 * 
+	 * @param textBuilder
+	 * @deprecated use <code>setTextBuffer()</code> or <code>setText()</code> instead
+	 */
+	@Deprecated
 	public void setTextBuilder(StringBuilder textBuilder) {
+		this.textBuilder = null;
+		setText(textBuilder.toString());
 		this.textBuilder = textBuilder;
+	}
+	
+	/**
+	 * Replaces the text of this TextAreaWidget, keeping the current TextBuffer implementation.
+	 * 
+	 * @param text
+	 */
+	public void setText(String text) {
+		textBuffer.replace(0, textBuffer.length(), text);
 		textContentHandler.refresh();
 		requestRefresh();
 	}
+
+	/**
+	 * Sets the text of this TextAreaWidget from text formatted with escape sequences (see <code>ClearEscapeSequences</code>). Unlike <code>setText()</code>, the escape 
+	 * sequences are moved out of the text and into the formatting spans of this widget (see <code>getFormatting()</code>), so the caret never has to skip over them.
+	 * 
+	 * @param markup
+	 */
+	public void setFormattedText(String markup) {
+		StyleSpanList importedFormatting = new StyleSpanList();
+		String text = ClearEscapeSequences.importMarkup(markup, importedFormatting);
+		
+		setText(text);
+		
+		formatting.clear();
+		
+		for (int i = 0; i < importedFormatting.size(); i++) {
+			formatting.add(importedFormatting.getStart(i), importedFormatting.getEnd(i), importedFormatting.getStyle(i));
+		}
+	}
 	
-	public void setText(String text) {
-		setTextBuilder(new StringBuilder(text));
+	/**
+	 * @return the text of this TextAreaWidget with its formatting spans converted into escape sequences (see <code>setFormattedText()</code>)
+	 */
+	public String getFormattedText() {
+		return ClearEscapeSequences.exportMarkup(textBuffer, formatting);
+	}
+	
+	/**
+	 * @return the formatting of the text of this TextAreaWidget that's stored as spans rather than escape sequences. This is where formatting is stored by 
+	 * <code>setFormattedText()</code>, and by the bold/italic inputs if span formatting is enabled in the <code>TextAreaInputSettings</code>.
+	 */
+	public StyleSpanList getFormatting() {
+		return formatting;
+	}
+	
+	/**
+	 * @return true if the text might contain escape sequences. If this is false, there's no need to check the text for them.
+	 */
+	public boolean containsEscapeSequences() {
+		//Changes made to the textBuilder aren't counted until they're copied into the TextBuffer
+		return (escapeSequenceCount > 0 || textBuilder != null);
+	}
+
+	/**
+	 * Adds a StyleSpanList to be rendered on top of the text of this TextAreaWidget. The spans will be kept in sync with the text as it's edited.
+	 * 
+	 * @param spans
+	 */
+	public void addStyleSpans(StyleSpanList spans) {
+		styleSpans.add(spans);
+	}
+	
+	public boolean removeStyleSpans(StyleSpanList spans) {
+		return styleSpans.remove(spans);
+	}
+	
+	/**
+	 * @return the StyleSpanLists rendered by this TextAreaWidget. Spans in later lists take priority over earlier ones.
+	 */
+	public ArrayList<StyleSpanList> getStyleSpans() {
+		return styleSpans;
+	}
+	
+	/**
+	 * Adds a listener that's notified of every edit made to the text of this TextAreaWidget (through its TextBuffer).
+	 * 
+	 * @param listener
+	 */
+	public void addEditListener(TextBuffer.EditListener listener) {
+		editListeners.add(listener);
+	}
+	
+	public boolean removeEditListener(TextBuffer.EditListener listener) {
+		return editListeners.remove(listener);
 	}
 
 	/**
-	 * @return the text content of this TextAreaWidget in its split arraylist form.
+	 * @return the text content of this TextAreaWidget in its split form. The list is updated as the text is edited and can't be modified directly. (This used to
+	 * return an ArrayList, which code compiled against older versions needs to be recompiled for.)
 	 */
-	public ArrayList<String> getLines() {
+	public List<String> getLines() {
 		return lines;
 	}
 
@@ -897,6 +1354,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setLineSplitOverrideWidth(float lineSplitOverrideWidth) {
 		this.lineSplitOverrideWidth = lineSplitOverrideWidth;
+		invalidate();
 	}
 	
 	/**
@@ -907,6 +1365,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setLineSplitOverrideEnabled(boolean lineSplitOverrideEnabled) {
 		this.lineSplitOverrideEnabled = lineSplitOverrideEnabled;
+		invalidate();
 	}
 	
 	/**
@@ -916,6 +1375,25 @@ public class TextAreaWidget extends Widget {
 		return lineSplitOverrideEnabled;
 	}
 	
+	/**
+	 * @return true if incremental line splitting is enabled, meaning that only the paragraphs changed by an edit are re-split on refresh.
+	 * @see setIncrementalLineSplittingEnabled()
+	 */
+	public boolean isIncrementalLineSplittingEnabled() {
+		return incrementalLineSplittingEnabled;
+	}
+
+	/**
+	 * Toggles incremental line splitting. If true, only the paragraphs touched by the edits the TextBuffer reported since the last split are re-split on refresh, 
+	 * so the cost of an edit depends on the size of the edit rather than the size of the text. If false, the entire text is re-split on every refresh. Text in a 
+	 * StringBuilderTextBuffer is always re-split entirely, since its StringBuilder can be edited without the edits being reported.
+	 * 
+	 * @param incrementalLineSplittingEnabled
+	 */
+	public void setIncrementalLineSplittingEnabled(boolean incrementalLineSplittingEnabled) {
+		this.incrementalLineSplittingEnabled = incrementalLineSplittingEnabled;
+	}
+	
 	public boolean isFinalLine(int lineNumber) {
 		return (lineNumber + 1 >= lines.size());
 	}
@@ -979,20 +1457,25 @@ public class TextAreaWidget extends Widget {
 	}
 	
 	public int getLineIndexOfCharacterIndex(int charIndex) {
-		int count = 0;
+		if (charIndex < 0 || charIndex > lines.getTextLength()) {
+			return -1;
+		}
 		
-		for (int i = 0; i < lines.size(); i++) {
-			int start = count;
-			int end = start + lines.get(i).length();
+		//Binary search for the first line that ends at or after the character index
+		int low = 0;
+		int high = lines.size() - 1;
+		
+		while (low < high) {
+			int mid = (low + high) >>> 1;
 			
-			if (charIndex >= start && charIndex <= end) {
-				return i;
+			if (lines.getOffset(mid + 1) < charIndex) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
-			
-			count = end;
 		}
 		
-		return -1;
+		return low;
 	}
 	
 	public boolean isWordWrappingEnabled() {
@@ -1001,6 +1484,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setWordWrappingEnabled(boolean wordWrappingEnabled) {
 		this.wordWrappingEnabled = wordWrappingEnabled;
+		invalidate();
 	}	
 	
 	/*
@@ -1017,6 +1501,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setDefaultTextFill(ClearColor fill) {
 		this.defaultTextFill = fill;
+		invalidate();
 	}
 	
 	public FontStyle getDefaultFontStyle() {
@@ -1025,6 +1510,8 @@ public class TextAreaWidget extends Widget {
 
 	public void setDefaultFontStyle(FontStyle defaultFontStyle) {
 		this.defaultFontStyle = defaultFontStyle;
+		lines = null;
+		invalidate();
 	}
 	
 	public Font getFont() {
@@ -1034,6 +1521,7 @@ public class TextAreaWidget extends Widget {
 	public void setFont(Font font) {
 		this.font = font;
 		lines = null;
+		invalidate();
 	}
 
 	public float getFontSize() {
@@ -1043,6 +1531,7 @@ public class TextAreaWidget extends Widget {
 	public void setFontSize(float fontSize) {
 		this.fontSize = fontSize;
 		lines = null;
+		invalidate();
 	}
 
 	public float getFontHeight() {
@@ -1059,6 +1548,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setScrollbarThickness(float scrollbarWidth) {
 		this.scrollbarThickness = scrollbarWidth;
+		invalidate();
 	}
 
 	public float getScrollbarCornerRadius() {
@@ -1067,6 +1557,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setScrollbarCornerRadius(float scrollbarCornerRadius) {
 		this.scrollbarCornerRadius = scrollbarCornerRadius;
+		invalidate();
 	}
 
 	public ClearColor getScrollbarBackgroundFill() {
@@ -1075,6 +1566,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setScrollbarBackgroundFill(ClearColor scrollbarBackgroundFill) {
 		this.scrollbarBackgroundFill = scrollbarBackgroundFill;
+		invalidate();
 	}
 
 	public ClearColor getScrollbarFill() {
@@ -1083,6 +1575,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setScrollbarFill(ClearColor scrollbarFill) {
 		this.scrollbarFill = scrollbarFill;
+		invalidate();
 	}
 	
 	public ClearColor getScrollbarHighlightFill() {
@@ -1091,6 +1584,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setScrollbarHighlightFill(ClearColor scrollbarHighlightFill) {
 		this.scrollbarHighlightFill = scrollbarHighlightFill;
+		invalidate();
 	}
 	
 	public boolean isScrollbarSelected() {
@@ -1107,6 +1601,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setHorizontalScrollbarTopPadding(float horizontalScrollbarTopPadding) {
 		this.horizontalScrollbarTopPadding = horizontalScrollbarTopPadding;
+		invalidate();
 	}
 
 	/**
@@ -1123,6 +1618,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setHorizontalScroll(float horizontalScroll) {
 		this.horizontalScroll = WidgetUtils.clamp(horizontalScroll, 0f, 1f);
+		invalidate();
 	}
 
 	public boolean isHorizontalScrollbarActive() {
@@ -1147,6 +1643,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setVerticalScrollbarLeftPadding(float verticalScrollbarLeftPadding) {
 		this.verticalScrollbarLeftPadding = WidgetUtils.clamp(verticalScrollbarLeftPadding, 0f, 1f);
+		invalidate();
 	}
 
 	/**
@@ -1163,6 +1660,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setVerticalScroll(float verticalScroll) {
 		this.verticalScroll = verticalScroll;
+		invalidate();
 	}
 
 	public boolean isVerticalScrollbarActive() {
@@ -1189,6 +1687,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setLineNumbersEnabled(boolean lineNumbersEnabled) {
 		this.lineNumbersEnabled = lineNumbersEnabled;
+		invalidate();
 	}
 
 	public Font getLineNumberFont() {
@@ -1197,6 +1696,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setLineNumberFont(Font lineNumberFont) {
 		this.lineNumberFont = lineNumberFont;
+		invalidate();
 	}
 
 	public ClearColor getLineNumberFill() {
@@ -1205,6 +1705,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setLineNumberFill(ClearColor lineNumberFill) {
 		this.lineNumberFill = lineNumberFill;
+		invalidate();
 	}
 	
 	public ClearColor getLineNumberBackgroundFill() {
@@ -1213,6 +1714,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setLineNumberBackgroundFill(ClearColor lineNumberBackgroundFill) {
 		this.lineNumberBackgroundFill = lineNumberBackgroundFill;
+		invalidate();
 	}
 
 	public FontStyle getLineNumberFontStyle() {
@@ -1221,6 +1723,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setLineNumberFontStyle(FontStyle lineNumberFontStyle) {
 		this.lineNumberFontStyle = lineNumberFontStyle;
+		invalidate();
 	}
 	
 	/**
@@ -1237,6 +1740,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setLineNumberLeftPadding(float lineNumberLeftPadding) {
 		this.lineNumberLeftPadding = lineNumberLeftPadding;
+		invalidate();
 	}
 
 	/**
@@ -1251,6 +1755,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setLineNumberRightPadding(float lineNumberRightPadding) {
 		this.lineNumberRightPadding = lineNumberRightPadding;
+		invalidate();
 	}
 
 	/*
@@ -1282,6 +1787,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setHighlightFill(ClearColor highlightFill) {
 		this.highlightFill = highlightFill;
+		invalidate();
 	}
 	
 	public EditingEndedCallback getEditingEndedCallback() {
@@ -1313,6 +1819,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setUnderlineFill(ClearColor underlineFill) {
 		this.underlineFill = underlineFill;
+		invalidate();
 	}
 
 	public int getUnderlineThickness() {
@@ -1321,6 +1828,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setUnderlineThickness(int underlineThickness) {
 		this.underlineThickness = underlineThickness;
+		invalidate();
 	}
 
 	public float getUnderlineYPadding() {
@@ -1329,6 +1837,7 @@ public class TextAreaWidget extends Widget {
 
 	public void setUnderlineYPadding(float underlineYPadding) {
 		this.underlineYPadding = underlineYPadding;
+		invalidate();
 	}
 
 	/**
@@ -1344,6 +1853,7 @@ public class TextAreaWidget extends Widget {
 	 */
 	public void setBackgroundFill(ClearColor backgroundFill) {
 		this.backgroundFill = backgroundFill;
+		invalidate();
 	}
 	
 	@Override
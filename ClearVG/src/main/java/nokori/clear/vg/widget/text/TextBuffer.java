@@ -0,0 +1,107 @@
+package nokori.clear.vg.widget.text;
+
+/**
+ * This interface is the storage for the raw text of a TextAreaWidget. It mirrors the parts of the StringBuilder API that the TextAreaWidget and its helpers use,
+ * allowing the storage to be swapped out for an implementation that better suits the text being edited.
+ * <br><br>
+ * <code>PieceTableTextBuffer</code> is used by default. <code>StringBuilderTextBuffer</code> is available for code that needs direct access to a StringBuilder.
+ *
+ * @see <code>TextAreaWidget.setTextBuffer()</code>
+ */
+public interface TextBuffer extends CharSequence {
+
+	/**
+	 * Inserts the given string at the offset.
+	 *
+	 * @param offset
+	 * @param string
+	 * @return this TextBuffer
+	 */
+	public TextBuffer insert(int offset, CharSequence string);
+
+	/**
+	 * Inserts the given char at the offset.
+	 *
+	 * @param offset
+	 * @param c
+	 * @return this TextBuffer
+	 */
+	public TextBuffer insert(int offset, char c);
+
+	/**
+	 * Deletes the characters from start (inclusive) to end (exclusive).
+	 *
+	 * @param start
+	 * @param end
+	 * @return this TextBuffer
+	 */
+	public TextBuffer delete(int start, int end);
+
+	/**
+	 * Deletes the character at the index.
+	 *
+	 * @param index
+	 * @return this TextBuffer
+	 */
+	public TextBuffer deleteCharAt(int index);
+
+	/**
+	 * Replaces the characters from start (inclusive) to end (exclusive) with the given string.
+	 *
+	 * @param start
+	 * @param end
+	 * @param string
+	 * @return this TextBuffer
+	 */
+	public TextBuffer replace(int start, int end, String string);
+
+	/**
+	 * @param start
+	 * @param end
+	 * @return a new String containing the characters from start (inclusive) to end (exclusive)
+	 */
+	public String substring(int start, int end);
+
+	/**
+	 * Copies the characters from srcBegin (inclusive) to srcEnd (exclusive) into the destination array, same as <code>String.getChars()</code>.
+	 *
+	 * @param srcBegin
+	 * @param srcEnd
+	 * @param dst
+	 * @param dstBegin
+	 */
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin);
+
+	/**
+	 * Sets the listener that's notified of every edit made through this TextBuffer. Only one listener is supported; pass null to remove it.
+	 * 
+	 * @param listener
+	 */
+	public void setEditListener(EditListener listener);
+
+	@Override
+	public default CharSequence subSequence(int start, int end) {
+		return substring(start, end);
+	}
+
+	/**
+	 * @return the full text stored in this buffer
+	 */
+	@Override
+	public String toString();
+
+	/**
+	 * Receives the edits made to a TextBuffer. A replacement is reported as a deletion followed by an insertion.
+	 */
+	public interface EditListener {
+		/**
+		 * Called after the string was inserted at the offset.
+		 */
+		public void textInserted(int offset, String string);
+
+		/**
+		 * Called before the string at the offset is deleted.
+		 */
+		public void textDeleted(int offset, String string);
+	}
+}
@@ -0,0 +1,73 @@
+package nokori.clear.vg.widget.text;
+
+import nokori.clear.vg.ClearColor;
+import nokori.clear.vg.font.FontStyle;
+
+/**
+ * The formatting applied to a span of text in a TextAreaWidget (see <code>StyleSpanList</code>). Either setting can be null, meaning the text keeps whatever
+ * it would've been rendered with otherwise.
+ */
+public class TextStyle {
+
+	private FontStyle fontStyle;
+	private ClearColor fill;
+
+	public TextStyle(FontStyle fontStyle, ClearColor fill) {
+		this.fontStyle = fontStyle;
+		this.fill = fill;
+	}
+
+	public TextStyle(FontStyle fontStyle) {
+		this(fontStyle, null);
+	}
+
+	public TextStyle(ClearColor fill) {
+		this(null, fill);
+	}
+
+	/**
+	 * Creates a TextStyle with the same effect as the given escape sequence (see <code>ClearEscapeSequences</code>).
+	 *
+	 * @param escapeSequence - the escape sequence
+	 * @param instructions - the instructions following the escape sequence (e.g. the HEX color for <code>ESCAPE_SEQUENCE_COLOR</code>), or null
+	 * @return the TextStyle, or null if the escape sequence doesn't apply any formatting
+	 */
+	public static TextStyle fromEscapeSequence(char escapeSequence, String instructions) {
+		switch (escapeSequence) {
+		case ClearEscapeSequences.ESCAPE_SEQUENCE_BOLD:
+			return new TextStyle(FontStyle.BOLD);
+		case ClearEscapeSequences.ESCAPE_SEQUENCE_LIGHT:
+			return new TextStyle(FontStyle.LIGHT);
+		case ClearEscapeSequences.ESCAPE_SEQUENCE_ITALIC:
+			return new TextStyle(FontStyle.ITALIC);
+		case ClearEscapeSequences.ESCAPE_SEQUENCE_COLOR:
+			return new TextStyle(new ClearColor(instructions));
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Combines this TextStyle with another one, where the settings of the other TextStyle take priority.
+	 * 
+	 * @param style - the TextStyle applied on top of this one
+	 * @return a new TextStyle containing the combined settings
+	 */
+	public TextStyle merge(TextStyle style) {
+		return new TextStyle((style.fontStyle != null ? style.fontStyle : fontStyle), (style.fill != null ? style.fill : fill));
+	}
+
+	/**
+	 * @return the FontStyle to render the text with, or null if it's unchanged
+	 */
+	public FontStyle getFontStyle() {
+		return fontStyle;
+	}
+
+	/**
+	 * @return the color to render the text with, or null if it's unchanged
+	 */
+	public ClearColor getFill() {
+		return fill;
+	}
+}
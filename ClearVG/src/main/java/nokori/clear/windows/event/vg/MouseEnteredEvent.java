@@ -2,11 +2,12 @@ package nokori.clear.windows.event.vg;
 
 import nokori.clear.windows.Window;
 import nokori.clear.windows.event.EventImpl;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class MouseEnteredEvent extends EventImpl {
 	
-	private static final Pool<MouseEnteredEvent> POOL = new Pool<MouseEnteredEvent>() {
+	private static final Pool<MouseEnteredEvent> POOL = new ConcurrentPool<MouseEnteredEvent>() {
 		@Override
 		protected MouseEnteredEvent create() {
 			return new MouseEnteredEvent();
@@ -33,18 +34,27 @@ public class MouseEnteredEvent extends EventImpl {
 	
 	@Override
 	public void reset() {
+		super.reset();
 		window = null;
 	}
 
 	public Window getWindow() {
+		checkRecycled();
 		return window;
 	}
 
 	public double getMouseX() {
+		checkRecycled();
 		return mouseX;
 	}
 
 	public double getMouseY() {
+		checkRecycled();
 		return mouseY;
 	}
+
+	@Override
+	public void recycle() {
+		recycle(POOL);
+	}
 }
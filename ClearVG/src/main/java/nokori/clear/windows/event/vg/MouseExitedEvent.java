@@ -2,11 +2,12 @@ package nokori.clear.windows.event.vg;
 
 import nokori.clear.windows.Window;
 import nokori.clear.windows.event.EventImpl;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class MouseExitedEvent  extends EventImpl {
 	
-	private static final Pool<MouseExitedEvent> POOL = new Pool<MouseExitedEvent>() {
+	private static final Pool<MouseExitedEvent> POOL = new ConcurrentPool<MouseExitedEvent>() {
 		@Override
 		protected MouseExitedEvent create() {
 			return new MouseExitedEvent();
@@ -32,18 +33,27 @@ public class MouseExitedEvent  extends EventImpl {
 	}
 	@Override
 	public void reset() {
+		super.reset();
 		window = null;
 	}
 
 	public Window getWindow() {
+		checkRecycled();
 		return window;
 	}
 
 	public double getMouseX() {
+		checkRecycled();
 		return mouseX;
 	}
 
 	public double getMouseY() {
+		checkRecycled();
 		return mouseY;
 	}
+
+	@Override
+	public void recycle() {
+		recycle(POOL);
+	}
 }
@@ -0,0 +1,151 @@
+package nokori.clear.vg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import nokori.clear.windows.event.MouseMotionEvent;
+
+/**
+ * Stress tests the event pools. A producer thread (standing in for the GLFW thread) fires mouse motion events and hands them off to several worker threads,
+ * which check them and recycle them. Extra producer threads fire events at the same time to check that taking events from a pool on a thread that doesn't own
+ * it is safe too.
+ * <br><br>
+ * If an event were handed out while another thread was still using it, its values would change underneath the worker (or the in-flight check would fail).
+ */
+public class EventPoolTest {
+
+	private static final int EVENT_COUNT = 200_000;
+	private static final int WORKER_COUNT = 4;
+	private static final int EXTRA_PRODUCER_COUNT = 2;
+	private static final int EXTRA_PRODUCER_EVENT_COUNT = 50_000;
+
+	//Timestamp of the events that tell the workers to stop
+	private static final long END = Long.MIN_VALUE;
+
+	@Test(timeout = 60_000)
+	public void testRecyclingFromOtherThreads() throws InterruptedException {
+		ArrayBlockingQueue<MouseMotionEvent> queue = new ArrayBlockingQueue<>(1024);
+
+		//Events currently being used by a worker. The pool must never hand one of these out again.
+		Set<MouseMotionEvent> inFlight = ConcurrentHashMap.newKeySet();
+		AtomicInteger errors = new AtomicInteger();
+
+		/*
+		 * Workers
+		 */
+
+		Thread[] workers = new Thread[WORKER_COUNT];
+
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Thread(() -> {
+				try {
+					while (true) {
+						MouseMotionEvent e = queue.take();
+
+						long sequence = e.getTimestamp();
+
+						if (sequence == END) {
+							e.recycle();
+							return;
+						}
+
+						if (!check(e, sequence)) {
+							errors.incrementAndGet();
+						}
+
+						Thread.yield();
+
+						//Check again in case the event was reused while this thread was looking at it
+						if (!check(e, sequence)) {
+							errors.incrementAndGet();
+						}
+
+						inFlight.remove(e);
+						e.recycle();
+					}
+				} catch (InterruptedException ex) {
+					ex.printStackTrace();
+				}
+			}, "Worker-" + i);
+
+			workers[i].start();
+		}
+
+		/*
+		 * Extra producers (not owners of the pool)
+		 */
+
+		Thread[] extraProducers = new Thread[EXTRA_PRODUCER_COUNT];
+
+		for (int i = 0; i < extraProducers.length; i++) {
+			extraProducers[i] = new Thread(() -> {
+				for (int j = 0; j < EXTRA_PRODUCER_EVENT_COUNT; j++) {
+					MouseMotionEvent e = fire(-j - 2);
+
+					if (!check(e, -j - 2)) {
+						errors.incrementAndGet();
+					}
+
+					e.recycle();
+				}
+			}, "ExtraProducer-" + i);
+		}
+
+		/*
+		 * Producer (owner of the pool)
+		 */
+
+		Thread producer = new Thread(() -> {
+			try {
+				for (Thread t : extraProducers) {
+					t.start();
+				}
+
+				for (int i = 0; i < EVENT_COUNT; i++) {
+					MouseMotionEvent e = fire(i);
+
+					//Handed out while still in use
+					if (!inFlight.add(e)) {
+						errors.incrementAndGet();
+					}
+
+					queue.put(e);
+				}
+
+				for (int i = 0; i < WORKER_COUNT; i++) {
+					queue.put(MouseMotionEvent.fire(null, END, 0, 0, 0, 0));
+				}
+			} catch (InterruptedException ex) {
+				ex.printStackTrace();
+			}
+		}, "Producer");
+
+		producer.start();
+		producer.join();
+
+		for (Thread t : extraProducers) {
+			t.join();
+		}
+
+		for (Thread t : workers) {
+			t.join();
+		}
+
+		assertEquals(0, errors.get());
+	}
+
+	private static MouseMotionEvent fire(long sequence) {
+		return MouseMotionEvent.fire(null, sequence, sequence, -sequence, sequence * 2, sequence * 3);
+	}
+
+	private static boolean check(MouseMotionEvent e, long sequence) {
+		return (e.getTimestamp() == sequence && e.getMouseX() == sequence && e.getMouseY() == -sequence && e.getDX() == sequence * 2 && e.getDY() == sequence * 3
+				&& !e.isConsumed());
+	}
+}
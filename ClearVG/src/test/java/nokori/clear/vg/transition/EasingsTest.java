@@ -0,0 +1,101 @@
+package nokori.clear.vg.transition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nokori.clear.vg.widget.assembly.TestWidget;
+import nokori.clear.vg.widget.assembly.Widget;
+import nokori.clear.windows.FrameRateLimiter;
+import nokori.clear.windows.util.Clock;
+import nokori.clear.windows.util.VirtualClock;
+
+/**
+ * Checks the easing curves in Easings, and moves widgets along an elastic curve on a VirtualClock.
+ */
+public class EasingsTest {
+
+	private static final int WIDGET_COUNT = 1_000;
+
+	@After
+	public void tearDown() {
+		Clock.set(null);
+	}
+
+	@Test
+	public void testCurvesStartAtZeroAndEndAtOne() {
+		Easing[] easings = {
+				Easings.LINEAR, Easings.SMOOTH, Easings.SMOOTHER, Easings.QUAD_IN, Easings.QUAD_OUT, Easings.QUAD_IN_OUT, Easings.CUBIC_IN, Easings.CUBIC_OUT,
+				Easings.CUBIC_IN_OUT, Easings.QUART_IN, Easings.QUART_OUT, Easings.QUART_IN_OUT, Easings.QUINT_IN, Easings.QUINT_OUT, Easings.QUINT_IN_OUT,
+				Easings.BACK_IN, Easings.BACK_OUT, Easings.BACK_IN_OUT, Easings.BOUNCE_IN, Easings.BOUNCE_OUT, Easings.BOUNCE_IN_OUT, Easings.SINE_IN,
+				Easings.SINE_OUT, Easings.SINE_IN_OUT, Easings.EXPO_IN, Easings.EXPO_OUT, Easings.EXPO_IN_OUT, Easings.CIRC_IN, Easings.CIRC_OUT,
+				Easings.CIRC_IN_OUT, Easings.ELASTIC_IN, Easings.ELASTIC_OUT, Easings.ELASTIC_IN_OUT, Easings.EASE, Easings.SPRING,
+				Easings.cubicBezier(0.68f, -0.6f, 0.32f, 1.6f), Easings.spring(1f, 12f), Easings.spring(2f, 30f)
+		};
+
+		for (int i = 0; i < easings.length; i++) {
+			assertEquals("Curve " + i + " start", 0f, easings[i].ease(0f), 1e-4f);
+			assertEquals("Curve " + i + " end", 1f, easings[i].ease(1f), 1e-4f);
+		}
+	}
+
+	@Test
+	public void testBakedCurvesAreAccurate() {
+		for (int i = 0; i <= 1000; i++) {
+			float p = i / 1000f;
+			assertEquals((float) -(Math.cos(Math.PI * p) - 1) / 2f, Easings.SINE_IN_OUT.ease(p), 1e-4f);
+		}
+	}
+
+	@Test
+	public void testEaseMatchesCSS() {
+		//The CSS "ease" curve is about 0.8024 halfway through
+		assertEquals(0.8024f, Easings.EASE.ease(0.5f), 1e-3f);
+	}
+
+	@Test
+	public void testSpringOvershoot() {
+		//Springs below a damping ratio of 1 overshoot, the others don't
+		assertTrue(maxValue(Easings.SPRING) > 1f);
+		assertTrue(maxValue(Easings.spring(1f, 12f)) <= 1f + 1e-4f);
+	}
+
+	@Test
+	public void testElasticTransitionsLandOnTheirTargets() {
+		Clock.set(new VirtualClock());
+
+		Widget[] widgets = new Widget[WIDGET_COUNT];
+		boolean overshot = false;
+
+		for (int i = 0; i < WIDGET_COUNT; i++) {
+			widgets[i] = new TestWidget();
+			new WidgetPositionTransition(widgets[i], 500 + i % 500, 100f, i, Easings.ELASTIC_OUT).play();
+		}
+
+		while (TransitionManager.hasActiveTransitions()) {
+			TransitionManager.tick();
+			FrameRateLimiter.sync(60);
+
+			overshot |= (widgets[0].getX() > 100f);
+		}
+
+		assertTrue("ELASTIC_OUT overshoots the target", overshot);
+
+		for (int i = 0; i < WIDGET_COUNT; i++) {
+			assertEquals(100f, widgets[i].getX(), 0f);
+			assertEquals(i, widgets[i].getY(), 0f);
+		}
+	}
+
+	private static float maxValue(Easing easing) {
+		float max = 0f;
+
+		for (int i = 0; i <= 1000; i++) {
+			max = Math.max(max, easing.ease(i / 1000f));
+		}
+
+		return max;
+	}
+}
@@ -0,0 +1,56 @@
+package nokori.clear.vg.transition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import nokori.clear.vg.ClearColor;
+
+/**
+ * Simulates the mouse sweeping back and forth over a large grid of cells that fade their color in and out when hovered. Every sweep starts thousands of
+ * FillTransitions, each replacing the one already playing on its cell (see <code>Transition.setLinkedObject()</code>), and the TransitionManager ticks them
+ * until they finish.
+ */
+public class TransitionStressTest {
+
+	private static final int CELL_COUNT = 10_000;
+	private static final int SWEEP_COUNT = 50;
+	private static final long FADE_DURATION = 100;
+
+	@Test(timeout = 30_000)
+	public void testReplacingLinkedTransitions() throws InterruptedException {
+		ClearColor[] cells = new ClearColor[CELL_COUNT];
+
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = ClearColor.WHITE.copy();
+		}
+
+		for (int sweep = 0; sweep < SWEEP_COUNT; sweep++) {
+			ClearColor target = (sweep % 2 == 0 ? ClearColor.CORAL : ClearColor.WHITE);
+
+			for (int i = 0; i < cells.length; i++) {
+				FillTransition fade = new FillTransition(FADE_DURATION, cells[i], target);
+				fade.setLinkedObject(cells[i]);
+				fade.play();
+			}
+
+			//Each cell only has its newest fade playing
+			assertEquals("Transitions playing after sweep " + sweep, CELL_COUNT, TransitionManager.getActiveTransitionCount());
+
+			TransitionManager.tick();
+		}
+
+		//Let the last sweep finish
+		while (TransitionManager.hasActiveTransitions()) {
+			Thread.sleep(16);
+			TransitionManager.tick();
+		}
+
+		ClearColor expected = (SWEEP_COUNT % 2 == 0 ? ClearColor.WHITE : ClearColor.CORAL);
+
+		for (int i = 0; i < cells.length; i++) {
+			assertTrue("Cell " + i + " didn't finish fading: " + cells[i].toHEX(), cells[i].rgbMatches(expected));
+		}
+	}
+}
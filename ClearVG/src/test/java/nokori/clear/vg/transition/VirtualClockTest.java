@@ -0,0 +1,98 @@
+package nokori.clear.vg.transition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nokori.clear.vg.NanoVGContext;
+import nokori.clear.vg.widget.assembly.RootWidgetAssembly;
+import nokori.clear.vg.widget.assembly.TestWidget;
+import nokori.clear.windows.FrameRateLimiter;
+import nokori.clear.windows.util.Clock;
+import nokori.clear.windows.util.VirtualClock;
+
+/**
+ * Simulates a widget tree full of looping animations for over a minute of 60 FPS frames on a VirtualClock, as fast as it can. The simulation is run twice and
+ * has to give exactly the same results both times, since nothing depends on real time.
+ */
+public class VirtualClockTest {
+
+	private static final int WIDGET_COUNT = 500;
+	private static final int FRAME_COUNT = 5_000;
+	private static final float FPS = 60f;
+
+	@After
+	public void tearDown() {
+		Clock.set(null);
+	}
+
+	@Test
+	public void testSimulationIsDeterministic() {
+		int[] results = simulate();
+
+		assertArrayEquals(results, simulate());
+
+		//Widget 0's 250ms animation finishes on the first frame after its end time, and the first frame is at the time it starts
+		long frameTime = (long) (1_000_000_000L / FPS);
+		int framesPerPulse = (int) (250_000_000L / frameTime) + 1;
+
+		assertEquals((FRAME_COUNT - 1) / framesPerPulse, results[0]);
+	}
+
+	private int[] simulate() {
+		Clock.set(new VirtualClock());
+
+		RootWidgetAssembly root = new RootWidgetAssembly();
+		PulsingWidget[] widgets = new PulsingWidget[WIDGET_COUNT];
+
+		for (int i = 0; i < WIDGET_COUNT; i++) {
+			widgets[i] = new PulsingWidget(250 + (i % 10) * 50);
+			root.addChild(widgets[i]);
+		}
+
+		//Not initialized, since nothing is rendered
+		NanoVGContext context = new NanoVGContext();
+
+		//The same steps ClearApp takes every frame, with FrameRateLimiter moving the clock forward one frame at a time
+		for (int frame = 0; frame < FRAME_COUNT; frame++) {
+			TransitionManager.tick();
+			root.tick(context, root);
+			root.tickChildren(context, root, null);
+
+			FrameRateLimiter.sync(FPS);
+		}
+
+		int[] results = new int[WIDGET_COUNT];
+
+		for (int i = 0; i < WIDGET_COUNT; i++) {
+			widgets[i].pulse.stop();
+			results[i] = widgets[i].pulseCount;
+		}
+
+		Clock.set(null);
+
+		return results;
+	}
+
+	/**
+	 * Fades its size back and forth forever.
+	 */
+	private static class PulsingWidget extends TestWidget {
+		private TransitionImpl pulse;
+		private int pulseCount = 0;
+
+		public PulsingWidget(long duration) {
+			super(0, 0, 10, 10);
+
+			pulse = new TransitionImpl(duration, 10f, 20f, v -> setWidth(v));
+			pulse.setOnCompleted(t -> {
+				pulseCount++;
+				pulse.setStartAndEnd(pulse.getEnd(), pulse.getStart());
+				pulse.play();
+			});
+			pulse.play();
+		}
+	}
+}
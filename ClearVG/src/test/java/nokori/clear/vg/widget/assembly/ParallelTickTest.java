@@ -0,0 +1,119 @@
+package nokori.clear.vg.widget.assembly;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import nokori.clear.vg.NanoVGContext;
+
+/**
+ * Ticks a large dashboard-like widget tree first on one thread and then in parallel (see <code>Widget.setTickThreadSafe()</code>), and checks that both produce
+ * the same results. Each tile does some work in its tick and resizes itself with the result.
+ */
+public class ParallelTickTest {
+
+	private static final int TILE_COUNT = 256;
+	private static final int FRAME_COUNT = 20;
+	private static final int WORK_PER_TICK = 2_000;
+
+	//Summaries ticked before the tiles they read
+	private AtomicInteger errors = new AtomicInteger();
+
+	@Test
+	public void testParallelTickMatchesSerialTick() {
+		float[] serialResults = run(null);
+		float[] parallelResults = run(ForkJoinPool.commonPool());
+
+		assertArrayEquals(serialResults, parallelResults, 0f);
+		assertEquals(0, errors.get());
+	}
+
+	private float[] run(ForkJoinPool pool) {
+		RootWidgetAssembly root = new RootWidgetAssembly();
+		root.setSpatialIndexEnabled(true);
+
+		//Rows of tiles, each followed by a summary widget that isn't thread-safe and reads the tiles before it
+		TileWidget[] tiles = new TileWidget[TILE_COUNT];
+		WidgetAssembly row = null;
+
+		for (int i = 0; i < TILE_COUNT; i++) {
+			if (i % 16 == 0) {
+				row = new WidgetAssembly(0, (i / 16) * 50, 1600, 50);
+				root.addChild(row);
+			}
+
+			tiles[i] = new TileWidget(i);
+			tiles[i].setTickThreadSafe(true);
+			row.addChild(tiles[i]);
+
+			if (i % 16 == 15) {
+				row.addChild(new SummaryWidget(tiles, i - 15, i));
+			}
+		}
+
+		//Not initialized, since nothing is rendered
+		NanoVGContext context = new NanoVGContext();
+
+		for (int frame = 0; frame < FRAME_COUNT; frame++) {
+			root.tickChildren(context, root, pool);
+		}
+
+		float[] results = new float[TILE_COUNT];
+
+		for (int i = 0; i < TILE_COUNT; i++) {
+			results[i] = tiles[i].getWidth();
+		}
+
+		return results;
+	}
+
+	private static class TileWidget extends TestWidget {
+		private int index;
+
+		public TileWidget(int index) {
+			super(index % 16 * 100, 0, 100, 50);
+			this.index = index;
+		}
+
+		@Override
+		public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+			super.tick(context, rootWidgetAssembly);
+
+			//Stands in for expensive model updates
+			double value = getWidth();
+
+			for (int i = 0; i < WORK_PER_TICK; i++) {
+				value = Math.sin(value + index) * 100;
+			}
+
+			setWidth((float) Math.abs(value));
+		}
+	}
+
+	private class SummaryWidget extends TestWidget {
+		private TileWidget[] tiles;
+		private int first, last;
+
+		public SummaryWidget(TileWidget[] tiles, int first, int last) {
+			this.tiles = tiles;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+			super.tick(context, rootWidgetAssembly);
+
+			//The thread-safe siblings before this widget have to be finished before it's ticked
+			for (int i = first; i <= last; i++) {
+				if (tiles[i].tickCount != tickCount) {
+					errors.incrementAndGet();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package nokori.clear.vg.widget.assembly;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import nokori.clear.vg.NanoVGContext;
+import nokori.clear.vg.NanoVGFramebuffer;
+
+/**
+ * Checks WidgetAssembly render caching without a window or OpenGL. The NanoVGContext is replaced with one that records the off-screen rendering calls instead
+ * of making them, and the widgets count how many times they're rendered. The frames are rendered the same way ClearApp renders them.
+ */
+public class RenderCacheTest {
+
+	private RecordingNanoVGContext context;
+	private RootWidgetAssembly root;
+	private WidgetAssembly panel, button;
+	private TestWidget shadow, background, label, uncached;
+
+	@Before
+	public void setUp() {
+		context = new RecordingNanoVGContext();
+		root = new RootWidgetAssembly();
+
+		panel = new WidgetAssembly(100, 100, 400, 300);
+		root.addChild(panel);
+
+		//A button-like assembly made of a few widgets, which is cached
+		button = new WidgetAssembly(10, 10, 120, 40);
+		button.setRenderCacheEnabled(true);
+		panel.addChild(button);
+
+		shadow = new TestWidget();
+		background = new TestWidget();
+		label = new TestWidget();
+		button.addChild(shadow, background, label);
+
+		//A widget next to it that isn't cached
+		uncached = new TestWidget();
+		panel.addChild(uncached);
+
+		//The button is rendered into its cache, then the cache is drawn
+		renderFrame();
+
+		assertEquals(1, button.getRenderCacheUpdateCount());
+		assertEquals(1, label.renderCount);
+		assertEquals(1, context.drawImageCount);
+	}
+
+	@Test
+	public void testUnchangedFramesOnlyDrawTheCache() {
+		for (int i = 0; i < 100; i++) {
+			renderFrame();
+		}
+
+		assertEquals(1, button.getRenderCacheUpdateCount());
+		assertEquals(1, shadow.renderCount);
+		assertEquals(1, background.renderCount);
+		assertEquals(1, label.renderCount);
+		assertEquals(101, context.drawImageCount);
+
+		//Uncached widgets are rendered every frame
+		assertEquals(101, uncached.renderCount);
+	}
+
+	@Test
+	public void testMovingAParentOnlyMovesTheCache() {
+		panel.setX(panel.getX() + 50);
+		renderFrame();
+
+		assertEquals(1, button.getRenderCacheUpdateCount());
+		assertEquals(button.getClippedX() - WidgetAssembly.DEFAULT_RENDER_CACHE_MARGIN, context.lastDrawImageX, 0f);
+	}
+
+	@Test
+	public void testInvalidatingAChildRendersTheCacheOnce() {
+		label.invalidate();
+		renderFrame();
+		renderFrame();
+
+		assertEquals(2, button.getRenderCacheUpdateCount());
+		assertEquals(2, label.renderCount);
+	}
+
+	@Test
+	public void testResizingReplacesTheFramebuffer() {
+		button.setWidth(200);
+		renderFrame();
+
+		assertEquals(2, context.createdFramebufferCount);
+		assertEquals(1, context.deletedFramebufferCount);
+		assertEquals(2, button.getRenderCacheUpdateCount());
+	}
+
+	@Test
+	public void testNewPixelRatioRendersTheCache() {
+		//e.g. the window moved to a high DPI monitor
+		context.pixelRatio = 2f;
+		renderFrame();
+
+		assertEquals(2, button.getRenderCacheUpdateCount());
+		assertEquals((int) Math.ceil((button.getWidth() + WidgetAssembly.DEFAULT_RENDER_CACHE_MARGIN * 2) * 2f), context.lastFramebufferWidth);
+	}
+
+	@Test
+	public void testDisablingTheCache() {
+		button.setRenderCacheEnabled(false);
+		renderFrame();
+		renderFrame();
+
+		assertEquals(context.createdFramebufferCount, context.deletedFramebufferCount);
+		assertEquals(3, label.renderCount);
+	}
+
+	/**
+	 * Renders a frame the same way ClearApp does (without the NanoVG frame itself).
+	 */
+	private void renderFrame() {
+		root.clearDirty();
+		root.renderCaches(context, root);
+
+		root.render(context, root);
+		root.renderChildren(context, root);
+	}
+
+	/**
+	 * A NanoVGContext that records off-screen rendering instead of using OpenGL.
+	 */
+	private static class RecordingNanoVGContext extends NanoVGContext {
+		float pixelRatio = 1f;
+
+		int createdFramebufferCount = 0;
+		int deletedFramebufferCount = 0;
+		int lastFramebufferWidth = 0;
+
+		int drawImageCount = 0;
+		float lastDrawImageX = 0f;
+
+		boolean inFramebufferFrame = false;
+
+		@Override
+		public NanoVGFramebuffer createFramebuffer(int width, int height) {
+			createdFramebufferCount++;
+			return new NanoVGFramebuffer(null, width, height);
+		}
+
+		@Override
+		public void deleteFramebuffer(NanoVGFramebuffer framebuffer) {
+			deletedFramebufferCount++;
+		}
+
+		@Override
+		public void beginFramebufferFrame(NanoVGFramebuffer framebuffer, float x, float y, float pixelRatio) {
+			assertFalse("Framebuffer frames can't be nested", inFramebufferFrame);
+			inFramebufferFrame = true;
+			lastFramebufferWidth = framebuffer.getWidth();
+		}
+
+		@Override
+		public void endFramebufferFrame() {
+			inFramebufferFrame = false;
+		}
+
+		@Override
+		public void drawFramebuffer(NanoVGFramebuffer framebuffer, float x, float y, float pixelRatio) {
+			if (!inFramebufferFrame) {
+				drawImageCount++;
+				lastDrawImageX = x;
+			}
+		}
+
+		@Override
+		public float getPixelRatio() {
+			return pixelRatio;
+		}
+	}
+}
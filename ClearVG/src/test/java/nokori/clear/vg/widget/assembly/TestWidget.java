@@ -0,0 +1,31 @@
+package nokori.clear.vg.widget.assembly;
+
+import nokori.clear.vg.NanoVGContext;
+
+/**
+ * A Widget for tests that run without a window. It doesn't draw anything, and counts how many times it's ticked and rendered.
+ */
+public class TestWidget extends Widget {
+
+	public int tickCount = 0;
+	public int renderCount = 0;
+
+	public TestWidget() {}
+
+	public TestWidget(float x, float y, float width, float height) {
+		super(x, y, width, height);
+	}
+
+	@Override
+	public void tick(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		tickCount++;
+	}
+
+	@Override
+	public void render(NanoVGContext context, WidgetAssembly rootWidgetAssembly) {
+		renderCount++;
+	}
+
+	@Override
+	public void dispose() {}
+}
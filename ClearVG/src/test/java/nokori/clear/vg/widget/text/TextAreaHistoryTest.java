@@ -0,0 +1,111 @@
+package nokori.clear.vg.widget.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import nokori.clear.vg.ClearColor;
+import nokori.clear.vg.font.Font;
+import nokori.clear.vg.font.FontStyle;
+
+/**
+ * Checks that undoing and redoing deletions restores the formatting spans of the deleted text along with the text itself. Nothing is rendered, so the Font
+ * is never loaded.
+ */
+public class TextAreaHistoryTest {
+
+	private static final TextStyle BOLD = new TextStyle(FontStyle.BOLD);
+	private static final TextStyle ITALIC = new TextStyle(FontStyle.ITALIC);
+
+	private TextAreaWidget widget;
+	private TextAreaContentHandler contentHandler;
+	private TextBuffer textBuffer;
+	private StyleSpanList formatting;
+
+	@Before
+	public void setUp() {
+		widget = new TextAreaWidget(ClearColor.BLACK, "make this word bold", new Font("test", null), 12f);
+		contentHandler = widget.getTextContentHandler();
+		textBuffer = widget.getTextBuffer();
+		formatting = widget.getFormatting();
+	}
+
+	@Test
+	public void testUndoingDeletionRestoresFormatting() {
+		formatting.add(10, 14, BOLD);
+
+		textBuffer.delete(10, 14);
+		assertEquals(0, formatting.size());
+
+		contentHandler.undo();
+		assertEquals("make this word bold", textBuffer.toString());
+		assertEquals(1, formatting.size());
+		assertSpan(0, 10, 14, BOLD);
+
+		contentHandler.redo();
+		assertEquals("make this  bold", textBuffer.toString());
+		assertEquals(0, formatting.size());
+	}
+
+	@Test
+	public void testUndoingDeletionInsideSpanRestoresIt() {
+		formatting.add(5, 14, BOLD);
+
+		textBuffer.delete(7, 11);
+		assertSpan(0, 5, 10, BOLD);
+
+		contentHandler.undo();
+		assertEquals(1, formatting.size());
+		assertSpan(0, 5, 14, BOLD);
+	}
+
+	@Test
+	public void testUndoingBackspacesRestoresFormatting() {
+		formatting.add(5, 9, BOLD);
+		formatting.add(9, 14, ITALIC);
+
+		//Backspacing from the end of "word" to the start of "this" is recorded as a single deletion
+		for (int i = 13; i >= 5; i--) {
+			textBuffer.deleteCharAt(i);
+		}
+
+		assertEquals(0, formatting.size());
+
+		contentHandler.undo();
+		assertEquals("make this word bold", textBuffer.toString());
+		assertEquals(2, formatting.size());
+		assertSpan(0, 5, 9, BOLD);
+		assertSpan(1, 9, 14, ITALIC);
+	}
+
+	@Test
+	public void testUndoingForwardDeletesRestoresFormatting() {
+		formatting.add(5, 9, BOLD);
+		formatting.add(10, 14, ITALIC);
+
+		//Deleting forward from the start of "this" to the end of "word" is recorded as a single deletion
+		for (int i = 5; i < 14; i++) {
+			textBuffer.deleteCharAt(5);
+		}
+
+		assertEquals(0, formatting.size());
+
+		contentHandler.undo();
+		assertEquals("make this word bold", textBuffer.toString());
+		assertEquals(2, formatting.size());
+		assertSpan(0, 5, 9, BOLD);
+		assertSpan(1, 10, 14, ITALIC);
+
+		contentHandler.redo();
+		assertEquals("make  bold", textBuffer.toString());
+		assertEquals(0, formatting.size());
+	}
+
+	private void assertSpan(int index, int start, int end, TextStyle style) {
+		assertEquals(start, formatting.getStart(index));
+		assertEquals(end, formatting.getEnd(index));
+		assertSame(style, formatting.getStyle(index));
+	}
+}
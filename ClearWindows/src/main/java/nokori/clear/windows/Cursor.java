@@ -38,10 +38,16 @@ public class Cursor {
         this.handle = handle;
     }
 
+    /**
+     * Sets this as the cursor of the window. Can be called from any thread (see <code>Window.setCursor()</code>).
+     */
     public void apply(Window window) {
-        apply(window.getHandle());
+        window.setCursor(this);
     }
 
+    /**
+     * Sets this as the cursor of the window. Unlike <code>apply(Window)</code>, this has to be called from the main thread.
+     */
     public void apply(long windowHandle) {
         glfwSetCursor(windowHandle, handle);
     }
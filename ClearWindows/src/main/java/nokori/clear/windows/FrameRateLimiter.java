@@ -1,6 +1,7 @@
 package nokori.clear.windows;
 
-import org.lwjgl.glfw.GLFW;
+import nokori.clear.windows.util.Clock;
+import nokori.clear.windows.util.VirtualClock;
 
 public class FrameRateLimiter {
     /**
@@ -18,6 +19,11 @@ public class FrameRateLimiter {
      */
     private static boolean initialised = false;
 
+    /**
+     * the clock the timing was initialised with
+     */
+    private static Clock clock = null;
+
     /**
      * for calculating the averages the previous sleep/yield times are stored
      */
@@ -28,13 +34,28 @@ public class FrameRateLimiter {
     /**
      * An accurate sync method that will attempt to run at a constant frame rate.
      * It should be called once every frame.
+     * <p>
+     * If the current clock (see <code>Clock.get()</code>) is a VirtualClock, it's
+     * advanced by one frame instead of waiting.
      *
      * @param fps - the desired frame rate, in frames per second
      */
     public static void sync(float fps) {
         if (fps <= 0) return;
+
+        if (Clock.get() instanceof VirtualClock) {
+            ((VirtualClock) Clock.get()).advance((long) (NANOS_IN_SECOND / fps));
+            return;
+        }
+
         if (!initialised) initialise();
 
+        // restart the timing if the clock was changed since the last frame
+        if (clock != Clock.get()) {
+            clock = Clock.get();
+            nextFrame = getTime();
+        }
+
         try {
             // sleep until the average sleep time is greater than the time remaining till nextFrame
             for (long t0 = getTime(), t1; (nextFrame - t0) > sleepDurations.avg(); t0 = t1) {
@@ -66,6 +87,7 @@ public class FrameRateLimiter {
      */
     private static void initialise() {
         initialised = true;
+        clock = Clock.get();
 
         sleepDurations.init(1000 * 1000);
         yieldDurations.init((int) (-(getTime() - getTime()) * 1.333));
@@ -95,12 +117,12 @@ public class FrameRateLimiter {
     }
 
     /**
-     * Get the system time in nano seconds
+     * Get the time of the current clock in nano seconds
      *
      * @return will return the current time in nano's
      */
     private static long getTime() {
-        return (long) (GLFW.glfwGetTime() * NANOS_IN_SECOND);
+        return clock.nanoTime();
     }
 
     private static class RunningAvg {
@@ -1,10 +1,11 @@
 package nokori.clear.windows;
 
 import nokori.clear.windows.callback.*;
-import nokori.clear.windows.event.MouseEventImpl;
+import nokori.clear.windows.event.*;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.glfw.*;
 import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
 import org.lwjgl.stb.STBImage;
 
 import java.io.File;
@@ -18,6 +19,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.system.MemoryUtil.NULL;
 import static org.lwjgl.system.MemoryStack.*;
 
 public class Window {
@@ -34,6 +36,7 @@ public class Window {
     private ContextParams contextParams;
 
     private boolean initialized;
+    private GLCapabilities capabilities;
     private boolean advancedSwapSupported;
 
     private int swapInterval;
@@ -79,6 +82,9 @@ public class Window {
     private ArrayList<WindowSizeCallback> windowSizeCallbacks = new ArrayList<>();
     private ArrayList<WindowFramebufferSizeCallback> windowFramebufferSizeCallbacks = new ArrayList<>();
 
+    //If set, input events are put in this queue instead of being sent to the input callbacks (see setEventQueue())
+    private volatile EventQueue eventQueue = null;
+
     private AtomicIntegerArray pressedKeys;
 
     //
@@ -130,6 +136,13 @@ public class Window {
                     pressedKeys.set(key, action != GLFW_RELEASE ? 1 : 0);
                 }
 
+                EventQueue queue = eventQueue;
+
+                if (queue != null) {
+                    queue.offer(KeyEvent.fire(Window.this, System.nanoTime(), key, scancode, action != GLFW_RELEASE, action == GLFW_REPEAT, mods));
+                    return;
+                }
+
                 for (KeyCallback keyCallback : keyCallbacks) {
                     keyCallback.keyEvent(Window.this, System.nanoTime(), key, scancode, action != GLFW_RELEASE, action == GLFW_REPEAT, mods);
                 }
@@ -139,6 +152,13 @@ public class Window {
         glfwSetCharModsCallback(handle, glfwCharModsCallback = new GLFWCharModsCallback() {
             @Override
             public void invoke(long window, int codepoint, int mods) {
+                EventQueue queue = eventQueue;
+
+                if (queue != null) {
+                    queue.offer(CharEvent.fire(Window.this, System.nanoTime(), codepoint, String.valueOf(Character.toChars(codepoint)), mods));
+                    return;
+                }
+
                 for (CharCallback charCallback : charCallbacks) {
                     charCallback.charEvent(Window.this, System.nanoTime(), codepoint, String.valueOf(Character.toChars(codepoint)), mods);
                 }
@@ -154,8 +174,14 @@ public class Window {
                 double dx = correctedX - mouseX;
                 double dy = correctedY - mouseY;
 
-                for (MouseMotionCallback mouseMotionCallback : mouseMotionCallbacks) {
-                    mouseMotionCallback.mouseMotionEvent(Window.this, System.nanoTime(), correctedX, correctedY, dx, dy);
+                EventQueue queue = eventQueue;
+
+                if (queue != null) {
+                    queue.offer(MouseMotionEvent.fire(Window.this, System.nanoTime(), correctedX, correctedY, dx, dy));
+                } else {
+                    for (MouseMotionCallback mouseMotionCallback : mouseMotionCallbacks) {
+                        mouseMotionCallback.mouseMotionEvent(Window.this, System.nanoTime(), correctedX, correctedY, dx, dy);
+                    }
                 }
 
                 mouseX = correctedX;
@@ -167,6 +193,13 @@ public class Window {
 
             @Override
             public void invoke(long window, int button, int action, int mods) {
+                EventQueue queue = eventQueue;
+
+                if (queue != null) {
+                    queue.offer(MouseButtonEvent.fire(Window.this, System.nanoTime(), mouseX, mouseY, button, action == GLFW_PRESS, mods));
+                    return;
+                }
+
                 for (MouseButtonCallback mouseCallback : mouseCallbacks) {
                     mouseCallback.mouseButtonEvent(Window.this, System.nanoTime(), mouseX, mouseY, button, action == GLFW_PRESS, mods);
                 }
@@ -176,6 +209,13 @@ public class Window {
         glfwSetScrollCallback(handle, glfwScrollCallback = new GLFWScrollCallback() {
             @Override
             public void invoke(long window, double xoffset, double yoffset) {
+                EventQueue queue = eventQueue;
+
+                if (queue != null) {
+                    queue.offer(MouseScrollEvent.fire(Window.this, System.nanoTime(), mouseX, mouseY, xoffset, yoffset));
+                    return;
+                }
+
                 for (MouseScrollCallback scrollCallback : scrollCallbacks) {
                     scrollCallback.scrollEvent(Window.this, System.nanoTime(), mouseX, mouseY, xoffset, yoffset);
                 }
@@ -246,16 +286,27 @@ public class Window {
         glfwMakeContextCurrent(handle);
 
         if (!initialized) {
-            GL.createCapabilities();
+            capabilities = GL.createCapabilities();
 
             advancedSwapSupported =
                     glfwExtensionSupported("WGL_EXT_swap_control_tear") ||
                             glfwExtensionSupported("GLX_EXT_swap_control_tear");
 
             initialized = true;
+        } else {
+            //The capabilities are thread-local, so they have to be set again if the context was moved to another thread
+            GL.setCapabilities(capabilities);
         }
     }
 
+    /**
+     * Detaches the current OpenGL context from the calling thread, so that it can be made current on another thread.
+     */
+    public static void releaseCurrentContext() {
+        glfwMakeContextCurrent(NULL);
+        GL.setCapabilities(null);
+    }
+
     public void setSwapInterval(int swapInterval) {
         if (this.swapInterval != swapInterval) {
             this.swapInterval = swapInterval;
@@ -344,12 +395,19 @@ public class Window {
         glfwSetWindowTitle(handle, title);
     }
 
+    /**
+     * Can be called from any thread; the cursor is set on the main thread (see <code>WindowManager.runOnMainThread()</code>).
+     */
     public void setCursor(Cursor cursor) {
-        glfwSetCursor(handle, cursor.getHandle());
+        long cursorHandle = cursor.getHandle();
+        parent.runOnMainThread(() -> glfwSetCursor(handle, cursorHandle));
     }
 
+    /**
+     * Can be called from any thread; the mouse is moved on the main thread (see <code>WindowManager.runOnMainThread()</code>).
+     */
     public void setMousePosition(int x, int y) {
-        glfwSetCursorPos(getHandle(), x, y);
+        parent.runOnMainThread(() -> glfwSetCursorPos(handle, x, y));
     }
 
     public boolean isCloseRequested() {
@@ -394,12 +452,19 @@ public class Window {
     }
 
     //clipboard
+
+    /**
+     * Can be called from any thread; the clipboard is set on the main thread (see <code>WindowManager.runOnMainThread()</code>).
+     */
     public void setClipboardString(String string) {
-        glfwSetClipboardString(handle, string);
+        parent.runOnMainThread(() -> glfwSetClipboardString(handle, string));
     }
 
+    /**
+     * Can be called from any thread. From other threads, this waits for the main thread to read the clipboard (see <code>WindowManager.callOnMainThread()</code>).
+     */
     public String getClipboardString() {
-        return glfwGetClipboardString(handle);
+        return parent.callOnMainThread(() -> glfwGetClipboardString(handle));
     }
 
     private boolean getWindowAttribute(int attribute) {
@@ -536,6 +601,21 @@ public class Window {
         }
     }
 
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    /**
+     * Sets a queue for the input events of this Window. While set, key, char, mouse button, mouse motion and mouse scroll events are put into the queue as they're
+     * polled, and the input callbacks for them aren't called; the thread consuming the queue is responsible for handling them. This lets input be polled on a
+     * different thread than the one rendering the Window (see <code>WindowedApplication.setInputThreadEnabled()</code>).
+     *
+     * @param eventQueue - the queue, or null to go back to calling the input callbacks directly
+     */
+    public void setEventQueue(EventQueue eventQueue) {
+        this.eventQueue = eventQueue;
+    }
+
     public ArrayList<KeyCallback> getKeyCallbacks() {
         return keyCallbacks;
     }
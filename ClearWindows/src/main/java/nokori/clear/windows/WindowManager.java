@@ -8,7 +8,12 @@ import org.lwjgl.glfw.GLFWJoystickCallback;
 import org.lwjgl.system.MemoryUtil;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
@@ -35,8 +40,15 @@ public class WindowManager {
     private volatile boolean running;
     private CountDownLatch latch;
 
+    //The thread GLFW was initialized on, which is the only one allowed to call most GLFW functions
+    private Thread mainThread;
+
+    //Tasks sent to the main thread by runOnMainThread(), run by the event loop
+    private ConcurrentLinkedQueue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+
     public WindowManager() throws GLFWException {
         windows = new ArrayList<>(); //Needs to happen before we start the thread for fullscreen focus handling.
+        mainThread = Thread.currentThread();
         initGLFW();
     }
 
@@ -127,6 +139,100 @@ public class WindowManager {
         }
     }
 
+    /**
+     * Blocks the calling thread until at least one event is available, then processes all of the available events (like glfwPollEvents()).
+     */
+    public void waitEvents() {
+        glfwWaitEvents();
+    }
+
+    /**
+     * Same as <code>waitEvents()</code>, but stops waiting after the timeout even if no events were received.
+     *
+     * @param timeoutSeconds - the maximum time to wait, in seconds
+     */
+    public void waitEvents(double timeoutSeconds) {
+        glfwWaitEventsTimeout(timeoutSeconds);
+    }
+
+    /**
+     * Posts an empty event to the event queue, causing <code>waitEvents()</code> to return. Unlike most functions in this class, this can be called from any thread.
+     */
+    public void postEmptyEvent() {
+        glfwPostEmptyEvent();
+    }
+
+    /**
+     * @return true if the calling thread is the one this WindowManager (and therefore GLFW) was created on
+     */
+    public boolean isMainThread() {
+        return (Thread.currentThread() == mainThread);
+    }
+
+    /**
+     * Runs the task on the main thread, for GLFW functions that can only be called from there (e.g. setting the cursor or the clipboard). If called from the
+     * main thread, the task is run immediately. Otherwise, it's run by <code>startEventLoop()</code> after it next polls events, and this function returns
+     * without waiting for it. If the event loop isn't running, the task is run on the calling thread instead.
+     *
+     * @param task
+     */
+    public void runOnMainThread(Runnable task) {
+        if (isMainThread() || !running) {
+            task.run();
+            return;
+        }
+
+        enqueueMainThreadTask(task);
+    }
+
+    /**
+     * Same as <code>runOnMainThread()</code>, but waits for the task to finish and returns its result.
+     *
+     * @param task
+     * @return the result of the task
+     */
+    public <T> T callOnMainThread(Supplier<T> task) {
+        if (isMainThread() || !running) {
+            return task.get();
+        }
+
+        FutureTask<T> future = new FutureTask<>(task::get);
+        enqueueMainThreadTask(future);
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void enqueueMainThreadTask(Runnable task) {
+        mainThreadTasks.add(task);
+
+        /*
+         * The event loop may have ended (and run its remaining tasks) between the running check of the caller and the add() above, in which case nothing
+         * would run the task. startEventLoop() clears running before that last runMainThreadTasks(), so either it sees the task, or the task is still queued
+         * here and can be taken back (remove() fails if the loop already polled it) and run on this thread.
+         */
+        if (!running && mainThreadTasks.remove(task)) {
+            task.run();
+            return;
+        }
+
+        glfwPostEmptyEvent();
+    }
+
+    private void runMainThreadTasks() {
+        Runnable task;
+
+        while ((task = mainThreadTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
     private void redetectJoysticks() {
         for (int i = 0; i <= GLFW_JOYSTICK_LAST; i++) {
             if (joysticks[i] != null && joystickStateCallback != null) {
@@ -289,7 +395,20 @@ public class WindowManager {
         return joysticks[index];
     }
 
+    /**
+     * Polls events on the calling thread until <code>stopEventLoop()</code> is called. This has to be called on the main thread, and is meant for programs that
+     * render their windows on other threads. Each window's input callbacks (or its EventQueue) are called from this thread.
+     */
     public void startEventLoop() {
+        startEventLoop(() -> true);
+    }
+
+    /**
+     * Same as <code>startEventLoop()</code>, but the loop also ends as soon as the condition is false.
+     *
+     * @param condition - checked after events are polled
+     */
+    public void startEventLoop(BooleanSupplier condition) {
 
         running = true;
         latch = new CountDownLatch(1);
@@ -298,8 +417,9 @@ public class WindowManager {
         updateMeasureTime = System.nanoTime() + 100_000_000;
         currentTimeout = 1_000_000;
 
-        while (running) {
+        while (running && condition.getAsBoolean()) {
             handleEvents();
+            runMainThreadTasks();
 
             updates++;
 
@@ -323,12 +443,18 @@ public class WindowManager {
             }
         }
 
+        running = false;
+
+        //Tasks sent just before the loop ended would otherwise never run
+        runMainThreadTasks();
+
         latch.countDown();
     }
 
     public void stopEventLoop() {
         System.out.println("WindowManager: Stopping GLFW event thread...");
         running = false;
+        glfwPostEmptyEvent();
         try {
             latch.await();
         } catch (InterruptedException e) {
@@ -338,7 +464,8 @@ public class WindowManager {
     }
 
     private void handleEvents() {
-        glfwPollEvents();
+        //Waiting for the (adaptive) timeout keeps the loop at about 1000 updates per second without spinning
+        glfwWaitEventsTimeout(currentTimeout / 1_000_000_000.0);
 
         pollJoysticks();
         handleFullscreenFocus();
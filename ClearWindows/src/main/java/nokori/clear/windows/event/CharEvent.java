@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class CharEvent extends EventImpl {
 
-    private static final Pool<CharEvent> POOL = new Pool<CharEvent>() {
+    private static final Pool<CharEvent> POOL = new ConcurrentPool<CharEvent>() {
         @Override
         protected CharEvent create() {
             return new CharEvent();
@@ -30,15 +31,22 @@ public class CharEvent extends EventImpl {
     }
 
     public int getCodepoint() {
+        checkRecycled();
         return codepoint;
     }
 
     public String getCharString() {
+        checkRecycled();
         return c;
     }
 
     public int getMods() {
+        checkRecycled();
         return mods;
     }
 
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
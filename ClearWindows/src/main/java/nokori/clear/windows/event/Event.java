@@ -13,4 +13,10 @@ public interface Event extends Poolable {
 
     public boolean isConsumed();
 
+    /**
+     * Returns this event to its pool so that it can be reused for a later event. Events are only valid until they've been recycled, so listeners shouldn't keep
+     * references to them; copy any values that need to be kept instead.
+     */
+    public void recycle();
+
 }
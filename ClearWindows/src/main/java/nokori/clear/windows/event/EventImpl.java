@@ -1,37 +1,87 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.Pool;
 
 public abstract class EventImpl implements Event {
 
+    private static boolean recycleDebugEnabled = false;
+
     protected long timestamp;
     protected Window window = null;
     protected boolean consumed = false;
 
+    //Only used when recycle debugging is enabled
+    private boolean recycled = false;
+
     @Override
     public void reset() {
         window = null;
         consumed = false;
     }
 
+    /**
+     * Returns this event to the given pool. If recycle debugging is enabled, the event is marked as recycled instead and is never reused, so that any
+     * further use of it can be caught.
+     *
+     * @param pool - the pool this event came from
+     */
+    @SuppressWarnings("unchecked")
+    protected <E extends EventImpl> void recycle(Pool<E> pool) {
+        if (recycleDebugEnabled) {
+            checkRecycled();
+            recycled = true;
+            return;
+        }
+
+        pool.recycle((E) this);
+    }
+
+    /**
+     * Throws an exception if this event is used after being recycled. Only checked when recycle debugging is enabled.
+     */
+    protected void checkRecycled() {
+        if (recycled) {
+            throw new IllegalStateException(getClass().getSimpleName() + " was used after being recycled. Events are only valid while they're being dispatched.");
+        }
+    }
+
     @Override
     public long getTimestamp() {
+        checkRecycled();
         return timestamp;
     }
 
     @Override
     public Window getWindow() {
+        checkRecycled();
         return window;
     }
 
     @Override
     public void setConsumed(boolean consumed) {
+        checkRecycled();
         this.consumed = consumed;
     }
 
     @Override
     public boolean isConsumed() {
+        checkRecycled();
         return consumed;
     }
 
+    public static boolean isRecycleDebugEnabled() {
+        return recycleDebugEnabled;
+    }
+
+    /**
+     * If enabled, recycled events are never reused, and using an event after it has been recycled (or recycling it twice) throws an
+     * <code>IllegalStateException</code>. This helps find listeners that keep references to events, at the cost of every event being a new allocation.
+     *
+     * @param recycleDebugEnabled
+     */
+    public static void setRecycleDebugEnabled(boolean recycleDebugEnabled) {
+        EventImpl.recycleDebugEnabled = recycleDebugEnabled;
+    }
+
 }
@@ -0,0 +1,142 @@
+package nokori.clear.windows.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free ring buffer that carries input events from the thread polling GLFW to the thread rendering a Window (see
+ * <code>Window.setEventQueue()</code>). Events come out in the same order they were put in.
+ * <br><br>
+ * There must only be one producer thread (the one polling events) and one consumer thread. If the queue is full, new events are recycled and dropped.
+ */
+public class EventQueue {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<Event> buffer;
+    private final int mask;
+
+    //The index of the next event to read (only advanced by the consumer) and the next event to write (only advanced by the producer)
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong droppedEventCount = new AtomicLong();
+
+    //The consumer, if it's waiting for events in awaitEvents()
+    private volatile Thread consumerThread = null;
+    private volatile boolean consumerWaiting = false;
+
+    public EventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - the maximum number of events waiting to be consumed. Rounded up to a power of two.
+     */
+    public EventQueue(int capacity) {
+        int c = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+
+        buffer = new AtomicReferenceArray<>(c);
+        mask = c - 1;
+    }
+
+    /**
+     * Adds an event to the end of the queue. Only called from the producer thread.
+     *
+     * @param event
+     * @return false if the queue was full, in which case the event is recycled
+     */
+    public boolean offer(Event event) {
+        long t = tail.get();
+
+        if (t - head.get() >= buffer.length()) {
+            droppedEventCount.incrementAndGet();
+            event.recycle();
+            return false;
+        }
+
+        buffer.lazySet((int) (t & mask), event);
+        tail.set(t + 1);
+
+        if (consumerWaiting) {
+            wakeUp();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the event at the front of the queue. Only called from the consumer thread.
+     *
+     * @return the event, or null if the queue is empty
+     */
+    public Event poll() {
+        long h = head.get();
+
+        if (h == tail.get()) {
+            return null;
+        }
+
+        int index = (int) (h & mask);
+        Event event = buffer.get(index);
+
+        buffer.lazySet(index, null);
+        head.lazySet(h + 1);
+
+        return event;
+    }
+
+    /**
+     * Blocks the consumer thread until an event is added, <code>wakeUp()</code> is called, or the timeout runs out. Returns immediately if the queue isn't empty.
+     *
+     * @param timeoutNanos - the maximum time to wait, or a negative number to wait indefinitely
+     */
+    public void awaitEvents(long timeoutNanos) {
+        consumerThread = Thread.currentThread();
+        consumerWaiting = true;
+
+        if (isEmpty()) {
+            if (timeoutNanos < 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        }
+
+        consumerWaiting = false;
+    }
+
+    /**
+     * Wakes up the consumer thread if it's waiting in <code>awaitEvents()</code>. Can be called from any thread.
+     */
+    public void wakeUp() {
+        Thread thread = consumerThread;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * @return the number of events waiting to be consumed
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    /**
+     * @return the number of events that were dropped because the queue was full
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+}
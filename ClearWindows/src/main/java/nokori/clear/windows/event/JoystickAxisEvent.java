@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Joystick;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class JoystickAxisEvent extends EventImpl {
 
-    private static final Pool<JoystickAxisEvent> POOL = new Pool<JoystickAxisEvent>() {
+    private static final Pool<JoystickAxisEvent> POOL = new ConcurrentPool<JoystickAxisEvent>() {
         @Override
         protected JoystickAxisEvent create() {
             return new JoystickAxisEvent();
@@ -38,14 +39,22 @@ public class JoystickAxisEvent extends EventImpl {
     }
 
     public Joystick getJoystick() {
+        checkRecycled();
         return joystick;
     }
 
     public int getAxis() {
+        checkRecycled();
         return axis;
     }
 
     public float getNewValue() {
+        checkRecycled();
         return newValue;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Joystick;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class JoystickButtonEvent extends EventImpl {
 
-    private static final Pool<JoystickButtonEvent> POOL = new Pool<JoystickButtonEvent>() {
+    private static final Pool<JoystickButtonEvent> POOL = new ConcurrentPool<JoystickButtonEvent>() {
         @Override
         protected JoystickButtonEvent create() {
             return new JoystickButtonEvent();
@@ -38,14 +39,22 @@ public class JoystickButtonEvent extends EventImpl {
     }
 
     public Joystick getJoystick() {
+        checkRecycled();
         return joystick;
     }
 
     public int getButton() {
+        checkRecycled();
         return button;
     }
 
     public boolean isPressed() {
+        checkRecycled();
         return pressed;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Joystick;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class JoystickStateEvent extends EventImpl {
 
-    private static final Pool<JoystickStateEvent> POOL = new Pool<JoystickStateEvent>() {
+    private static final Pool<JoystickStateEvent> POOL = new ConcurrentPool<JoystickStateEvent>() {
         @Override
         protected JoystickStateEvent create() {
             return new JoystickStateEvent();
@@ -36,10 +37,17 @@ public class JoystickStateEvent extends EventImpl {
     }
 
     public Joystick getJoystick() {
+        checkRecycled();
         return joystick;
     }
 
     public boolean isConnected() {
+        checkRecycled();
         return connected;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
\ No newline at end of file
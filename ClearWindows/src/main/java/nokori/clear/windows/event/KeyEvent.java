@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class KeyEvent extends EventImpl {
 
-    private static final Pool<KeyEvent> POOL = new Pool<KeyEvent>() {
+    private static final Pool<KeyEvent> POOL = new ConcurrentPool<KeyEvent>() {
         @Override
         protected KeyEvent create() {
             return new KeyEvent();
@@ -37,22 +38,32 @@ public class KeyEvent extends EventImpl {
     }
 
     public int getKey() {
+        checkRecycled();
         return key;
     }
 
     public int getScanCode() {
+        checkRecycled();
         return scanCode;
     }
 
     public boolean isPressed() {
+        checkRecycled();
         return pressed;
     }
 
     public boolean isRepeat() {
+        checkRecycled();
         return repeat;
     }
 
     public int getMods() {
+        checkRecycled();
         return mods;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
\ No newline at end of file
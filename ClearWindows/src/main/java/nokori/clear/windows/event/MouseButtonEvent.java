@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class MouseButtonEvent extends MouseEventImpl {
 
-    private static final Pool<MouseButtonEvent> POOL = new Pool<MouseButtonEvent>() {
+    private static final Pool<MouseButtonEvent> POOL = new ConcurrentPool<MouseButtonEvent>() {
         @Override
         protected MouseButtonEvent create() {
             return new MouseButtonEvent();
@@ -35,14 +36,22 @@ public class MouseButtonEvent extends MouseEventImpl {
     }
 
     public int getButton() {
+        checkRecycled();
         return button;
     }
 
     public boolean isPressed() {
+        checkRecycled();
         return pressed;
     }
 
     public int getMods() {
+        checkRecycled();
         return mods;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
\ No newline at end of file
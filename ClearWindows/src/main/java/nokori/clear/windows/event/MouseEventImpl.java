@@ -5,18 +5,22 @@ public abstract class MouseEventImpl extends EventImpl {
     protected double mouseY;
 
     public double getMouseX() {
+        checkRecycled();
         return mouseX;
     }
 
     public double getMouseY() {
+        checkRecycled();
         return mouseY;
     }
 
     public double getScaledMouseX(double scale) {
+        checkRecycled();
         return getScaledMouseCoordinate(mouseX, scale);
     }
 
     public double getScaledMouseY(double scale) {
+        checkRecycled();
         return getScaledMouseCoordinate(mouseY, scale);
     }
 
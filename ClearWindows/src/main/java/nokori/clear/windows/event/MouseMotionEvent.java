@@ -1,11 +1,14 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
+import java.util.Arrays;
+
 public class MouseMotionEvent extends MouseEventImpl {
 
-    private static final Pool<MouseMotionEvent> POOL = new Pool<MouseMotionEvent>() {
+    private static final Pool<MouseMotionEvent> POOL = new ConcurrentPool<MouseMotionEvent>() {
         @Override
         protected MouseMotionEvent create() {
             return new MouseMotionEvent();
@@ -15,9 +18,21 @@ public class MouseMotionEvent extends MouseEventImpl {
     private double dx;
     private double dy;
 
+    //The raw samples of the events merged into this one by coalesce(), oldest first. The arrays are kept when the event is recycled.
+    private int historySize = 0;
+    private long[] historyTimestamps = new long[8];
+    private double[] historyMouseX = new double[8];
+    private double[] historyMouseY = new double[8];
+
     private MouseMotionEvent() {
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        historySize = 0;
+    }
+
     public static MouseMotionEvent fire(Window window, long timestamp, double mouseX, double mouseY, double dx, double dy) {
 
         MouseMotionEvent e = POOL.get();
@@ -33,10 +48,90 @@ public class MouseMotionEvent extends MouseEventImpl {
     }
 
     public double getDX() {
+        checkRecycled();
         return dx;
     }
 
     public double getDY() {
+        checkRecycled();
         return dy;
     }
+
+    /**
+     * Merges a later event into this one. This event takes the position and timestamp of the later event and the sum of both movements, while its own position
+     * (and the history of the later event) is added to the history. The later event isn't changed or recycled.
+     *
+     * @param event - the next MouseMotionEvent from the same Window
+     */
+    public void coalesce(MouseMotionEvent event) {
+        checkRecycled();
+
+        addHistory(timestamp, mouseX, mouseY);
+
+        for (int i = 0; i < event.historySize; i++) {
+            addHistory(event.historyTimestamps[i], event.historyMouseX[i], event.historyMouseY[i]);
+        }
+
+        timestamp = event.timestamp;
+        mouseX = event.mouseX;
+        mouseY = event.mouseY;
+        dx += event.dx;
+        dy += event.dy;
+    }
+
+    private void addHistory(long timestamp, double mouseX, double mouseY) {
+        if (historySize == historyTimestamps.length) {
+            int capacity = historySize * 2;
+
+            historyTimestamps = Arrays.copyOf(historyTimestamps, capacity);
+            historyMouseX = Arrays.copyOf(historyMouseX, capacity);
+            historyMouseY = Arrays.copyOf(historyMouseY, capacity);
+        }
+
+        historyTimestamps[historySize] = timestamp;
+        historyMouseX[historySize] = mouseX;
+        historyMouseY[historySize] = mouseY;
+        historySize++;
+    }
+
+    /**
+     * @return the number of raw samples that were merged into this event before its current position (0 if it wasn't coalesced)
+     */
+    public int getHistorySize() {
+        checkRecycled();
+        return historySize;
+    }
+
+    /**
+     * @param index - from 0 (the oldest sample) to getHistorySize() - 1
+     * @return the timestamp of the sample
+     */
+    public long getHistoricalTimestamp(int index) {
+        checkRecycled();
+        checkHistoryIndex(index);
+        return historyTimestamps[index];
+    }
+
+    public double getHistoricalMouseX(int index) {
+        checkRecycled();
+        checkHistoryIndex(index);
+        return historyMouseX[index];
+    }
+
+    public double getHistoricalMouseY(int index) {
+        checkRecycled();
+        checkHistoryIndex(index);
+        return historyMouseY[index];
+    }
+
+    private void checkHistoryIndex(int index) {
+        if (index < 0 || index >= historySize) {
+            throw new IndexOutOfBoundsException("History index " + index + " is out of bounds (history size: " + historySize + ")");
+        }
+    }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
@@ -1,11 +1,12 @@
 package nokori.clear.windows.event;
 
 import nokori.clear.windows.Window;
+import nokori.clear.windows.pool.ConcurrentPool;
 import nokori.clear.windows.pool.Pool;
 
 public class MouseScrollEvent extends MouseEventImpl {
 
-    private static final Pool<MouseScrollEvent> POOL = new Pool<MouseScrollEvent>() {
+    private static final Pool<MouseScrollEvent> POOL = new ConcurrentPool<MouseScrollEvent>() {
         @Override
         protected MouseScrollEvent create() {
             return new MouseScrollEvent();
@@ -33,10 +34,17 @@ public class MouseScrollEvent extends MouseEventImpl {
     }
 
     public double getXOffset() {
+        checkRecycled();
         return xoffset;
     }
 
     public double getYOffset() {
+        checkRecycled();
         return yoffset;
     }
+
+    @Override
+    public void recycle() {
+        recycle(POOL);
+    }
 }
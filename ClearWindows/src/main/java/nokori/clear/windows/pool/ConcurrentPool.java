@@ -0,0 +1,125 @@
+package nokori.clear.windows.pool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Pool that objects can be recycled into from any thread without locking.
+ * <br><br>
+ * The pool is owned by the first thread that calls <code>get()</code> (usually the thread polling GLFW events). Objects recycled on the owning thread go
+ * straight back into the regular pool. Objects recycled on other threads (e.g. workers consuming events) are put into a bounded lock-free queue, which the owning
+ * thread drains when the regular pool runs out. If the queue is full, the object is dropped and left to the garbage collector.
+ * <br><br>
+ * Calling <code>get()</code> from a thread other than the owner is safe, but always creates a new object.
+ */
+public abstract class ConcurrentPool<E extends Poolable> extends Pool<E> {
+
+    public static final int DEFAULT_RETURN_QUEUE_CAPACITY = 256;
+
+    private final AtomicReference<Thread> owner = new AtomicReference<>();
+
+    /*
+     * Lock-free multi-producer, single-consumer queue for objects recycled on other threads. Producers claim a slot by advancing the tail, then publish the object
+     * into it. The owning thread is the only consumer; a null slot at the head means the queue is empty (or the object hasn't been published yet).
+     */
+    private final AtomicReferenceArray<E> returnQueue;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicInteger foreignAllocationCount = new AtomicInteger();
+
+    public ConcurrentPool() {
+        this(DEFAULT_RETURN_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param returnQueueCapacity - the maximum number of objects that can be waiting to be returned from other threads. Rounded up to a power of two.
+     */
+    public ConcurrentPool(int returnQueueCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(returnQueueCapacity, 2) - 1) << 1;
+
+        returnQueue = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    @Override
+    public E get() {
+        Thread thread = Thread.currentThread();
+
+        if (!isOwner(thread) && !owner.compareAndSet(null, thread)) {
+            foreignAllocationCount.incrementAndGet();
+            return create();
+        }
+
+        if (pool.isEmpty()) {
+            drainReturnQueue();
+        }
+
+        return super.get();
+    }
+
+    @Override
+    public void recycle(E poolable) {
+        if (isOwner(Thread.currentThread())) {
+            super.recycle(poolable);
+            return;
+        }
+
+        poolable.reset();
+
+        while (true) {
+            long t = tail.get();
+
+            //Full: let the garbage collector have it rather than waiting on the owner
+            if (t - head.get() >= returnQueue.length()) {
+                return;
+            }
+
+            if (tail.compareAndSet(t, t + 1)) {
+                returnQueue.lazySet((int) (t & mask), poolable);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the objects recycled on other threads into the regular pool. Only called on the owning thread.
+     */
+    private void drainReturnQueue() {
+        long h = head.get();
+
+        while (true) {
+            int index = (int) (h & mask);
+            E e = returnQueue.get(index);
+
+            if (e == null) {
+                break;
+            }
+
+            returnQueue.lazySet(index, null);
+            pool.add(e);
+            h++;
+        }
+
+        head.lazySet(h);
+    }
+
+    private boolean isOwner(Thread thread) {
+        return owner.get() == thread;
+    }
+
+    /**
+     * @return the thread that owns this pool, or null if <code>get()</code> hasn't been called yet
+     */
+    public Thread getOwner() {
+        return owner.get();
+    }
+
+    @Override
+    public int getAllocationCount() {
+        return super.getAllocationCount() + foreignAllocationCount.get();
+    }
+}
@@ -2,7 +2,9 @@ package nokori.clear.windows.pool;
 
 import nokori.clear.windows.util.FastArrayList;
 
-
+/**
+ * A simple object pool. This isn't thread-safe; use ConcurrentPool if objects are recycled on a different thread than the one they're taken from.
+ */
 public abstract class Pool<E extends Poolable> {
 
     protected FastArrayList<E> pool;
@@ -0,0 +1,51 @@
+package nokori.clear.windows.util;
+
+/**
+ * A source of time in nanoseconds. The clock returned by <code>get()</code> is used for Stopwatches, Transitions, and FrameRateLimiter, so replacing it
+ * with a VirtualClock makes animations run on simulated time instead of real time (e.g. to benchmark them repeatably, or to run them faster than real time
+ * in headless tests).
+ */
+public abstract class Clock {
+
+    /**
+     * The default clock, which uses <code>System.nanoTime()</code>.
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private static volatile Clock clock = SYSTEM_CLOCK;
+
+    /**
+     * @return the current time of this clock in nanoseconds. Like <code>System.nanoTime()</code>, this is only meaningful compared to other times from the
+     * same clock.
+     */
+    public abstract long nanoTime();
+
+    /**
+     * @return the clock currently used for timing
+     */
+    public static Clock get() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock used for timing. Stopwatches and Transitions that are already running should be restarted afterwards, since their times came from
+     * the previous clock.
+     *
+     * @param clock - the new clock, or null to go back to SYSTEM_CLOCK
+     */
+    public static void set(Clock clock) {
+        Clock.clock = (clock != null ? clock : SYSTEM_CLOCK);
+    }
+
+    /**
+     * @return the current time of the clock currently used for timing, in nanoseconds
+     */
+    public static long now() {
+        return clock.nanoTime();
+    }
+}
@@ -3,7 +3,8 @@ package nokori.clear.windows.util;
 import java.util.concurrent.TimeUnit;
 
 /**
- * This is a basic utility class that can be used to measure time. This can be useful for setting up delays and transitions.
+ * This is a basic utility class that can be used to measure time. This can be useful for setting up delays and transitions. The time is read from
+ * <code>Clock.get()</code>.
  *
  * @author Brayden
  */
@@ -22,17 +23,17 @@ public class Stopwatch {
      */
     public void timeInNanoseconds(long endTimeDistanceInNanoseconds) {
         started = true;
-        startTimeInNanoseconds = System.nanoTime();
+        startTimeInNanoseconds = Clock.now();
         endTimeInNanoseconds = startTimeInNanoseconds + endTimeDistanceInNanoseconds;
     }
 
     public boolean hasTimePassedInMillis(long timeInMillis) {
-        long currentTime = System.nanoTime();
+        long currentTime = Clock.now();
         return (started && TimeUnit.NANOSECONDS.toMillis(currentTime - startTimeInNanoseconds) > timeInMillis);
     }
 
     public boolean hasTimePassedInNanoseconds(long timeInNanoseconds) {
-        long currentTime = System.nanoTime();
+        long currentTime = Clock.now();
         return (started && (currentTime - startTimeInNanoseconds) > timeInNanoseconds);
     }
 
@@ -53,7 +54,7 @@ public class Stopwatch {
     }
 
     public boolean isCurrentTimePassedEndTime() {
-        return (System.nanoTime() > getEndTimeInNanoseconds());
+        return (Clock.now() > getEndTimeInNanoseconds());
     }
 
     /**
@@ -73,7 +74,7 @@ public class Stopwatch {
             return 0f;
         }
 
-        long currentTime = System.nanoTime();
+        long currentTime = Clock.now();
 
         double maxDistance = endTimeInNanoseconds - startTimeInNanoseconds;
         double distance = Math.max(endTimeInNanoseconds - currentTime, 0);
@@ -0,0 +1,54 @@
+package nokori.clear.windows.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Clock that only moves when it's advanced. Set it with <code>Clock.set()</code> to step animations through simulated time: each call to
+ * <code>FrameRateLimiter.sync()</code> advances it by one frame instead of sleeping, or it can be advanced manually with <code>advance()</code>.
+ */
+public class VirtualClock extends Clock {
+    private volatile long time;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * @param startTimeInNanoseconds - the time this clock starts at
+     */
+    public VirtualClock(long startTimeInNanoseconds) {
+        this.time = startTimeInNanoseconds;
+    }
+
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+
+    /**
+     * Moves this clock forward.
+     *
+     * @param nanoseconds - the time to move forward by
+     */
+    public synchronized void advance(long nanoseconds) {
+        time += nanoseconds;
+    }
+
+    /**
+     * Moves this clock forward.
+     *
+     * @param milliseconds - the time to move forward by
+     */
+    public void advanceInMilliseconds(long milliseconds) {
+        advance(TimeUnit.MILLISECONDS.toNanos(milliseconds));
+    }
+
+    /**
+     * Sets the current time of this clock.
+     *
+     * @param timeInNanoseconds
+     */
+    public synchronized void setTime(long timeInNanoseconds) {
+        time = timeInNanoseconds;
+    }
+}
@@ -3,13 +3,26 @@ package nokori.clear.windows.util;
 import nokori.clear.windows.GLFWException;
 import nokori.clear.windows.Window;
 import nokori.clear.windows.WindowManager;
+import nokori.clear.windows.event.EventQueue;
 
 
 public abstract class WindowedApplication {
 
+    public static final double DEFAULT_POWER_SAVING_TIMEOUT = 0.5;
+
     protected WindowManager windowManager;
     protected Window window;
 
+    //See setPowerSavingEnabled()
+    private boolean powerSavingEnabled = false;
+    private double powerSavingTimeout = DEFAULT_POWER_SAVING_TIMEOUT;
+
+    //Set from any thread by requestUpdate()
+    private volatile boolean updateRequested = false;
+
+    //See setInputThreadEnabled()
+    private boolean inputThreadEnabled = false;
+
     public WindowedApplication(WindowManager windowManager) {
         this.windowManager = windowManager;
     }
@@ -65,14 +78,96 @@ public abstract class WindowedApplication {
     }
 
     protected void loop() {
+        if (inputThreadEnabled) {
+            loopWithInputThread();
+            return;
+        }
+
         //Software loop
         while (!window.isCloseRequested()) {
             run();
-            windowManager.update(true);
+
+            boolean frameRendered = isFrameRendered();
+
+            //Events are only polled (meaning the loop runs as fast as it can) while something is animating. Otherwise, the loop waits for events.
+            boolean wait = (!frameRendered || (powerSavingEnabled && !isAnimating()));
+
+            if (frameRendered) {
+                windowManager.update(!wait);
+            }
+
+            if (wait) {
+                if (powerSavingEnabled) {
+                    windowManager.waitEvents(powerSavingTimeout);
+                } else {
+                    //If nothing was rendered, there's nothing to swap, so wait for input instead of spinning
+                    windowManager.waitEvents();
+                }
+            }
         }
 
         endOfApplicationCallback();
+        endApplication();
+    }
+
+    /**
+     * The program loop used when the input thread is enabled. The calling (main) thread polls events with <code>WindowManager.startEventLoop()</code> and puts the
+     * input events into the Window's EventQueue, while a separate render thread calls <code>run()</code> and swaps the buffers.
+     */
+    private void loopWithInputThread() {
+        EventQueue eventQueue = new EventQueue();
+        window.setEventQueue(eventQueue);
+
+        //The context is moved to the render thread
+        Window.releaseCurrentContext();
+
+        Thread renderThread = new Thread(() -> {
+            window.makeContextCurrent();
+
+            while (!window.isCloseRequested()) {
+                run();
+
+                boolean frameRendered = isFrameRendered();
+
+                if (frameRendered) {
+                    window.swapBuffers();
+                }
 
+                //Wait for input instead of rendering the same frame again (see loop())
+                if (!frameRendered || (powerSavingEnabled && !isAnimating())) {
+                    eventQueue.awaitEvents(powerSavingEnabled ? (long) (powerSavingTimeout * 1_000_000_000L) : -1);
+                }
+            }
+
+            endOfApplicationCallback();
+            Window.releaseCurrentContext();
+        }, "Render Thread");
+
+        renderThread.start();
+
+        //Runs until the render thread has finished (e.g. because the window was closed)
+        windowManager.startEventLoop(() -> {
+            //Closing the window doesn't add anything to the EventQueue, so the render thread has to be woken up to see it
+            if (window.isCloseRequested()) {
+                eventQueue.wakeUp();
+            }
+
+            return renderThread.isAlive();
+        });
+
+        try {
+            renderThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        window.setEventQueue(null);
+        window.makeContextCurrent();
+
+        endApplication();
+    }
+
+    private void endApplication() {
         if (exitProgramOnEndOfApplication()) {
             windowManager.dispose();
             System.exit(0);
@@ -95,6 +190,114 @@ public abstract class WindowedApplication {
     public abstract void run();
 
 
+    /**
+     * Called after <code>run()</code> to check if a new frame was rendered. If false, the buffers aren't swapped and the program loop waits for events
+     * instead of polling them.
+     *
+     * @return true if the last call to run() rendered a frame
+     */
+    protected boolean isFrameRendered() {
+        return true;
+    }
+
+    /**
+     * Called by the program loop to check if anything is animating. While this is true, the loop polls for events instead of waiting for them when
+     * power saving is enabled.
+     *
+     * @return true if the program needs to be updated continuously
+     */
+    protected boolean isAnimating() {
+        return false;
+    }
+
+    /**
+     * Wakes up the program loop if it's waiting for events, so that <code>run()</code> is called again as soon as possible. This can be called from any
+     * thread, e.g. when a background task has finished and the interface needs to show its results.
+     */
+    public void requestUpdate() {
+        updateRequested = true;
+        windowManager.postEmptyEvent();
+
+        EventQueue eventQueue = window.getEventQueue();
+
+        if (eventQueue != null) {
+            eventQueue.wakeUp();
+        }
+    }
+
+    /**
+     * Clears the flag set by <code>requestUpdate()</code>.
+     *
+     * @return true if an update was requested since the last time this function was called
+     */
+    protected boolean consumeUpdateRequest() {
+        if (updateRequested) {
+            updateRequested = false;
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean isInputThreadEnabled() {
+        return inputThreadEnabled;
+    }
+
+    /**
+     * If true, input is polled separately from rendering: the main thread only polls events (at about 1000 times per second), and <code>run()</code> is called
+     * on a separate render thread with the Window's OpenGL context. Input events are put into a lock-free EventQueue (see <code>Window.setEventQueue()</code>)
+     * instead of calling the input callbacks, and subclasses are responsible for draining it once per frame in <code>run()</code>. This keeps input handling from
+     * stalling the frame and lets each frame handle all of its input in one batch.
+     * <br><br>
+     * Most GLFW functions can only be called from the main thread. The Window functions that widgets use while handling input (<code>setCursor()</code>, 
+     * <code>setMousePosition()</code>, and the clipboard functions, along with <code>Cursor.apply(Window)</code>) send their GLFW calls to the main thread with
+     * <code>WindowManager.runOnMainThread()</code>, so they can be used from <code>run()</code>. Other GLFW calls made from <code>run()</code> (e.g. changing the
+     * window's title or size) have to be sent to the main thread the same way.
+     * <br><br>
+     * This has to be set before the program loop starts (e.g. in <code>init()</code>). <code>endOfApplicationCallback()</code> is called on the render thread.
+     *
+     * @param inputThreadEnabled
+     */
+    public void setInputThreadEnabled(boolean inputThreadEnabled) {
+        this.inputThreadEnabled = inputThreadEnabled;
+    }
+
+    /**
+     * @see <code>setPowerSavingEnabled()</code>
+     */
+    public boolean isPowerSavingEnabled() {
+        return powerSavingEnabled;
+    }
+
+    /**
+     * If true, the program loop waits for events with <code>glfwWaitEventsTimeout()</code> instead of continuously polling them, which lets idle windows use almost
+     * no CPU. The loop still wakes up when:
+     * <br><br>
+     * - Input is received.<br>
+     * - <code>requestUpdate()</code> is called (from any thread).<br>
+     * - The power saving timeout runs out (see <code>setPowerSavingTimeout()</code>).<br><br>
+     *
+     * While <code>isAnimating()</code> is true, the loop goes back to polling so that animations stay smooth.
+     *
+     * @param powerSavingEnabled
+     */
+    public void setPowerSavingEnabled(boolean powerSavingEnabled) {
+        this.powerSavingEnabled = powerSavingEnabled;
+    }
+
+    public double getPowerSavingTimeout() {
+        return powerSavingTimeout;
+    }
+
+    /**
+     * Sets the maximum amount of time (in seconds) that the program loop waits for events when power saving is enabled.
+     *
+     * @param powerSavingTimeout
+     */
+    public void setPowerSavingTimeout(double powerSavingTimeout) {
+        this.powerSavingTimeout = powerSavingTimeout;
+    }
+
     /**
      * Creates the GLFW Window. Allows the user to customize it to their specific use-case.
      *